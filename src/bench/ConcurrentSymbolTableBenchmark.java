@@ -0,0 +1,143 @@
+package src.bench;
+
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.*;
+
+import src.main.Config;
+import src.symbol.ConcurrentSymbolTable;
+import src.symbol.Symbol;
+import src.symbol.SymbolCategory;
+import src.symbol.SymbolImpl;
+import src.symbol.SymbolTable;
+import src.symbol.SymbolTableImpl;
+import src.type.TypeTable;
+import src.type.TypeTableImpl;
+
+/**
+ * Micro-benchmarks de ConcurrentSymbolTable con varios hilos sobre una misma
+ * tabla global: búsquedas sin candados, inserciones con reserva atómica de
+ * desplazamiento y, como referencia, inserciones en una SymbolTableImpl
+ * protegida con un candado.
+ *
+ * @author steve-quezada
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@State(Scope.Benchmark)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@Threads(4)
+public class ConcurrentSymbolTableBenchmark {
+
+    /**
+     * Número de identificadores distintos que inserta cada hilo antes de
+     * empezar a reemplazar los suyos.
+     */
+    private static final int NAMES_PER_THREAD = 1 << 14;
+
+    @Param({ "10000" })
+    private int size;
+
+    private TypeTable typeTable;
+
+    private String[] names;
+
+    private ConcurrentSymbolTable filled;
+
+    private ConcurrentSymbolTable shared;
+
+    private SymbolTable locked;
+
+    /**
+     * Estado de cada hilo: su propio cursor y sus propios nombres, para que
+     * los hilos no compitan por el mismo identificador.
+     */
+    @State(Scope.Thread)
+    public static class Worker {
+
+        private static int nextId;
+
+        String[] names;
+
+        int cursor;
+
+        /**
+         * Genera los nombres del hilo.
+         */
+        @Setup(Level.Trial)
+        public void setup() {
+            int id;
+            synchronized (Worker.class) {
+                id = nextId++;
+            }
+            names = new String[NAMES_PER_THREAD];
+            for (int i = 0; i < names.length; i++) {
+                names[i] = "t" + id + "_" + i;
+            }
+        }
+
+        int next(int bound) {
+            int i = cursor;
+            cursor = i + 1 == bound ? 0 : i + 1;
+            return i;
+        }
+    }
+
+    /**
+     * Prepara una tabla ya llena para las búsquedas.
+     */
+    @Setup(Level.Trial)
+    public void setup() {
+        typeTable = new TypeTableImpl();
+        names = new String[size];
+        filled = new ConcurrentSymbolTable(typeTable);
+        for (int i = 0; i < size; i++) {
+            names[i] = "var" + i;
+            filled.allocate(names[i], Config.TypeIds.INT, SymbolCategory.VARIABLE);
+        }
+    }
+
+    /**
+     * Vacía las tablas en las que se inserta en cada iteración.
+     */
+    @Setup(Level.Iteration)
+    public void resetTables() {
+        shared = new ConcurrentSymbolTable(typeTable);
+        locked = new SymbolTableImpl(typeTable);
+    }
+
+    /**
+     * Busca identificadores existentes mientras los demás hilos hacen lo
+     * mismo.
+     */
+    @Benchmark
+    public Optional<Symbol> lookupHit(Worker worker) {
+        return filled.lookup(names[worker.next(size)]);
+    }
+
+    /**
+     * Declara variables reservando su dirección de forma atómica.
+     */
+    @Benchmark
+    public Symbol allocate(Worker worker) {
+        return shared.allocate(worker.names[worker.next(NAMES_PER_THREAD)],
+                Config.TypeIds.INT, SymbolCategory.VARIABLE);
+    }
+
+    /**
+     * Declara variables en una SymbolTableImpl compartida con un candado
+     * alrededor de la lectura del desplazamiento y la inserción.
+     */
+    @Benchmark
+    public Symbol insertLocked(Worker worker) {
+        String name = worker.names[worker.next(NAMES_PER_THREAD)];
+        synchronized (locked) {
+            Symbol sym = new SymbolImpl(locked.getCurrentOffset(), Config.TypeIds.INT, SymbolCategory.VARIABLE);
+            locked.insert(name, sym);
+            return sym;
+        }
+    }
+}
@@ -0,0 +1,175 @@
+package src.bench;
+
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import src.main.Config;
+import src.symbol.Symbol;
+import src.symbol.SymbolCategory;
+import src.symbol.SymbolImpl;
+import src.symbol.SymbolTable;
+import src.symbol.SymbolTableImpl;
+import src.type.TypeTable;
+import src.type.TypeTableImpl;
+
+/**
+ * Micro-benchmarks de SymbolTableImpl: inserción de variables, inserción de
+ * funciones sobrecargadas, resolución de sobrecargas y búsqueda de
+ * identificadores en tablas de distintos tamaños.
+ *
+ * @author steve-quezada
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@State(Scope.Thread)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SymbolTableBenchmark {
+
+    @Param({ "100", "10000", "100000" })
+    private int size;
+
+    private TypeTable typeTable;
+
+    private String[] names;
+
+    private Symbol[] symbols;
+
+    private List<List<Integer>> signatures;
+
+    private SymbolTable filled;
+
+    private int[][] arguments;
+
+    private SymbolTable functions;
+
+    private SymbolTable overloaded;
+
+    private int[][] promotedCalls;
+
+    private int cursor;
+
+    /**
+     * Prepara los nombres, los símbolos y una tabla ya llena para las
+     * búsquedas.
+     */
+    @Setup(Level.Trial)
+    public void setup() {
+        typeTable = new TypeTableImpl();
+        names = new String[size];
+        symbols = new Symbol[size];
+        signatures = new ArrayList<>(size);
+        Random random = new Random(42);
+        for (int i = 0; i < size; i++) {
+            names[i] = "var" + i;
+            int type = random.nextBoolean() ? Config.TypeIds.INT : Config.TypeIds.FLOAT;
+            symbols[i] = new SymbolImpl(0, type, SymbolCategory.VARIABLE);
+
+            List<Integer> params = new ArrayList<>();
+            for (int p = random.nextInt(4); p > 0; p--) {
+                params.add(random.nextBoolean() ? Config.TypeIds.INT : Config.TypeIds.FLOAT);
+            }
+            signatures.add(params);
+        }
+
+        filled = new SymbolTableImpl(typeTable);
+        for (int i = 0; i < size; i++) {
+            filled.insert(names[i], symbols[i]);
+        }
+
+        arguments = new int[size][];
+        functions = new SymbolTableImpl(typeTable);
+        for (int i = 0; i < size; i++) {
+            functions.insertFunction(names[i], Config.TypeIds.INT, signatures.get(i));
+            arguments[i] = signatures.get(i).stream().mapToInt(Integer::intValue).toArray();
+        }
+
+        overloaded = new SymbolTableImpl(typeTable);
+        promotedCalls = new int[4][];
+        List<Integer> params = new ArrayList<>();
+        for (int arity = 0; arity < 4; arity++) {
+            overloaded.insertFunction("f", Config.TypeIds.FLOAT, new ArrayList<>(params));
+            promotedCalls[arity] = new int[arity];
+            Arrays.fill(promotedCalls[arity], Config.TypeIds.INT);
+            params.add(Config.TypeIds.FLOAT);
+        }
+    }
+
+    /**
+     * Llena una tabla nueva con todos los símbolos.
+     */
+    @Benchmark
+    public SymbolTable insert() {
+        SymbolTable table = new SymbolTableImpl(typeTable);
+        for (int i = 0; i < size; i++) {
+            table.insert(names[i], symbols[i]);
+        }
+        return table;
+    }
+
+    /**
+     * Registra una función por nombre, con firmas de cero a tres parámetros.
+     */
+    @Benchmark
+    public SymbolTable insertFunction() {
+        SymbolTable table = new SymbolTableImpl(typeTable);
+        for (int i = 0; i < size; i++) {
+            table.insertFunction(names[i], Config.TypeIds.INT, signatures.get(i));
+        }
+        return table;
+    }
+
+    /**
+     * Resuelve llamadas cuyos argumentos coinciden exactamente con una
+     * sobrecarga.
+     */
+    @Benchmark
+    public Optional<Symbol> resolveExact() {
+        int i = cursor;
+        cursor = i + 1 == size ? 0 : i + 1;
+        return functions.resolveFunction(names[i], arguments[i]);
+    }
+
+    /**
+     * Resuelve llamadas con argumentos int hacia sobrecargas con parámetros
+     * float; tras la primera llamada de cada forma responde la caché.
+     */
+    @Benchmark
+    public Optional<Symbol> resolvePromoted() {
+        int i = cursor;
+        cursor = i + 1 == size ? 0 : i + 1;
+        return overloaded.resolveFunction("f", promotedCalls[i & 3]);
+    }
+
+    /**
+     * Busca un identificador existente.
+     */
+    @Benchmark
+    public Optional<Symbol> lookupHit() {
+        int i = cursor;
+        cursor = i + 1 == size ? 0 : i + 1;
+        return filled.lookup(names[i]);
+    }
+
+    /**
+     * Busca un identificador que no existe.
+     */
+    @Benchmark
+    public Optional<Symbol> lookupMiss() {
+        return filled.lookup("missing");
+    }
+
+    /**
+     * Recorre la tabla en orden de declaración, como lo hace TablePrinter.
+     */
+    @Benchmark
+    public void iterate(Blackhole blackhole) {
+        for (Map.Entry<String, Symbol> entry : filled.getSymbols().entrySet()) {
+            blackhole.consume(entry.getValue());
+        }
+    }
+}
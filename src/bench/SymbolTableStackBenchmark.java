@@ -0,0 +1,110 @@
+package src.bench;
+
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.*;
+
+import src.main.Config;
+import src.symbol.SymbolCategory;
+import src.symbol.SymbolImpl;
+import src.symbol.SymbolTable;
+import src.symbol.SymbolTableImpl;
+import src.symbol.SymbolTableStack;
+import src.symbol.SymbolTableStackImpl;
+import src.type.TypeTable;
+import src.type.TypeTableImpl;
+
+/**
+ * Micro-benchmarks de SymbolTableStackImpl con distintos niveles de
+ * anidamiento: búsquedas de identificadores locales, intermedios y globales,
+ * y el costo de apilar y desapilar un ámbito.
+ *
+ * @author steve-quezada
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Thread)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SymbolTableStackBenchmark {
+
+    private static final int SYMBOLS_PER_SCOPE = 32;
+
+    @Param({ "1", "8", "64" })
+    private int depth;
+
+    private TypeTable typeTable;
+
+    private SymbolTableStack stack;
+
+    private SymbolTable extraScope;
+
+    private String middleName;
+
+    /**
+     * Construye una pila con el número de ámbitos indicado. Cada ámbito
+     * declara sus propios nombres y uno compartido que oculta al anterior.
+     */
+    @Setup(Level.Trial)
+    public void setup() {
+        typeTable = new TypeTableImpl();
+        stack = new SymbolTableStackImpl();
+        for (int level = 0; level < depth; level++) {
+            SymbolTable scope = new SymbolTableImpl(typeTable);
+            for (int i = 0; i < SYMBOLS_PER_SCOPE; i++) {
+                scope.insert("s" + level + "_" + i, new SymbolImpl(0, Config.TypeIds.INT, SymbolCategory.VARIABLE));
+            }
+            scope.insert("shadowed", new SymbolImpl(0, Config.TypeIds.FLOAT, SymbolCategory.VARIABLE));
+            stack.push(scope);
+        }
+        middleName = "s" + (depth / 2) + "_0";
+
+        extraScope = new SymbolTableImpl(typeTable);
+        for (int i = 0; i < SYMBOLS_PER_SCOPE; i++) {
+            extraScope.insert("extra" + i, new SymbolImpl(0, Config.TypeIds.INT, SymbolCategory.VARIABLE));
+        }
+    }
+
+    /**
+     * Busca un identificador declarado en el ámbito actual.
+     */
+    @Benchmark
+    public Optional<SymbolTable> lookupLocal() {
+        return stack.lookup("shadowed");
+    }
+
+    /**
+     * Busca un identificador declarado en un ámbito intermedio.
+     */
+    @Benchmark
+    public Optional<SymbolTable> lookupMiddle() {
+        return stack.lookup(middleName);
+    }
+
+    /**
+     * Busca un identificador declarado solo en el ámbito global.
+     */
+    @Benchmark
+    public Optional<SymbolTable> lookupGlobal() {
+        return stack.lookup("s0_0");
+    }
+
+    /**
+     * Busca un identificador que no está declarado en ningún ámbito.
+     */
+    @Benchmark
+    public Optional<SymbolTable> lookupMiss() {
+        return stack.lookup("missing");
+    }
+
+    /**
+     * Apila y desapila un ámbito con sus símbolos.
+     */
+    @Benchmark
+    public SymbolTable pushPop() {
+        stack.push(extraScope);
+        return stack.pop();
+    }
+}
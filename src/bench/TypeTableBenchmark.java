@@ -0,0 +1,170 @@
+package src.bench;
+
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.*;
+
+import src.main.Config;
+import src.symbol.Symbol;
+import src.symbol.SymbolCategory;
+import src.symbol.SymbolImpl;
+import src.type.DirectTypeStore;
+import src.type.HeapTypeStore;
+import src.type.TypeTableImpl;
+
+/**
+ * Micro-benchmarks de TypeTableImpl: búsqueda de tipos por nombre, creación
+ * de estructuras y creación o reutilización de tipos array
+ * multidimensionales en tablas de distintos tamaños, con almacenamiento en
+ * el heap o fuera de él, resolución repetida de rutas de miembros y
+ * comparaciones de compatibilidad ya guardadas.
+ *
+ * @author steve-quezada
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@State(Scope.Thread)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TypeTableBenchmark {
+
+    @Param({ "100", "1000", "10000" })
+    private int size;
+
+    @Param({ "heap", "direct" })
+    private String storage;
+
+    private String[] structNames;
+
+    private Map<String, Symbol> fields;
+
+    private List<List<Integer>> shapes;
+
+    private TypeTableImpl filled;
+
+    private List<Integer> repeatedShape;
+
+    private int outerId;
+
+    private int cursor;
+
+    /**
+     * Prepara los nombres de estructura, los campos, las formas de array y
+     * una tabla ya llena para las búsquedas.
+     */
+    @Setup(Level.Trial)
+    public void setup() {
+        structNames = new String[size];
+        shapes = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            structNames[i] = "Struct" + i;
+            shapes.add(Arrays.asList(i + 1, (i % 7) + 2));
+        }
+
+        fields = new LinkedHashMap<>();
+        fields.put("id", new SymbolImpl(0, Config.TypeIds.INT, SymbolCategory.MEMBER));
+        fields.put("value", new SymbolImpl(0, Config.TypeIds.FLOAT, SymbolCategory.MEMBER));
+        fields.put("count", new SymbolImpl(0, Config.TypeIds.INT, SymbolCategory.MEMBER));
+
+        filled = newTable();
+        for (int i = 0; i < size; i++) {
+            filled.createStructType(structNames[i], fields);
+        }
+        repeatedShape = Arrays.asList(10, 20);
+        filled.createMultiDimArrayType(Config.DefaultTypes.INT, repeatedShape);
+
+        Map<String, Symbol> outerFields = new LinkedHashMap<>();
+        outerFields.put("count", new SymbolImpl(0, Config.TypeIds.INT, SymbolCategory.MEMBER));
+        outerFields.put("rows", new SymbolImpl(0,
+                filled.createMultiDimArrayType(structNames[0], Arrays.asList(4, 8)), SymbolCategory.MEMBER));
+        outerId = filled.createStructType("Outer", outerFields);
+    }
+
+    /**
+     * Crea una tabla vacía con el almacenamiento del parámetro storage.
+     */
+    private TypeTableImpl newTable() {
+        return new TypeTableImpl("direct".equals(storage) ? new DirectTypeStore() : new HeapTypeStore());
+    }
+
+    /**
+     * Busca un tipo estructura existente por su nombre.
+     */
+    @Benchmark
+    public int findTypeByName() {
+        int i = cursor;
+        cursor = i + 1 == size ? 0 : i + 1;
+        return filled.findTypeByName(structNames[i]);
+    }
+
+    /**
+     * Busca un nombre de tipo que no existe.
+     */
+    @Benchmark
+    public int findTypeByNameMiss() {
+        return filled.findTypeByName("Missing");
+    }
+
+    /**
+     * Crea todas las estructuras en una tabla nueva.
+     */
+    @Benchmark
+    public TypeTableImpl createStructType() {
+        TypeTableImpl table = newTable();
+        for (int i = 0; i < size; i++) {
+            table.createStructType(structNames[i], fields);
+        }
+        return table;
+    }
+
+    /**
+     * Crea arrays de formas distintas en una tabla nueva.
+     */
+    @Benchmark
+    public TypeTableImpl createMultiDimArrayType() {
+        TypeTableImpl table = newTable();
+        for (int i = 0; i < size; i++) {
+            table.createMultiDimArrayType(Config.DefaultTypes.FLOAT, shapes.get(i));
+        }
+        return table;
+    }
+
+    /**
+     * Vuelve a declarar una forma de array que ya existe.
+     */
+    @Benchmark
+    public int createMultiDimArrayTypeExisting() {
+        return filled.createMultiDimArrayType(Config.DefaultTypes.INT, repeatedShape);
+    }
+
+    /**
+     * Resuelve una ruta de miembros que ya se resolvió antes.
+     */
+    @Benchmark
+    public long resolveMemberPath() {
+        return filled.resolveMemberPath(outerId, "rows[3][5].count").getOffset();
+    }
+
+    /**
+     * Compara dos estructuras distintas con la misma forma.
+     */
+    @Benchmark
+    public boolean isAssignable() {
+        return filled.getCompatibility().isAssignable(
+                filled.findTypeByName(structNames[0]), filled.findTypeByName(structNames[size - 1]));
+    }
+
+    /**
+     * Recorre todos los IDs leyendo tamaño, elementos y padre.
+     */
+    @Benchmark
+    public long readAttributes() {
+        long sum = 0;
+        for (int id = 0; id < filled.size(); id++) {
+            sum += filled.getTam(id) + filled.getItems(id) + filled.getParenId(id);
+        }
+        return sum;
+    }
+}
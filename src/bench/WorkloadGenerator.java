@@ -0,0 +1,316 @@
+package src.bench;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+
+import src.main.Config;
+
+/**
+ * Generador determinista de código fuente sintético en el dialecto que
+ * acepta Main.processCode. Con la misma semilla y los mismos parámetros
+ * produce siempre el mismo texto, lo que permite medir cómo escalan las
+ * tablas de símbolos y de tipos y reproducir cargas de tamaño real.
+ *
+ * El código generado contiene estructuras con campos de estructuras
+ * anteriores (al estilo Database/Table/Column), arrays multidimensionales,
+ * variables globales, funciones sobrecargadas y cuerpos con bloques
+ * anidados. Se escribe directamente al Writer, sin acumularlo en memoria,
+ * así que puede llegar a millones de líneas.
+ *
+ * @author steve-quezada
+ */
+public class WorkloadGenerator {
+
+    private static final String[] STRUCT_NAMES = {
+        "Column", "Table", "Database", "Record", "Index", "Schema", "Page", "Segment"
+    };
+
+    private static final String[] FUNCTION_NAMES = {
+        "process", "update", "lookup", "insert", "merge", "scan", "flush", "commit"
+    };
+
+    /**
+     * Parámetros de forma y tamaño del código generado.
+     */
+    public static class Options {
+
+        public long seed = 42;
+
+        public int structs = 50;
+
+        public int fieldsPerStruct = 6;
+
+        public int globals = 20;
+
+        public int functions = 100;
+
+        public int overloads = 3;
+
+        public int maxParams = 4;
+
+        public int localsPerScope = 4;
+
+        public int scopeDepth = 3;
+
+        public int maxDimensions = 3;
+
+        public int maxDimensionSize = 16;
+
+        public long targetLines = 0;
+    }
+
+    private final Options options;
+
+    private final Random random;
+
+    /**
+     * Tamaño máximo en bytes de una estructura o de un campo, variable o
+     * parámetro generado. Con este límite el tamaño de cada tipo y los
+     * desplazamientos acumulados de cada ámbito quedan muy por debajo del
+     * rango de int, así que el código generado se acepta sin errores y las
+     * mediciones recorren el análisis normal y no el camino de error.
+     */
+    private static final long MAX_OBJECT_SIZE = 1 << 16;
+
+    private final List<String> structNames;
+
+    private final List<Long> structSizes;
+
+    private long lines;
+
+    /**
+     * Constructor que prepara un generador con los parámetros indicados.
+     *
+     * @param options Parámetros del código a generar
+     */
+    public WorkloadGenerator(Options options) {
+        this.options = options;
+        this.random = new Random(options.seed);
+        this.structNames = new ArrayList<>();
+        this.structSizes = new ArrayList<>();
+    }
+
+    /**
+     * Escribe el programa completo: estructuras, variables globales,
+     * funciones y finalmente main. Si targetLines es mayor que cero, se
+     * siguen generando funciones hasta alcanzar ese número de líneas.
+     *
+     * @param out Destino del código generado
+     * @return Número de líneas escritas
+     * @throws IOException Si ocurre un error al escribir
+     */
+    public long generate(Writer out) throws IOException {
+        lines = 0;
+        line(out, "// Generado por WorkloadGenerator, semilla " + options.seed);
+
+        for (int i = 0; i < options.structs; i++) {
+            writeStruct(out, i);
+        }
+        for (int i = 0; i < options.globals; i++) {
+            line(out, typeSpec(true, MAX_OBJECT_SIZE) + " g" + i + ";");
+        }
+        if (options.globals > 0) {
+            line(out, "");
+        }
+
+        int function = 0;
+        while (function < options.functions
+                || (options.targetLines > 0 && lines < options.targetLines)) {
+            writeFunctionFamily(out, function++);
+        }
+
+        writeMain(out);
+        out.flush();
+        return lines;
+    }
+
+    /**
+     * Escribe una estructura cuyos campos pueden ser tipos primitivos,
+     * estructuras definidas antes o arrays de ambos, sin que su tamaño
+     * supere MAX_OBJECT_SIZE.
+     */
+    private void writeStruct(Writer out, int index) throws IOException {
+        String name = STRUCT_NAMES[index % STRUCT_NAMES.length] + index;
+        line(out, "struct " + name + " {");
+        long size = 0;
+        StringBuilder field = new StringBuilder();
+        for (int f = 0; f < options.fieldsPerStruct; f++) {
+            field.setLength(0);
+            field.append("    ");
+            size += typeSpec(field, true, MAX_OBJECT_SIZE - size);
+            line(out, field.append(" field").append(f).append(';').toString());
+        }
+        line(out, "};");
+        line(out, "");
+        structNames.add(name);
+        structSizes.add(size);
+    }
+
+    /**
+     * Escribe todas las sobrecargas de una función. Mientras overloads no
+     * supere maxParams + 1, cada sobrecarga tiene un número distinto de
+     * parámetros y sus firmas no coinciden.
+     */
+    private void writeFunctionFamily(Writer out, int index) throws IOException {
+        String name = FUNCTION_NAMES[index % FUNCTION_NAMES.length] + index;
+        int overloads = Math.max(1, options.overloads);
+        for (int o = 0; o < overloads; o++) {
+            StringBuilder header = new StringBuilder();
+            header.append(random.nextBoolean() ? Config.DefaultTypes.INT : Config.DefaultTypes.FLOAT)
+                    .append(' ').append(name).append('(');
+            int params = o % (options.maxParams + 1);
+            for (int p = 0; p < params; p++) {
+                if (p > 0) {
+                    header.append(", ");
+                }
+                typeSpec(header, false, MAX_OBJECT_SIZE);
+                header.append(" p").append(p);
+            }
+            header.append(") {");
+            line(out, header.toString());
+            writeScope(out, 1, 0);
+            line(out, "    return 0;");
+            line(out, "}");
+            line(out, "");
+        }
+    }
+
+    /**
+     * Escribe las variables locales de un bloque y, si no se alcanzó la
+     * profundidad máxima, un bloque anidado.
+     */
+    private void writeScope(Writer out, int indent, int depth) throws IOException {
+        String pad = "    ".repeat(indent);
+        for (int l = 0; l < options.localsPerScope; l++) {
+            line(out, pad + typeSpec(true, MAX_OBJECT_SIZE) + " v" + depth + "_" + l + ";");
+        }
+        if (depth + 1 < options.scopeDepth) {
+            line(out, pad + "{");
+            writeScope(out, indent + 1, depth + 1);
+            line(out, pad + "}");
+        }
+    }
+
+    /**
+     * Escribe la función main con una variable de cada estructura.
+     */
+    private void writeMain(Writer out) throws IOException {
+        line(out, "int main() {");
+        for (int i = 0; i < structNames.size(); i++) {
+            line(out, "    " + structNames.get(i) + " s" + i + ";");
+        }
+        line(out, "    return 0;");
+        line(out, "}");
+    }
+
+    /**
+     * Elige un tipo al azar que no supere el presupuesto indicado.
+     *
+     * @param allowArrays true para permitir tipos array
+     * @param budget      Tamaño máximo en bytes del tipo elegido
+     * @return Tipo escrito como en el código fuente, por ejemplo Table3[4][2]
+     */
+    private String typeSpec(boolean allowArrays, long budget) {
+        StringBuilder sb = new StringBuilder();
+        typeSpec(sb, allowArrays, budget);
+        return sb.toString();
+    }
+
+    /**
+     * Elige un tipo al azar: primitivo o estructura ya definida, y
+     * opcionalmente con dimensiones de array. Si el tipo elegido supera el
+     * presupuesto, se sustituye por int.
+     *
+     * @param sb          Destino del tipo escrito como en el código fuente
+     * @param allowArrays true para permitir tipos array
+     * @param budget      Tamaño máximo en bytes del tipo elegido
+     * @return Tamaño en bytes del tipo escrito
+     */
+    private long typeSpec(StringBuilder sb, boolean allowArrays, long budget) {
+        int start = sb.length();
+        long size;
+        int choice = random.nextInt(4);
+        if (choice == 0 && !structNames.isEmpty()) {
+            int struct = random.nextInt(structNames.size());
+            sb.append(structNames.get(struct));
+            size = structSizes.get(struct);
+        } else {
+            sb.append(choice % 2 == 0 ? Config.DefaultTypes.FLOAT : Config.DefaultTypes.INT);
+            size = choice % 2 == 0 ? Config.TypeSizes.FLOAT_SIZE : Config.TypeSizes.INT_SIZE;
+        }
+
+        if (allowArrays && options.maxDimensions > 0 && random.nextInt(3) == 0) {
+            int dims = 1 + random.nextInt(options.maxDimensions);
+            for (int d = 0; d < dims; d++) {
+                int length = 1 + random.nextInt(options.maxDimensionSize);
+                sb.append('[').append(length).append(']');
+                size *= length;
+            }
+        }
+
+        if (size > budget) {
+            sb.setLength(start);
+            sb.append(Config.DefaultTypes.INT);
+            size = Config.TypeSizes.INT_SIZE;
+        }
+        return size;
+    }
+
+    /**
+     * Escribe una línea y la cuenta.
+     */
+    private void line(Writer out, String text) throws IOException {
+        out.write(text);
+        out.write('\n');
+        lines++;
+    }
+
+    /**
+     * Punto de entrada por línea de comandos. Acepta opciones de la forma
+     * --nombre valor con los mismos nombres que los campos de Options, y
+     * --out archivo; sin --out escribe a la salida estándar.
+     *
+     * @param args Opciones del generador
+     * @throws IOException Si ocurre un error al escribir
+     */
+    public static void main(String[] args) throws IOException {
+        Options options = new Options();
+        String output = null;
+        for (int i = 0; i + 1 < args.length; i += 2) {
+            String value = args[i + 1];
+            switch (args[i]) {
+                case "--seed": options.seed = Long.parseLong(value); break;
+                case "--structs": options.structs = Integer.parseInt(value); break;
+                case "--fields": options.fieldsPerStruct = Integer.parseInt(value); break;
+                case "--globals": options.globals = Integer.parseInt(value); break;
+                case "--functions": options.functions = Integer.parseInt(value); break;
+                case "--overloads": options.overloads = Integer.parseInt(value); break;
+                case "--params": options.maxParams = Integer.parseInt(value); break;
+                case "--locals": options.localsPerScope = Integer.parseInt(value); break;
+                case "--depth": options.scopeDepth = Integer.parseInt(value); break;
+                case "--dims": options.maxDimensions = Integer.parseInt(value); break;
+                case "--dim-size": options.maxDimensionSize = Integer.parseInt(value); break;
+                case "--lines": options.targetLines = Long.parseLong(value); break;
+                case "--out": output = value; break;
+                default:
+                    throw new IllegalArgumentException("Opción desconocida: " + args[i]);
+            }
+        }
+
+        OutputStream stream = output == null ? System.out : new FileOutputStream(output);
+        Writer out = new BufferedWriter(new OutputStreamWriter(stream, StandardCharsets.UTF_8), 1 << 16);
+        try {
+            long written = new WorkloadGenerator(options).generate(out);
+            if (output != null) {
+                System.err.println(written + " líneas escritas en " + output);
+            }
+        } finally {
+            if (output != null) {
+                out.close();
+            } else {
+                out.flush();
+            }
+        }
+    }
+}
@@ -0,0 +1,179 @@
+package src.lexer;
+
+import java.util.Arrays;
+
+import src.main.Config;
+
+/**
+ * Reconocimiento de las palabras reservadas y los tipos primitivos con una
+ * función hash perfecta mínima: cada palabra del conjunto cae en una
+ * posición distinta de una tabla del mismo tamaño que el conjunto, así que
+ * clasificar una palabra cuesta un hash y una sola comparación, sin crear
+ * cadenas.
+ *
+ * El hash solo mira la longitud y el primer y último carácter, sin
+ * distinguir mayúsculas de minúsculas ASCII. El multiplicador que hace
+ * perfecta la función se busca al cargar la clase; si al agregar una
+ * palabra ya no existe ninguno, la carga falla y hay que incluir otro
+ * carácter en el hash.
+ *
+ * @author steve-quezada
+ */
+public final class Keywords {
+
+    /**
+     * Palabra reservada que inicia una estructura.
+     */
+    public static final String STRUCT = "struct";
+
+    /**
+     * Palabra reservada que inicia un retorno.
+     */
+    public static final String RETURN = "return";
+
+    private static final String[] WORDS = {
+        Config.DefaultTypes.INT,
+        Config.DefaultTypes.FLOAT,
+        Config.DefaultTypes.VOID,
+        STRUCT,
+        RETURN,
+    };
+
+    private static final TokenKind[] KINDS = {
+        TokenKind.INT,
+        TokenKind.FLOAT,
+        TokenKind.VOID,
+        TokenKind.STRUCT,
+        TokenKind.RETURN,
+    };
+
+    private static final int MAX_SEED_ATTEMPTS = 1 << 20;
+
+    private static final int MIN_LENGTH;
+
+    private static final int MAX_LENGTH;
+
+    private static final int SEED;
+
+    private static final String[] TABLE_WORDS = new String[WORDS.length];
+
+    private static final TokenKind[] TABLE_KINDS = new TokenKind[WORDS.length];
+
+    static {
+        int min = Integer.MAX_VALUE;
+        int max = 0;
+        for (String word : WORDS) {
+            min = Math.min(min, word.length());
+            max = Math.max(max, word.length());
+        }
+        MIN_LENGTH = min;
+        MAX_LENGTH = max;
+        SEED = findSeed();
+        for (int i = 0; i < WORDS.length; i++) {
+            int slot = slot(WORDS[i], 0, WORDS[i].length(), SEED);
+            TABLE_WORDS[slot] = WORDS[i];
+            TABLE_KINDS[slot] = KINDS[i];
+        }
+    }
+
+    private Keywords() {
+    }
+
+    /**
+     * Clasifica un tramo de texto que ya se sabe que es una palabra.
+     *
+     * @param text  Texto que contiene la palabra
+     * @param start Posición del primer carácter
+     * @param end   Posición siguiente al último carácter
+     * @return Clase de la palabra reservada o del tipo primitivo, o
+     *         IDENTIFIER si no es ninguno
+     */
+    public static TokenKind classify(CharSequence text, int start, int end) {
+        int length = end - start;
+        if (length < MIN_LENGTH || length > MAX_LENGTH) {
+            return TokenKind.IDENTIFIER;
+        }
+        int slot = slot(text, start, end, SEED);
+        String word = TABLE_WORDS[slot];
+        if (word.length() != length) {
+            return TokenKind.IDENTIFIER;
+        }
+        for (int i = 0; i < length; i++) {
+            if (text.charAt(start + i) != word.charAt(i)) {
+                return TokenKind.IDENTIFIER;
+            }
+        }
+        return TABLE_KINDS[slot];
+    }
+
+    /**
+     * Clasifica un nombre de tipo sin distinguir mayúsculas de minúsculas
+     * ASCII, de modo que Int o FLOAT también nombran a los primitivos.
+     *
+     * @param name Nombre a clasificar
+     * @return Clase del tipo primitivo o de la palabra reservada, o
+     *         IDENTIFIER si no es ninguno
+     */
+    public static TokenKind classifyIgnoreCase(String name) {
+        int length = name.length();
+        if (length < MIN_LENGTH || length > MAX_LENGTH) {
+            return TokenKind.IDENTIFIER;
+        }
+        int slot = slot(name, 0, length, SEED);
+        String word = TABLE_WORDS[slot];
+        if (word.length() != length) {
+            return TokenKind.IDENTIFIER;
+        }
+        for (int i = 0; i < length; i++) {
+            if (toLowerAscii(name.charAt(i)) != word.charAt(i)) {
+                return TokenKind.IDENTIFIER;
+            }
+        }
+        return TABLE_KINDS[slot];
+    }
+
+    /**
+     * Calcula la posición de una palabra en la tabla. El producto de 32
+     * bits se reduce al tamaño de la tabla con una multiplicación en lugar
+     * de un módulo.
+     */
+    private static int slot(CharSequence text, int start, int end, int seed) {
+        int key = ((end - start) * 31 + toLowerAscii(text.charAt(start))) * 31
+                + toLowerAscii(text.charAt(end - 1));
+        long mixed = (key * seed) & 0xFFFFFFFFL;
+        return (int) ((mixed * WORDS.length) >>> 32);
+    }
+
+    /**
+     * Busca el primer multiplicador impar con el que ninguna palabra del
+     * conjunto comparte posición.
+     */
+    private static int findSeed() {
+        boolean[] taken = new boolean[WORDS.length];
+        for (int attempt = 0; attempt < MAX_SEED_ATTEMPTS; attempt++) {
+            int seed = 0x9E3779B9 + (attempt << 1);
+            Arrays.fill(taken, false);
+            boolean perfect = true;
+            for (String word : WORDS) {
+                int slot = slot(word, 0, word.length(), seed);
+                if (taken[slot]) {
+                    perfect = false;
+                    break;
+                }
+                taken[slot] = true;
+            }
+            if (perfect) {
+                return seed;
+            }
+        }
+        throw new IllegalStateException("No hay un hash perfecto para las palabras reservadas");
+    }
+
+    /**
+     * Convierte a minúscula una letra ASCII y deja igual cualquier otro
+     * carácter.
+     */
+    private static char toLowerAscii(char c) {
+        return c >= 'A' && c <= 'Z' ? (char) (c + ('a' - 'A')) : c;
+    }
+}
@@ -0,0 +1,335 @@
+package src.lexer;
+
+import src.main.Config;
+
+/**
+ * Analizador léxico escrito a mano que recorre el código fuente carácter por
+ * carácter y produce un flujo de tokens. No usa expresiones regulares ni
+ * divide el texto en líneas: el token actual se describe con su clase, su
+ * posición y, para identificadores, un hash calculado durante el recorrido.
+ *
+ * Las palabras reservadas y los tipos primitivos se reconocen con el hash
+ * perfecto de {@link Keywords}, directamente sobre los caracteres.
+ *
+ * Los identificadores se internan en una tabla propia indexada por ese hash,
+ * así que un nombre repetido en el código produce siempre la misma cadena
+ * sin crear una nueva.
+ *
+ * @author steve-quezada
+ */
+public class Lexer {
+
+    private static final int MIN_INTERN_CAPACITY = 64;
+
+    private final CharSequence input;
+
+    private final int length;
+
+    private int pos;
+
+    private int line;
+
+    private TokenKind kind;
+
+    private int start;
+
+    private int end;
+
+    private int tokenLine;
+
+    private int hash;
+
+    private int number;
+
+    private String[] internTable;
+
+    private int[] internHashes;
+
+    private int internCount;
+
+    /**
+     * Constructor que prepara el análisis de un texto fuente.
+     *
+     * @param input Código fuente a analizar
+     */
+    public Lexer(CharSequence input) {
+        this(input, 0, 1);
+    }
+
+    /**
+     * Constructor que prepara el análisis de un texto fuente a partir de
+     * una posición intermedia, por ejemplo el inicio de una declaración que
+     * se vuelve a analizar.
+     *
+     * @param input  Código fuente a analizar
+     * @param offset Posición desde la que se lee
+     * @param line   Número de línea de esa posición
+     */
+    public Lexer(CharSequence input, int offset, int line) {
+        this.input = input;
+        this.length = input.length();
+        this.pos = offset;
+        this.line = line;
+        this.internTable = new String[MIN_INTERN_CAPACITY];
+        this.internHashes = new int[MIN_INTERN_CAPACITY];
+    }
+
+    /**
+     * Avanza al siguiente token, omitiendo espacios y comentarios de línea.
+     * Un número fuera de rango no lanza una excepción: se entrega como un
+     * token ERROR, de modo que un token mal formado nunca aborta el análisis.
+     *
+     * @return Clase del nuevo token actual
+     */
+    public TokenKind next() {
+        skipWhitespaceAndComments();
+        start = pos;
+        tokenLine = line;
+        if (pos >= length) {
+            end = pos;
+            return kind = TokenKind.EOF;
+        }
+
+        char c = input.charAt(pos);
+        if (isIdentifierStart(c)) {
+            int h = 0;
+            do {
+                h = 31 * h + c;
+                pos++;
+            } while (pos < length && isIdentifierPart(c = input.charAt(pos)));
+            end = pos;
+            hash = h;
+            return kind = Keywords.classify(input, start, end);
+        }
+
+        if (c >= '0' && c <= '9') {
+            long value = 0;
+            boolean overflow = false;
+            do {
+                if (!overflow) {
+                    value = value * 10 + (c - '0');
+                    overflow = value > Integer.MAX_VALUE;
+                }
+                pos++;
+            } while (pos < length && (c = input.charAt(pos)) >= '0' && c <= '9');
+            end = pos;
+            if (overflow) {
+                // El número completo se consume como un solo token de
+                // error, así que el análisis sigue en el token siguiente.
+                number = 0;
+                return kind = TokenKind.ERROR;
+            }
+            number = (int) value;
+            return kind = TokenKind.NUMBER;
+        }
+
+        pos++;
+        end = pos;
+        switch (c) {
+            case '{':
+                return kind = TokenKind.LBRACE;
+            case '}':
+                return kind = TokenKind.RBRACE;
+            case '(':
+                return kind = TokenKind.LPAREN;
+            case ')':
+                return kind = TokenKind.RPAREN;
+            case '[':
+                return kind = TokenKind.LBRACKET;
+            case ']':
+                return kind = TokenKind.RBRACKET;
+            case ';':
+                return kind = TokenKind.SEMICOLON;
+            case ',':
+                return kind = TokenKind.COMMA;
+            default:
+                return kind = TokenKind.OTHER;
+        }
+    }
+
+    /**
+     * Omite espacios en blanco y comentarios de una línea, contando los
+     * saltos de línea.
+     */
+    private void skipWhitespaceAndComments() {
+        while (pos < length) {
+            char c = input.charAt(pos);
+            if (c == '\n') {
+                line++;
+                pos++;
+            } else if (c == ' ' || c == '\t' || c == '\r' || c == '\f') {
+                pos++;
+            } else if (c == '/' && pos + 1 < length && input.charAt(pos + 1) == '/') {
+                pos += 2;
+                while (pos < length && input.charAt(pos) != '\n') {
+                    pos++;
+                }
+            } else {
+                return;
+            }
+        }
+    }
+
+    /**
+     * Compara el texto del token actual con una palabra sin crear cadenas.
+     *
+     * @param word Palabra a comparar
+     * @return true si coinciden
+     */
+    private boolean matches(String word) {
+        if (word.length() != end - start) {
+            return false;
+        }
+        for (int i = 0; i < word.length(); i++) {
+            if (input.charAt(start + i) != word.charAt(i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Obtiene la clase del token actual.
+     *
+     * @return Clase del token
+     */
+    public TokenKind kind() {
+        return kind;
+    }
+
+    /**
+     * Obtiene el hash del identificador actual. Coincide con el valor de
+     * String.hashCode() para el mismo texto.
+     *
+     * @return Hash del identificador
+     */
+    public int hash() {
+        return hash;
+    }
+
+    /**
+     * Obtiene el valor del número entero actual.
+     *
+     * @return Valor numérico del token
+     */
+    public int intValue() {
+        return number;
+    }
+
+    /**
+     * Obtiene la posición en la que comienza el token actual.
+     *
+     * @return Posición del primer carácter del token
+     */
+    public int start() {
+        return start;
+    }
+
+    /**
+     * Obtiene la posición siguiente al último carácter del token actual.
+     *
+     * @return Posición de fin del token
+     */
+    public int end() {
+        return end;
+    }
+
+    /**
+     * Obtiene la línea en la que comienza el token actual.
+     *
+     * @return Número de línea, empezando en 1
+     */
+    public int line() {
+        return tokenLine;
+    }
+
+    /**
+     * Obtiene el texto del token actual. Los identificadores se devuelven
+     * internados, las palabras reservadas como constantes y los tokens de
+     * error como su mensaje.
+     *
+     * @return Texto del token
+     */
+    public String text() {
+        switch (kind) {
+            case IDENTIFIER:
+                return intern();
+            case INT:
+                return Config.DefaultTypes.INT;
+            case FLOAT:
+                return Config.DefaultTypes.FLOAT;
+            case VOID:
+                return Config.DefaultTypes.VOID;
+            case STRUCT:
+                return Keywords.STRUCT;
+            case RETURN:
+                return Keywords.RETURN;
+            case ERROR:
+                return "Número fuera de rango en la línea " + tokenLine;
+            default:
+                return input.subSequence(start, end).toString();
+        }
+    }
+
+    /**
+     * Busca el identificador actual en la tabla de internado y lo agrega si
+     * es la primera vez que aparece.
+     *
+     * @return Cadena internada del identificador
+     */
+    private String intern() {
+        int mask = internTable.length - 1;
+        int slot = (hash ^ (hash >>> 16)) & mask;
+        String existing;
+        while ((existing = internTable[slot]) != null) {
+            if (internHashes[slot] == hash && matches(existing)) {
+                return existing;
+            }
+            slot = (slot + 1) & mask;
+        }
+
+        String word = input.subSequence(start, end).toString();
+        internTable[slot] = word;
+        internHashes[slot] = hash;
+        if (++internCount * 2 > internTable.length) {
+            growInternTable();
+        }
+        return word;
+    }
+
+    /**
+     * Duplica la capacidad de la tabla de internado.
+     */
+    private void growInternTable() {
+        String[] oldTable = internTable;
+        int[] oldHashes = internHashes;
+        internTable = new String[oldTable.length << 1];
+        internHashes = new int[oldTable.length << 1];
+        int mask = internTable.length - 1;
+        for (int i = 0; i < oldTable.length; i++) {
+            if (oldTable[i] != null) {
+                int slot = (oldHashes[i] ^ (oldHashes[i] >>> 16)) & mask;
+                while (internTable[slot] != null) {
+                    slot = (slot + 1) & mask;
+                }
+                internTable[slot] = oldTable[i];
+                internHashes[slot] = oldHashes[i];
+            }
+        }
+    }
+
+    /**
+     * Verifica si un carácter puede iniciar un identificador.
+     */
+    private static boolean isIdentifierStart(char c) {
+        return (c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z') || c == '_'
+                || (c > 127 && Character.isLetter(c));
+    }
+
+    /**
+     * Verifica si un carácter puede continuar un identificador.
+     */
+    private static boolean isIdentifierPart(char c) {
+        return isIdentifierStart(c) || (c >= '0' && c <= '9');
+    }
+}
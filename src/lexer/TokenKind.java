@@ -0,0 +1,40 @@
+package src.lexer;
+
+/**
+ * Clases de token que reconoce el analizador léxico.
+ *
+ * @author steve-quezada
+ */
+public enum TokenKind {
+    IDENTIFIER,
+    NUMBER,
+    STRUCT,
+    RETURN,
+    INT,
+    FLOAT,
+    VOID,
+    LBRACE,
+    RBRACE,
+    LPAREN,
+    RPAREN,
+    LBRACKET,
+    RBRACKET,
+    SEMICOLON,
+    COMMA,
+    OTHER,
+    /**
+     * Token mal formado, como un número fuera de rango. Su texto es el
+     * mensaje de error.
+     */
+    ERROR,
+    EOF;
+
+    /**
+     * Indica si el token puede iniciar el nombre de un tipo.
+     *
+     * @return true para identificadores y tipos primitivos
+     */
+    public boolean isTypeName() {
+        return this == IDENTIFIER || this == INT || this == FLOAT || this == VOID;
+    }
+}
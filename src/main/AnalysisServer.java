@@ -0,0 +1,336 @@
+package src.main;
+
+import java.io.*;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import src.symbol.SymbolTableImpl;
+import src.symbol.SymbolTableStackImpl;
+import src.type.TypeTableImpl;
+import src.util.Colors;
+import src.util.JsonTableWriter;
+import src.util.OutputSink;
+
+/**
+ * Servidor de análisis de larga duración: escucha en la interfaz local y
+ * analiza el código fuente que le envían otros procesos, de modo que cada
+ * análisis no paga el arranque de la JVM ni la carga de clases.
+ *
+ * Protocolo: una conexión puede enviar varias peticiones seguidas. Cada
+ * petición es una línea con el número de bytes del código fuente, seguida
+ * de ese número de bytes en UTF-8. Cada respuesta es una línea con el
+ * resultado en JSON, con el formato de {@link JsonTableWriter}, o un objeto
+ * con un único campo error si la petición no es válida o su análisis falla
+ * de forma inesperada. Una línea vacía o el fin de la conexión terminan la
+ * sesión.
+ *
+ * Cada conexión se atiende en su propio hilo. Cada petición toma de un
+ * pool un juego de tablas aislado; al terminar, las tablas vuelven a su
+ * estado inicial con las marcas de rollback, conservando la memoria que ya
+ * reservaron, y regresan al pool para la siguiente petición.
+ *
+ * @author steve-quezada
+ */
+public class AnalysisServer {
+
+    /**
+     * Argumento que activa el servidor desde Main.
+     */
+    public static final String SERVE_FLAG = "--serve";
+
+    private static final String PORT_FLAG = "--port";
+
+    private static final String SESSIONS_FLAG = "--sessions";
+
+    /**
+     * Puerto en el que se escucha si no se indica otro.
+     */
+    public static final int DEFAULT_PORT = 7621;
+
+    /**
+     * Tamaño máximo del código fuente de una petición.
+     */
+    private static final int MAX_REQUEST_BYTES = 64 << 20;
+
+    /**
+     * Longitud máxima de la línea con el tamaño de una petición.
+     */
+    private static final int MAX_HEADER_LENGTH = 16;
+
+    /**
+     * Juego de tablas de una petición, con las marcas de su estado inicial.
+     */
+    private static final class Session {
+
+        final TypeTableImpl typeTable = new TypeTableImpl();
+
+        final SymbolTableStackImpl symbolStack = new SymbolTableStackImpl();
+
+        final SymbolTableImpl globalTable = new SymbolTableImpl(typeTable, null);
+
+        final List<String> errors = new ArrayList<>();
+
+        final TypeTableImpl.Mark types;
+
+        final SymbolTableImpl.Mark symbols;
+
+        final SymbolTableStackImpl.Mark scopes;
+
+        Session() {
+            symbolStack.push(globalTable);
+            types = typeTable.mark();
+            symbols = globalTable.mark();
+            scopes = symbolStack.mark();
+        }
+
+        /**
+         * Deja las tablas como recién creadas.
+         */
+        void rollback() {
+            typeTable.rollback(types);
+            globalTable.rollback(symbols);
+            symbolStack.rollback(scopes);
+            errors.clear();
+        }
+    }
+
+    private final ServerSocket serverSocket;
+
+    private final ExecutorService connections;
+
+    private final Queue<Session> pool = new ConcurrentLinkedQueue<>();
+
+    private final AtomicInteger pooled = new AtomicInteger();
+
+    private final int maxPooled;
+
+    /**
+     * Constructor que abre el socket del servidor en la interfaz local.
+     *
+     * @param port      Puerto en el que escuchar, o 0 para uno libre
+     * @param maxPooled Número máximo de juegos de tablas que se conservan
+     * @throws IOException Si no se puede abrir el socket
+     */
+    public AnalysisServer(int port, int maxPooled) throws IOException {
+        this.serverSocket = new ServerSocket(port, 0, InetAddress.getLoopbackAddress());
+        this.maxPooled = maxPooled;
+        // Un hilo por conexión; con JDK 21 este ejecutor puede cambiarse
+        // por Executors.newVirtualThreadPerTaskExecutor().
+        this.connections = Executors.newCachedThreadPool(task -> {
+            Thread thread = new Thread(task, "analysis-connection");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Punto de entrada del servidor. Acepta opcionalmente "--port N" y
+     * "--sessions N" (juegos de tablas que se conservan en el pool).
+     *
+     * @param args Argumentos posteriores a --serve
+     */
+    public static void run(String[] args) {
+        int port = DEFAULT_PORT;
+        int sessions = Runtime.getRuntime().availableProcessors();
+        String invalid = null;
+        for (int i = 0; i < args.length; i++) {
+            if (PORT_FLAG.equals(args[i]) && i + 1 < args.length) {
+                String value = args[++i];
+                // El puerto 0 pide uno libre al sistema.
+                port = "0".equals(value) ? 0 : BatchAnalyzer.parsePositive(value);
+                if (port < 0 || port > 0xFFFF) {
+                    invalid = "Puerto no válido: " + value;
+                }
+            } else if (SESSIONS_FLAG.equals(args[i]) && i + 1 < args.length) {
+                sessions = BatchAnalyzer.parsePositive(args[++i]);
+                if (sessions < 0) {
+                    invalid = "Número de sesiones no válido: " + args[i];
+                }
+            }
+        }
+
+        Colors.setSink(OutputSink.standardOutput(false, !OutputSink.isTerminal()));
+        if (invalid != null) {
+            Colors.println(invalid, Colors.RED);
+            Colors.flush();
+            return;
+        }
+        try {
+            AnalysisServer server = new AnalysisServer(port, sessions);
+            Colors.println("Escuchando en " + server.getAddress(), Colors.TEAL + Colors.HIGH_INTENSITY);
+            Colors.flush();
+            server.serve();
+        } catch (IOException e) {
+            Colors.println("Error del servidor: " + e.getMessage(), Colors.RED);
+        } finally {
+            Colors.flush();
+        }
+    }
+
+    /**
+     * Obtiene la dirección en la que escucha el servidor.
+     *
+     * @return Dirección y puerto, como 127.0.0.1:7621
+     */
+    public String getAddress() {
+        return serverSocket.getInetAddress().getHostAddress() + ":" + serverSocket.getLocalPort();
+    }
+
+    /**
+     * Acepta conexiones hasta que se cierre el servidor.
+     *
+     * @throws IOException Si falla el socket del servidor
+     */
+    public void serve() throws IOException {
+        try {
+            while (true) {
+                Socket socket = serverSocket.accept();
+                connections.execute(() -> handle(socket));
+            }
+        } catch (IOException e) {
+            if (!serverSocket.isClosed()) {
+                throw e;
+            }
+        } finally {
+            connections.shutdownNow();
+        }
+    }
+
+    /**
+     * Cierra el servidor: deja de aceptar conexiones nuevas.
+     *
+     * @throws IOException Si ocurre un error al cerrar el socket
+     */
+    public void close() throws IOException {
+        serverSocket.close();
+    }
+
+    /**
+     * Atiende las peticiones de una conexión hasta que termine.
+     */
+    private void handle(Socket socket) {
+        try (Socket connection = socket) {
+            // Cada respuesta se envía completa con un solo flush; sin
+            // esperar el ACK de la anterior, como haría el algoritmo de Nagle.
+            connection.setTcpNoDelay(true);
+            InputStream in = new BufferedInputStream(connection.getInputStream());
+            Writer out = new BufferedWriter(new OutputStreamWriter(connection.getOutputStream(),
+                    StandardCharsets.UTF_8));
+            // Cada respuesta se arma completa antes de enviarla, para que un
+            // fallo a mitad del JSON no deje una línea truncada en la conexión.
+            StringBuilder response = new StringBuilder();
+            while (true) {
+                String header = readHeader(in);
+                if (header == null || header.trim().isEmpty()) {
+                    return;
+                }
+                int length;
+                try {
+                    length = Integer.parseInt(header.trim());
+                } catch (NumberFormatException e) {
+                    length = -1;
+                }
+                response.setLength(0);
+                if (length < 0 || length > MAX_REQUEST_BYTES) {
+                    new JsonTableWriter(response).writeError("Tamaño de petición no válido: " + header);
+                    out.append(response).write('\n');
+                    out.flush();
+                    return;
+                }
+                byte[] source = in.readNBytes(length);
+                if (source.length < length) {
+                    return;
+                }
+                analyze(new String(source, StandardCharsets.UTF_8), response);
+                out.append(response).write('\n');
+                out.flush();
+            }
+        } catch (IOException e) {
+            // El cliente cerró la conexión; no hay a quién responder.
+        }
+    }
+
+    /**
+     * Analiza un código fuente con tablas del pool y deja el resultado en
+     * la respuesta. Si el análisis o la escritura de las tablas fallan de
+     * forma inesperada, la respuesta es un objeto de error y la conexión
+     * sigue disponible para la siguiente petición.
+     */
+    private void analyze(String source, StringBuilder response) throws IOException {
+        Session session = acquire();
+        try {
+            try {
+                Main.processCode(source, session.typeTable, session.symbolStack, session.globalTable,
+                        session.errors);
+            } catch (RuntimeException e) {
+                session.errors.add("Error: " + e.getMessage());
+            }
+            new JsonTableWriter(response).write(session.typeTable, session.symbolStack, session.errors);
+        } catch (RuntimeException e) {
+            response.setLength(0);
+            new JsonTableWriter(response).writeError("Error inesperado: " + e);
+        } finally {
+            release(session);
+        }
+    }
+
+    /**
+     * Toma un juego de tablas del pool, o crea uno si está vacío.
+     */
+    private Session acquire() {
+        Session session = pool.poll();
+        if (session == null) {
+            return new Session();
+        }
+        pooled.decrementAndGet();
+        return session;
+    }
+
+    /**
+     * Devuelve las tablas al pool en su estado inicial. Si el pool ya está
+     * lleno, o si no pueden volver a su estado inicial, se descartan.
+     */
+    private void release(Session session) {
+        try {
+            session.rollback();
+        } catch (RuntimeException e) {
+            return;
+        }
+        if (pooled.incrementAndGet() <= maxPooled) {
+            pool.offer(session);
+        } else {
+            pooled.decrementAndGet();
+        }
+    }
+
+    /**
+     * Lee la línea con el tamaño de una petición, sin el salto de línea.
+     *
+     * @return Línea leída, o null si la conexión terminó
+     */
+    private static String readHeader(InputStream in) throws IOException {
+        StringBuilder header = new StringBuilder();
+        while (true) {
+            int c = in.read();
+            if (c < 0) {
+                return header.length() == 0 ? null : header.toString();
+            }
+            if (c == '\n') {
+                return header.toString();
+            }
+            if (header.length() == MAX_HEADER_LENGTH) {
+                return header.append("...").toString();
+            }
+            header.append((char) c);
+        }
+    }
+}
@@ -0,0 +1,383 @@
+package src.main;
+
+import java.io.IOException;
+import java.nio.file.*;
+import java.util.*;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.stream.Stream;
+
+import src.symbol.SymbolTable;
+import src.symbol.SymbolTableImpl;
+import src.symbol.SymbolTableStack;
+import src.symbol.SymbolTableStackImpl;
+import src.type.TableSnapshot;
+import src.type.TypeTable;
+import src.type.TypeTableImpl;
+import src.util.Colors;
+import src.util.InputReader;
+import src.util.OutputSink;
+import src.util.TablePrinter;
+
+/**
+ * Análisis por lotes sin interfaz interactiva. Recibe una lista de archivos
+ * o directorios, analiza cada archivo en paralelo sobre un ForkJoinPool y
+ * después imprime los resultados en el mismo orden en que se recibieron.
+ *
+ * Cada archivo es una unidad independiente con sus propias tablas de tipos
+ * y de símbolos, sin estado compartido entre unidades.
+ *
+ * @author steve-quezada
+ */
+public class BatchAnalyzer {
+
+    /**
+     * Argumento que activa el modo por lotes desde Main.
+     */
+    public static final String BATCH_FLAG = "--batch";
+
+    private static final String THREADS_FLAG = "--threads";
+
+    private static final String PLAIN_FLAG = "--plain";
+
+    private static final String COLOR_FLAG = "--color";
+
+    private static final String SNAPSHOT_FLAG = "--snapshot";
+
+    /**
+     * Extensión de los archivos de instantánea. Un archivo con esta
+     * extensión se carga en lugar de analizarse.
+     */
+    public static final String SNAPSHOT_EXTENSION = ".snap";
+
+    /**
+     * Número de unidades a partir del cual una tarea se divide en dos.
+     */
+    private static final int SEQUENTIAL_THRESHOLD = 4;
+
+    /**
+     * Resultado del análisis de un archivo.
+     */
+    public static final class Unit {
+
+        private final Path path;
+
+        private final TypeTable typeTable;
+
+        private final SymbolTableStack symbolStack;
+
+        private final List<String> errors;
+
+        /**
+         * Constructor que registra el resultado de una unidad.
+         *
+         * @param path        Ruta del archivo analizado
+         * @param typeTable   Tabla de tipos de la unidad
+         * @param symbolStack Pila de ámbitos de la unidad
+         * @param errors      Mensajes de error de la unidad
+         */
+        Unit(Path path, TypeTable typeTable, SymbolTableStack symbolStack, List<String> errors) {
+            this.path = path;
+            this.typeTable = typeTable;
+            this.symbolStack = symbolStack;
+            this.errors = errors;
+        }
+
+        /**
+         * Obtiene la ruta del archivo analizado.
+         *
+         * @return Ruta del archivo analizado
+         */
+        public Path getPath() {
+            return path;
+        }
+
+        /**
+         * Obtiene la tabla de tipos de la unidad.
+         *
+         * @return Tabla de tipos de la unidad
+         */
+        public TypeTable getTypeTable() {
+            return typeTable;
+        }
+
+        /**
+         * Obtiene la pila de ámbitos de la unidad.
+         *
+         * @return Pila de ámbitos de la unidad
+         */
+        public SymbolTableStack getSymbolStack() {
+            return symbolStack;
+        }
+
+        /**
+         * Obtiene los mensajes de error de la unidad.
+         *
+         * @return Mensajes de error de la unidad
+         */
+        public List<String> getErrors() {
+            return errors;
+        }
+    }
+
+    /**
+     * Tarea que analiza un rango de archivos dividiéndolo a la mitad hasta
+     * llegar al umbral secuencial.
+     */
+    private static final class AnalyzeTask extends RecursiveAction {
+
+        private static final long serialVersionUID = 1L;
+
+        private final List<Path> files;
+
+        private final Unit[] results;
+
+        private final int from;
+
+        private final int to;
+
+        AnalyzeTask(List<Path> files, Unit[] results, int from, int to) {
+            this.files = files;
+            this.results = results;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from <= SEQUENTIAL_THRESHOLD) {
+                for (int i = from; i < to; i++) {
+                    results[i] = analyze(files.get(i));
+                }
+                return;
+            }
+            int mid = (from + to) >>> 1;
+            invokeAll(new AnalyzeTask(files, results, from, mid),
+                    new AnalyzeTask(files, results, mid, to));
+        }
+    }
+
+    /**
+     * Punto de entrada del modo por lotes. Acepta opcionalmente
+     * "--threads N", "--plain" o "--color" y "--snapshot DIR", seguidos de
+     * archivos o directorios. Sin "--plain" ni "--color", los colores ANSI
+     * solo se conservan si la salida es una terminal. Con "--snapshot" se
+     * guarda en DIR una instantánea binaria de las tablas de cada archivo
+     * analizado; los archivos .snap recibidos se cargan sin reanalizarse.
+     *
+     * La salida se entrega desde un hilo escritor en segundo plano, así que
+     * el análisis no espera a la consola.
+     *
+     * @param args Argumentos posteriores a --batch
+     */
+    public static void run(String[] args) {
+        int parallelism = Runtime.getRuntime().availableProcessors();
+        String threads = null;
+        boolean ansi = OutputSink.isTerminal();
+        Path snapshotDir = null;
+        List<String> paths = new ArrayList<>();
+        for (int i = 0; i < args.length; i++) {
+            if (THREADS_FLAG.equals(args[i]) && i + 1 < args.length) {
+                threads = args[++i];
+                parallelism = parsePositive(threads);
+            } else if (PLAIN_FLAG.equals(args[i])) {
+                ansi = false;
+            } else if (COLOR_FLAG.equals(args[i])) {
+                ansi = true;
+            } else if (SNAPSHOT_FLAG.equals(args[i]) && i + 1 < args.length) {
+                snapshotDir = Paths.get(args[++i]);
+            } else {
+                paths.add(args[i]);
+            }
+        }
+
+        Colors.setSink(OutputSink.standardOutput(true, !ansi));
+        try {
+            if (parallelism < 1) {
+                Colors.println("Número de hilos no válido: " + threads, Colors.RED);
+                return;
+            }
+            List<Path> files;
+            try {
+                files = collectFiles(paths);
+            } catch (IOException e) {
+                Colors.println("Error al leer el directorio: " + e.getMessage(), Colors.RED);
+                return;
+            }
+
+            for (Unit unit : analyzeAll(files, parallelism)) {
+                if (snapshotDir != null) {
+                    saveSnapshot(unit, snapshotDir);
+                }
+                printUnit(unit);
+            }
+        } finally {
+            Colors.flush();
+        }
+    }
+
+    /**
+     * Expande la lista de rutas: los directorios se sustituyen por sus
+     * archivos regulares ordenados por nombre.
+     *
+     * @param paths Archivos o directorios
+     * @return Archivos a analizar en orden
+     * @throws IOException Si no se puede listar un directorio
+     */
+    public static List<Path> collectFiles(List<String> paths) throws IOException {
+        List<Path> files = new ArrayList<>();
+        for (String name : paths) {
+            Path path = Paths.get(name);
+            if (Files.isDirectory(path)) {
+                try (Stream<Path> entries = Files.list(path)) {
+                    entries.filter(Files::isRegularFile).sorted().forEach(files::add);
+                }
+            } else {
+                files.add(path);
+            }
+        }
+        return files;
+    }
+
+    /**
+     * Analiza los archivos en paralelo y devuelve los resultados en el mismo
+     * orden que la lista de entrada.
+     *
+     * @param files       Archivos a analizar
+     * @param parallelism Número de hilos del ForkJoinPool
+     * @return Resultados en el orden de entrada
+     */
+    public static List<Unit> analyzeAll(List<Path> files, int parallelism) {
+        Unit[] results = new Unit[files.size()];
+        ForkJoinPool pool = new ForkJoinPool(Math.max(1, parallelism));
+        try {
+            pool.invoke(new AnalyzeTask(files, results, 0, results.length));
+        } finally {
+            pool.shutdown();
+        }
+        return Arrays.asList(results);
+    }
+
+    /**
+     * Lee un entero positivo de la línea de comandos.
+     *
+     * @param value Texto del argumento
+     * @return Valor leído, o -1 si no es un entero positivo
+     */
+    static int parsePositive(String value) {
+        try {
+            int parsed = Integer.parseInt(value.trim());
+            return parsed > 0 ? parsed : -1;
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+    }
+
+    /**
+     * Analiza un archivo con tablas propias. Un fallo inesperado se registra
+     * como error de la unidad, de modo que no detiene el análisis de los
+     * demás archivos.
+     *
+     * @param file Archivo a analizar
+     * @return Resultado del análisis
+     */
+    public static Unit analyze(Path file) {
+        try {
+            return analyzeUnit(file);
+        } catch (RuntimeException e) {
+            return failed(file, "Error inesperado: " + e);
+        }
+    }
+
+    /**
+     * Analiza un archivo o carga su instantánea.
+     */
+    private static Unit analyzeUnit(Path file) {
+        if (file.toString().endsWith(SNAPSHOT_EXTENSION)) {
+            return load(file);
+        }
+
+        TypeTable typeTable = new TypeTableImpl();
+        SymbolTableStack symbolStack = new SymbolTableStackImpl();
+        SymbolTable globalTable = new SymbolTableImpl(typeTable, null);
+        symbolStack.push(globalTable);
+        List<String> errors = new ArrayList<>();
+
+        try {
+            InputReader reader = new InputReader(file.toString(), true);
+            CharSequence input = reader.readAll();
+            reader.close();
+            Main.processCode(input, typeTable, symbolStack, globalTable, errors);
+        } catch (IOException e) {
+            errors.add("Error al leer el archivo: " + e.getMessage());
+        }
+        return new Unit(file, typeTable, symbolStack, errors);
+    }
+
+    /**
+     * Carga una unidad desde una instantánea en lugar de analizar su fuente.
+     *
+     * @param file Archivo de instantánea
+     * @return Unidad con las tablas cargadas
+     */
+    public static Unit load(Path file) {
+        try {
+            TableSnapshot snapshot = TableSnapshot.load(file);
+            return new Unit(file, snapshot.getTypeTable(), snapshot.getSymbolStack(), new ArrayList<>());
+        } catch (IOException e) {
+            return failed(file, "Error al leer la instantánea: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Crea la unidad de un archivo que no se pudo analizar, con tablas
+     * vacías y el mensaje de error.
+     *
+     * @param file    Archivo de la unidad
+     * @param message Mensaje de error
+     * @return Unidad con el error
+     */
+    private static Unit failed(Path file, String message) {
+        List<String> errors = new ArrayList<>();
+        errors.add(message);
+        TypeTable typeTable = new TypeTableImpl();
+        SymbolTableStack symbolStack = new SymbolTableStackImpl();
+        symbolStack.push(new SymbolTableImpl(typeTable, null));
+        return new Unit(file, typeTable, symbolStack, errors);
+    }
+
+    /**
+     * Guarda la instantánea de una unidad analizada en el directorio
+     * indicado, con el nombre del archivo fuente y la extensión .snap. Las
+     * unidades que ya venían de una instantánea no se vuelven a guardar.
+     *
+     * @param unit Unidad a guardar
+     * @param dir  Directorio de destino
+     */
+    private static void saveSnapshot(Unit unit, Path dir) {
+        String name = unit.getPath().getFileName().toString();
+        if (name.endsWith(SNAPSHOT_EXTENSION)) {
+            return;
+        }
+        try {
+            Files.createDirectories(dir);
+            new TableSnapshot((TypeTableImpl) unit.getTypeTable(), unit.getSymbolStack())
+                    .save(dir.resolve(name + SNAPSHOT_EXTENSION));
+        } catch (IOException e) {
+            unit.getErrors().add("Error al guardar la instantánea: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Imprime el resultado de una unidad con su encabezado.
+     *
+     * @param unit Resultado a imprimir
+     */
+    static void printUnit(Unit unit) {
+        Colors.println("\n" + "═".repeat(89), Colors.GRAY_DARK);
+        Colors.println("Archivo: " + unit.getPath(), Colors.TEAL + Colors.HIGH_INTENSITY);
+        Main.printErrors(unit.getErrors());
+        TablePrinter.printTypeTable(unit.getTypeTable());
+        TablePrinter.printSymbolTables(unit.getSymbolStack(), unit.getTypeTable());
+    }
+}
@@ -9,6 +9,12 @@ package src.main;
  */
 public class Config {
 
+    /**
+     * Directorio de los archivos de recursos que se leen desde el menú y
+     * que se vigilan por defecto en el modo de vigilancia.
+     */
+    public static final String RESOURCE_DIR = "src/resources";
+
     /**
      * Clase interna que define los identificadores numéricos
      * para los diferentes tipos de datos en el sistema.
@@ -21,9 +27,17 @@ public class Config {
 
         public static final int VOID = 2;
 
-        public static final int FIRST_ARRAY_TYPE = 4;
-
+        /**
+         * Primer ID del rango de las estructuras, que ocupan el menor ID
+         * libre a partir de aquí.
+         */
         public static final int FIRST_STRUCT_TYPE = 8;
+
+        /**
+         * Primer ID del rango de los arrays y tipos con nombre, que se
+         * agregan al final de la tabla a partir de aquí.
+         */
+        public static final int FIRST_DERIVED_TYPE = 9;
     }
 
     /**
@@ -0,0 +1,372 @@
+package src.main;
+
+import java.util.*;
+
+import src.lexer.Lexer;
+import src.lexer.TokenKind;
+import src.symbol.SymbolTable;
+import src.symbol.SymbolTableImpl;
+import src.symbol.SymbolTableStack;
+import src.symbol.SymbolTableStackImpl;
+import src.type.TypeTable;
+import src.type.TypeTableImpl;
+import src.util.IntList;
+
+/**
+ * Análisis incremental de un archivo que se vuelve a leer después de
+ * editarlo. Conserva las tablas del análisis anterior y, por cada
+ * declaración de nivel superior, un hash de su texto y una marca del estado
+ * de las tablas antes de procesarla.
+ *
+ * Al recibir el texto nuevo se buscan las declaraciones iniciales cuyo hash
+ * no cambió; las tablas se devuelven a la marca de la primera que cambió y
+ * el análisis sigue desde ahí. Si al avanzar se llega al inicio de una
+ * declaración final que tampoco cambió y las tablas quedaron igual que en
+ * el análisis anterior en ese punto, el resto se aplica desde lo guardado
+ * en lugar de analizarse otra vez.
+ *
+ * Como los IDs de tipo se asignan en orden, lo que sigue a una edición solo
+ * se reutiliza si la edición creó exactamente los mismos tipos; si no, se
+ * vuelve a analizar.
+ *
+ * @author steve-quezada
+ */
+public class IncrementalAnalyzer {
+
+    private static final long FNV_OFFSET = 0xcbf29ce484222325L;
+
+    private static final long FNV_PRIME = 0x100000001b3L;
+
+    /**
+     * Valor que representa en el hash las posiciones después del final del
+     * texto.
+     */
+    private static final int END_OF_INPUT = 0x10000;
+
+    /**
+     * Declaración de nivel superior del último análisis. Su tramo va desde
+     * su primer token hasta el primero de la siguiente; el hash cubre además
+     * ese token siguiente y un carácter más, porque decidir dónde termina la
+     * declaración depende de ellos.
+     */
+    private static final class Declaration {
+
+        int start;
+
+        int tokenStart;
+
+        int hashEnd;
+
+        int line;
+
+        long hash;
+
+        boolean failed;
+
+        TypeTableImpl.Mark types;
+
+        SymbolTableImpl.Mark symbols;
+
+        SymbolTableStackImpl.Mark scopes;
+    }
+
+    /**
+     * Efectos de una declaración extraídos antes de deshacer las tablas.
+     */
+    private static final class Effects {
+
+        final TypeTableImpl.Changes types;
+
+        final SymbolTableImpl.Changes symbols;
+
+        final List<SymbolTable> scopes;
+
+        Effects(TypeTableImpl.Changes types, SymbolTableImpl.Changes symbols, List<SymbolTable> scopes) {
+            this.types = types;
+            this.symbols = symbols;
+            this.scopes = scopes;
+        }
+    }
+
+    private final TypeTableImpl typeTable;
+
+    private SymbolTableStackImpl symbolStack;
+
+    private SymbolTableImpl globalTable;
+
+    private final List<Declaration> declarations;
+
+    private int length;
+
+    private int reused;
+
+    /**
+     * Constructor que crea un analizador con tablas vacías.
+     */
+    public IncrementalAnalyzer() {
+        this.typeTable = new TypeTableImpl();
+        this.declarations = new ArrayList<>();
+        reset();
+    }
+
+    /**
+     * Descarta el análisis anterior y deja las tablas en su estado inicial.
+     */
+    public void reset() {
+        typeTable.reset();
+        symbolStack = new SymbolTableStackImpl();
+        globalTable = new SymbolTableImpl(typeTable, null);
+        symbolStack.push(globalTable);
+        declarations.clear();
+        length = 0;
+        reused = 0;
+    }
+
+    /**
+     * Analiza el texto actualizando las tablas del análisis anterior.
+     *
+     * @param code Código fuente completo
+     * @return Mensajes de error de las declaraciones analizadas
+     */
+    public List<String> analyze(CharSequence code) {
+        try {
+            return update(code);
+        } catch (RuntimeException e) {
+            reset();
+            throw e;
+        }
+    }
+
+    /**
+     * Obtiene la tabla de tipos del análisis.
+     *
+     * @return Tabla de tipos
+     */
+    public TypeTable getTypeTable() {
+        return typeTable;
+    }
+
+    /**
+     * Obtiene la pila de ámbitos del análisis.
+     *
+     * @return Pila con la tabla global en la base
+     */
+    public SymbolTableStack getSymbolStack() {
+        return symbolStack;
+    }
+
+    /**
+     * Obtiene la tabla de símbolos global del análisis.
+     *
+     * @return Tabla global
+     */
+    public SymbolTable getGlobalTable() {
+        return globalTable;
+    }
+
+    /**
+     * Obtiene el número de declaraciones del último análisis.
+     *
+     * @return Número de declaraciones de nivel superior
+     */
+    public int getDeclarationCount() {
+        return declarations.size();
+    }
+
+    /**
+     * Obtiene cuántas declaraciones del último análisis se reutilizaron sin
+     * volver a analizarse.
+     *
+     * @return Número de declaraciones reutilizadas
+     */
+    public int getReusedCount() {
+        return reused;
+    }
+
+    /**
+     * Compara el texto con el análisis anterior, deshace lo que cambió y
+     * analiza desde la primera declaración distinta.
+     */
+    private List<String> update(CharSequence code) {
+        int count = declarations.size();
+        int prefix = 0;
+        while (prefix < count && unchanged(code, declarations.get(prefix), 0)) {
+            prefix++;
+        }
+        List<String> errors = new ArrayList<>();
+        if (prefix == count && code.length() == length) {
+            reused = count;
+            return errors;
+        }
+
+        int delta = code.length() - length;
+        int suffix = count;
+        while (suffix > prefix + 1 && unchanged(code, declarations.get(suffix - 1), delta)) {
+            suffix--;
+        }
+
+        Lexer lexer = new Lexer(code);
+        List<Effects> tail = Collections.emptyList();
+        if (prefix < count) {
+            Declaration first = declarations.get(prefix);
+            if (suffix < count) {
+                tail = extractEffects(prefix);
+            }
+            typeTable.rollback(first.types);
+            globalTable.rollback(first.symbols);
+            symbolStack.rollback(first.scopes);
+            if (prefix > 0) {
+                lexer = new Lexer(code, first.tokenStart, first.line);
+            }
+        }
+
+        List<Declaration> previous = new ArrayList<>(declarations.subList(prefix, count));
+        declarations.subList(prefix, count).clear();
+        length = code.length();
+        reused = prefix;
+
+        IntList dimensions = new IntList();
+        int candidate = suffix - prefix;
+        lexer.next();
+        Declaration last = null;
+        while (lexer.kind() != TokenKind.EOF) {
+            if (last != null) {
+                close(last, lexer, code);
+                while (candidate < previous.size() && previous.get(candidate).tokenStart + delta < lexer.start()) {
+                    candidate++;
+                }
+                if (candidate < previous.size() && previous.get(candidate).tokenStart + delta == lexer.start()) {
+                    int resume = candidate;
+                    candidate = previous.size();
+                    if (sameState(previous, tail, resume)) {
+                        applyTail(previous, tail, resume, delta, lexer.line() - previous.get(resume).line);
+                        reused += previous.size() - resume;
+                        return errors;
+                    }
+                }
+            }
+
+            Declaration declaration = new Declaration();
+            declaration.start = declarations.isEmpty() ? 0 : lexer.start();
+            declaration.tokenStart = lexer.start();
+            declaration.line = lexer.line();
+            declaration.types = typeTable.mark();
+            declaration.symbols = globalTable.mark();
+            declaration.scopes = symbolStack.mark();
+            int errorCount = errors.size();
+            Main.processDeclaration(lexer, typeTable, symbolStack, globalTable, dimensions, errors);
+            declaration.failed = errors.size() > errorCount;
+            declarations.add(declaration);
+            last = declaration;
+        }
+        if (last != null) {
+            close(last, lexer, code);
+        }
+        return errors;
+    }
+
+    /**
+     * Completa el tramo de una declaración cuando el analizador ya está en
+     * el primer token de la siguiente, y calcula su hash.
+     */
+    private static void close(Declaration declaration, Lexer lexer, CharSequence code) {
+        declaration.hashEnd = lexer.end() + 1;
+        declaration.hash = hash(code, declaration.start, declaration.hashEnd);
+    }
+
+    /**
+     * Verifica si el texto de una declaración del análisis anterior sigue
+     * igual, desplazado la cantidad indicada.
+     */
+    private static boolean unchanged(CharSequence code, Declaration declaration, int delta) {
+        int start = declaration.start + delta;
+        int end = declaration.hashEnd + delta;
+        return !declaration.failed && start >= 0 && end <= code.length() + 1
+                && hash(code, start, end) == declaration.hash;
+    }
+
+    /**
+     * Calcula el hash FNV-1a de un tramo del texto. Las posiciones después
+     * del final cuentan como un valor que ningún carácter puede tener.
+     */
+    private static long hash(CharSequence code, int start, int end) {
+        int length = code.length();
+        long h = FNV_OFFSET;
+        for (int i = start; i < end; i++) {
+            h ^= i < length ? code.charAt(i) : END_OF_INPUT;
+            h *= FNV_PRIME;
+        }
+        return h;
+    }
+
+    /**
+     * Extrae los efectos de cada declaración desde la indicada hasta el
+     * final, antes de deshacerlos.
+     */
+    private List<Effects> extractEffects(int from) {
+        List<SymbolTable> scopes = symbolStack.getTables();
+        TypeTableImpl.Mark typesEnd = typeTable.mark();
+        SymbolTableImpl.Mark symbolsEnd = globalTable.mark();
+        List<Effects> effects = new ArrayList<>(declarations.size() - from);
+        for (int i = from; i < declarations.size(); i++) {
+            Declaration current = declarations.get(i);
+            Declaration next = i + 1 < declarations.size() ? declarations.get(i + 1) : null;
+            effects.add(new Effects(
+                    typeTable.changesBetween(current.types, next != null ? next.types : typesEnd),
+                    globalTable.changesBetween(current.symbols, next != null ? next.symbols : symbolsEnd),
+                    scopes.subList(current.scopes.getDepth(),
+                            next != null ? next.scopes.getDepth() : scopes.size())));
+        }
+        return effects;
+    }
+
+    /**
+     * Verifica si las tablas quedaron igual que en el análisis anterior al
+     * inicio de una declaración: los mismos tipos con los mismos IDs, los
+     * mismos identificadores globales en el mismo orden y el mismo
+     * desplazamiento global.
+     */
+    private boolean sameState(List<Declaration> previous, List<Effects> tail, int resume) {
+        Declaration target = previous.get(resume);
+        Declaration first = previous.get(0);
+        if (!typeTable.mark().sameShape(target.types)
+                || globalTable.getCurrentOffset() != target.symbols.getOffset()) {
+            return false;
+        }
+
+        List<TypeTableImpl.Changes> oldTypes = new ArrayList<>(resume);
+        List<String> oldKeys = new ArrayList<>();
+        for (int i = 0; i < resume; i++) {
+            oldTypes.add(tail.get(i).types);
+            tail.get(i).symbols.collectAddedKeys(oldKeys);
+        }
+        List<String> newKeys = new ArrayList<>();
+        globalTable.changesBetween(first.symbols, globalTable.mark()).collectAddedKeys(newKeys);
+        return newKeys.equals(oldKeys)
+                && TypeTableImpl.Changes.merge(oldTypes).sameAs(typeTable.changesBetween(first.types, typeTable.mark()));
+    }
+
+    /**
+     * Aplica los efectos guardados de las declaraciones finales y las
+     * registra de nuevo con sus posiciones en el texto actual.
+     */
+    private void applyTail(List<Declaration> previous, List<Effects> tail, int resume, int delta, int lineDelta) {
+        for (int i = resume; i < previous.size(); i++) {
+            Declaration declaration = previous.get(i);
+            Effects effects = tail.get(i);
+            declaration.start += delta;
+            declaration.tokenStart += delta;
+            declaration.hashEnd += delta;
+            declaration.line += lineDelta;
+            declaration.types = typeTable.mark();
+            declaration.symbols = globalTable.mark();
+            declaration.scopes = symbolStack.mark();
+            typeTable.apply(effects.types);
+            globalTable.apply(effects.symbols);
+            for (SymbolTable scope : effects.scopes) {
+                symbolStack.push(scope);
+            }
+            declarations.add(declaration);
+        }
+    }
+}
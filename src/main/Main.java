@@ -3,7 +3,11 @@ package src.main;
 import java.io.*;
 import java.util.*;
 
+import src.lexer.Keywords;
+import src.lexer.Lexer;
+import src.lexer.TokenKind;
 import src.symbol.Symbol;
+import src.symbol.SymbolCategory;
 import src.symbol.SymbolImpl;
 import src.symbol.SymbolTable;
 import src.symbol.SymbolTableImpl;
@@ -12,6 +16,7 @@ import src.symbol.SymbolTableStackImpl;
 import src.type.TypeTable;
 import src.type.TypeTableImpl;
 import src.util.InputReader;
+import src.util.IntList;
 import src.util.TablePrinter;
 import src.util.Colors;
 
@@ -32,26 +37,44 @@ import src.util.Colors;
  */
 public class Main {
 
-    private static Map<String, Symbol> currentStructFields = null;
-    private static String currentStructName = null;
-
     /**
      * Punto de entrada principal del programa. Inicializa las tablas necesarias
      * y presenta una interfaz de usuario para cargar y procesar archivos.
      *
-     * @param args Argumentos de línea de comandos (no utilizados)
+     * Si el primer argumento es --batch, en lugar del menú se ejecuta el
+     * análisis por lotes de los archivos y directorios indicados; si es
+     * --watch, se vigila un directorio y se reanaliza lo que cambie; si es
+     * --pipeline, los archivos se analizan en etapas encadenadas; si es
+     * --serve, se inicia el servidor de análisis local.
+     *
+     * @param args Argumentos de línea de comandos
      */
     public static void main(String[] args) {
-        TypeTable typeTable = new TypeTableImpl();
-        SymbolTableStack symbolStack = new SymbolTableStackImpl();
-        SymbolTable globalTable = new SymbolTableImpl(typeTable, null);
-        symbolStack.push(globalTable);
+        if (args.length > 0 && BatchAnalyzer.BATCH_FLAG.equals(args[0])) {
+            BatchAnalyzer.run(Arrays.copyOfRange(args, 1, args.length));
+            return;
+        }
+        if (args.length > 0 && WatchAnalyzer.WATCH_FLAG.equals(args[0])) {
+            WatchAnalyzer.run(Arrays.copyOfRange(args, 1, args.length));
+            return;
+        }
+        if (args.length > 0 && PipelineAnalyzer.PIPELINE_FLAG.equals(args[0])) {
+            PipelineAnalyzer.run(Arrays.copyOfRange(args, 1, args.length));
+            return;
+        }
+        if (args.length > 0 && AnalysisServer.SERVE_FLAG.equals(args[0])) {
+            AnalysisServer.run(Arrays.copyOfRange(args, 1, args.length));
+            return;
+        }
+
+        IncrementalAnalyzer analyzer = new IncrementalAnalyzer();
+        String lastFile = null;
 
         Scanner menuScanner = new Scanner(System.in);
         boolean running = true;
 
         while (running) {
-            System.out.println();
+            Colors.println();
             Colors.println("┌───────────────────────┐", Colors.GRAY_DARK);
             Colors.println("│     Menú Principal    │", Colors.TEAL + Colors.HIGH_INTENSITY);
             Colors.println("├───────────────────────┤", Colors.GRAY_DARK);
@@ -59,6 +82,7 @@ public class Main {
             Colors.println("│ 2. Salir              │", Colors.WHITE);
             Colors.println("└───────────────────────┘", Colors.GRAY_DARK);
             Colors.println("  Seleccione una opción  ", Colors.TEAL);
+            Colors.flush();
 
             String input = menuScanner.nextLine().trim();
 
@@ -69,12 +93,14 @@ public class Main {
                         Colors.println("┌───────────────────────┐", Colors.GRAY_DARK);
                         Colors.println("│  Nombre del archivo:  │", Colors.TEAL + Colors.HIGH_INTENSITY);
                         Colors.println("└───────────────────────┘", Colors.GRAY_DARK);
+                        Colors.flush();
                         String filename = menuScanner.nextLine().trim();
                         Colors.print("\n" + "═".repeat(89), Colors.GRAY_DARK);
-                        System.out.println();
+                        Colors.println();
                         try {
-                            processInput(new InputReader(getResourcePath(filename)), typeTable, symbolStack,
-                                    globalTable);
+                            processInput(new InputReader(getResourcePath(filename), true), analyzer,
+                                    filename.equals(lastFile));
+                            lastFile = filename;
                             Colors.println("\n" + "═".repeat(89), Colors.GRAY_DARK);
                         } catch (IOException e) {
                             Colors.println("Error al leer el archivo: " + e.getMessage(), Colors.RED);
@@ -96,44 +122,45 @@ public class Main {
             } catch (Exception e) {
                 Colors.println("Error inesperado: " + e.getMessage(),
                         Colors.RED);
+                Colors.flush();
                 menuScanner.nextLine();
             }
         }
 
+        Colors.flush();
         menuScanner.close();
     }
 
     /**
-     * Procesa un archivo de entrada, reiniciando las tablas y procesando cada línea.
+     * Procesa un archivo de entrada directamente desde el lector, sin
+     * copiarlo línea por línea. Si es el mismo archivo del análisis anterior
+     * solo se vuelven a analizar las declaraciones que cambiaron; si no, las
+     * tablas se reinician.
      * 
      * @param reader      Lector del archivo de entrada
-     * @param typeTable   Tabla de tipos del compilador
-     * @param symbolStack Pila de tablas de símbolos
-     * @param globalTable Tabla de símbolos global
+     * @param analyzer    Analizador que conserva las tablas entre lecturas
+     * @param incremental true si el archivo es el mismo de la lectura anterior
      * @throws IOException Si hay errores en la lectura del archivo
      */
-    private static void processInput(InputReader reader, TypeTable typeTable,
-            SymbolTableStack symbolStack,
-            SymbolTable globalTable) throws IOException {
-        StringBuilder input = new StringBuilder();
-        String line;
-
-        ((TypeTableImpl) typeTable).reset();
-        symbolStack = new SymbolTableStackImpl();
-        globalTable = new SymbolTableImpl(typeTable, null);
-        symbolStack.push(globalTable);
-
-        while ((line = reader.readLine()) != null) {
-            input.append(line).append("\n");
+    private static void processInput(InputReader reader, IncrementalAnalyzer analyzer,
+            boolean incremental) throws IOException {
+        if (!incremental) {
+            analyzer.reset();
         }
 
-        reader.close();
+        CharSequence input = reader.readAll();
 
-        if (input.length() > 0) {
+        reader.close();
 
-            processCode(input.toString(), typeTable, symbolStack, globalTable);
+        List<String> errors = analyzer.analyze(input);
 
-            printSymbolTable(globalTable, typeTable, symbolStack);
+        if (input.length() > 0) {
+            if (analyzer.getReusedCount() > 0) {
+                Colors.println("Declaraciones reutilizadas: " + analyzer.getReusedCount() + " de "
+                        + analyzer.getDeclarationCount(), Colors.GRAY_DARK);
+            }
+            printErrors(errors);
+            printSymbolTable(analyzer.getGlobalTable(), analyzer.getTypeTable(), analyzer.getSymbolStack());
         }
     }
 
@@ -144,234 +171,489 @@ public class Main {
      * @return Ruta completa al archivo en el directorio de recursos
      */
     private static String getResourcePath(String filename) {
-        return "src/resources/" + filename;
+        return Config.RESOURCE_DIR + "/" + filename;
     }
 
     /**
-     * Procesa el código fuente línea por línea, identificando y manejando diferentes
-     * construcciones sintácticas como estructuras, funciones y variables.
+     * Procesa el código fuente como un flujo de tokens, identificando y
+     * manejando diferentes construcciones sintácticas como estructuras,
+     * funciones y variables.
      *
      * @param code        Código fuente completo
      * @param typeTable   Tabla de tipos
      * @param symbolStack Pila de tablas de símbolos
      * @param globalTable Tabla de símbolos global
+     * @param errors      Lista donde se acumulan los mensajes de error
      */
-    private static void processCode(String code, TypeTable typeTable,
+    static void processCode(CharSequence code, TypeTable typeTable,
             SymbolTableStack symbolStack,
-            SymbolTable globalTable) {
-        String[] lines = code.split("\n");
-        Map<String, Symbol> currentStructFields = null;
-        String currentStructName = null;
-        SymbolTable currentFunctionScope = null;
-        StringBuilder structBuilder = new StringBuilder();
-        StringBuilder functionBuilder = new StringBuilder();
-        boolean inStruct = false;
-        boolean inFunction = false;
-
-        for (String line : lines) {
-            line = line.trim();
-            if (line.isEmpty() || line.startsWith("//"))
-                continue;
+            SymbolTable globalTable,
+            List<String> errors) {
+        Lexer lexer = new Lexer(code);
+        IntList dimensions = new IntList();
 
-            try {
-                if (line.startsWith("struct")) {
-                    handleStructStart(line, currentStructFields, structBuilder);
-                    inStruct = true;
-                } else if (inStruct) {
-                    handleStructContent(line, typeTable, globalTable, currentStructFields,
-                            structBuilder, currentStructName);
-                    if (line.contains("}"))
-                        inStruct = false;
-                } else if (line.contains("(") && !line.contains(";")) {
-                    handleFunctionStart(line, typeTable, globalTable, functionBuilder);
-                    inFunction = true;
-                    currentFunctionScope = new SymbolTableImpl(typeTable);
-                } else if (inFunction) {
-                    handleFunctionContent(line, typeTable, symbolStack, currentFunctionScope,
-                            functionBuilder);
-                    if (line.contains("}")) {
-                        inFunction = false;
-                        symbolStack.push(currentFunctionScope);
-                    }
-                } else if (line.contains(";")) {
-                    handleGlobalDeclaration(line, typeTable, globalTable);
-                }
-            } catch (Exception e) {
-                Colors.println("Error procesando línea: " + line, Colors.RED);
-                Colors.println("Error: " + e.getMessage(), Colors.RED);
-            }
+        lexer.next();
+        while (lexer.kind() != TokenKind.EOF) {
+            processDeclaration(lexer, typeTable, symbolStack, globalTable, dimensions, errors);
         }
     }
 
     /**
-     * Inicia el procesamiento de una declaración de estructura.
+     * Procesa una declaración de nivel superior a partir del token actual:
+     * una estructura, una función o una variable global. Cualquier otro
+     * token se omite. Si la declaración tiene errores se registran y se
+     * avanza hasta el final de la sentencia.
      *
-     * @param line    Línea que contiene la declaración de la estructura
-     * @param fields  Mapa para almacenar los campos
-     * @param builder StringBuilder para acumular la definición
+     * @param lexer       Analizador léxico posicionado en la declaración
+     * @param typeTable   Tabla de tipos
+     * @param symbolStack Pila de tablas de símbolos
+     * @param globalTable Tabla de símbolos global
+     * @param dimensions  Lista reutilizable para las dimensiones de arrays
+     * @param errors      Lista donde se acumulan los mensajes de error
      */
-    private static void handleStructStart(String line, Map<String, Symbol> fields,
-            StringBuilder builder) {
-        String structName = line.split("\\s+")[1];
-
-        fields = new LinkedHashMap<>();
-        builder.setLength(0);
-        builder.append(line).append("\n");
-        currentStructName = structName;
-        currentStructFields = fields;
+    static void processDeclaration(Lexer lexer, TypeTable typeTable,
+            SymbolTableStack symbolStack,
+            SymbolTable globalTable,
+            IntList dimensions,
+            List<String> errors) {
+        int line = lexer.line();
+        try {
+            if (lexer.kind() == TokenKind.STRUCT) {
+                handleStructStart(lexer, typeTable, globalTable, dimensions, errors);
+            } else if (lexer.kind().isTypeName()) {
+                handleDeclaration(lexer, typeTable, symbolStack, globalTable, dimensions, errors);
+            } else if (lexer.kind() == TokenKind.ERROR) {
+                throw new IllegalStateException(lexer.text());
+            } else {
+                lexer.next();
+            }
+        } catch (Exception e) {
+            errors.add("Error procesando línea: " + line);
+            errors.add("Error: " + e.getMessage());
+            skipStatement(lexer);
+            if (lexer.kind() == TokenKind.RBRACE) {
+                lexer.next();
+            }
+        }
     }
 
     /**
-     * Procesa el contenido de una estructura, incluyendo sus campos y tipos.
+     * Inicia el procesamiento de una declaración de estructura. El token
+     * actual es la palabra reservada struct.
+     *
+     * Los errores semánticos de la estructura, como un ciclo de contención
+     * o un desplazamiento fuera de rango, se detectan después de consumir
+     * la llave de cierre; se registran aquí para que el llamador no omita
+     * la declaración siguiente buscando el final de la sentencia. Si falla
+     * un campo, se omite el resto del cuerpo hasta la llave de cierre
+     * correspondiente y la estructura se descarta.
+     *
+     * @param lexer       Analizador léxico posicionado en la declaración
+     * @param typeTable   Tabla de tipos
+     * @param globalTable Tabla de símbolos global
+     * @param dimensions  Lista reutilizable para las dimensiones de arrays
+     * @param errors      Lista donde se acumulan los mensajes de error
      */
-    private static void handleStructContent(String line, TypeTable typeTable,
+    private static void handleStructStart(Lexer lexer, TypeTable typeTable,
             SymbolTable globalTable,
+            IntList dimensions,
+            List<String> errors) {
+        int line = lexer.line();
+        lexer.next();
+        String structName = expectIdentifier(lexer);
+        expect(lexer, TokenKind.LBRACE, "'{'");
+
+        Map<String, Symbol> fields = new LinkedHashMap<>();
+        try {
+            handleStructContent(lexer, typeTable, fields, dimensions);
+        } catch (RuntimeException e) {
+            errors.add("Error procesando línea: " + line);
+            errors.add("Error: " + e.getMessage());
+            skipBlock(lexer);
+            return;
+        }
+
+        try {
+            int structTypeId = ((TypeTableImpl) typeTable).createStructType(structName, fields);
+            globalTable.insert(structName, new SymbolImpl(0, structTypeId, SymbolCategory.STRUCT));
+        } catch (RuntimeException e) {
+            errors.add("Error procesando línea: " + line);
+            errors.add("Error: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Procesa el contenido de una estructura, incluyendo sus campos y tipos,
+     * hasta consumir la llave de cierre.
+     */
+    private static void handleStructContent(Lexer lexer, TypeTable typeTable,
             Map<String, Symbol> fields,
-            StringBuilder builder,
-            String structName) {
-        line = line.trim();
-        if (line.contains("}")) {
-            builder.append(line);
-            if (currentStructFields != null && currentStructName != null) {
-
-                Map<String, Symbol> orderedFields = new LinkedHashMap<>(currentStructFields);
-                int structTypeId = ((TypeTableImpl) typeTable).createStructType(
-                        currentStructName, orderedFields);
-                globalTable.insert(currentStructName,
-                        new SymbolImpl(0, structTypeId, "struct"));
-                currentStructFields = null;
-                currentStructName = null;
+            IntList dimensions) {
+        while (lexer.kind() != TokenKind.RBRACE) {
+            if (lexer.kind() == TokenKind.EOF) {
+                throw new IllegalStateException("Se esperaba '}' al final de la estructura");
+            }
+            if (!lexer.kind().isTypeName()) {
+                lexer.next();
+                continue;
             }
-        } else if (line.contains(";")) {
-            String[] parts = line.trim().split("\\s+|;");
-            String fieldType = parts[0];
-            String fieldName = parts[1];
 
-            int typeId = typeTable.findTypeByName(fieldType);
-            if (typeId < 0) {
+            String fieldType = lexer.text();
+            lexer.next();
+            parseDimensions(lexer, dimensions);
+            String fieldName = parseDeclaratorName(lexer);
+            expect(lexer, TokenKind.SEMICOLON, "';'");
 
-                typeId = getTypeId(typeTable, fieldType);
-            }
+            int typeId = resolveType(typeTable, fieldType, dimensions);
+            fields.put(fieldName, new SymbolImpl(0, typeId, SymbolCategory.MEMBER));
+        }
+        lexer.next();
+    }
+
+    /**
+     * Procesa una declaración que comienza con un nombre de tipo en el
+     * ámbito global: una función o una variable global.
+     */
+    private static void handleDeclaration(Lexer lexer, TypeTable typeTable,
+            SymbolTableStack symbolStack,
+            SymbolTable globalTable,
+            IntList dimensions,
+            List<String> errors) {
+        String typeName = lexer.text();
+        lexer.next();
+        parseDimensions(lexer, dimensions);
+        if (lexer.kind() != TokenKind.IDENTIFIER) {
+            skipStatement(lexer);
+            return;
+        }
 
-            if (currentStructFields != null) {
-                currentStructFields.put(fieldName, new SymbolImpl(0, typeId, "Miembro"));
+        if (dimensions.isEmpty()) {
+            String name = lexer.text();
+            lexer.next();
+            if (lexer.kind() == TokenKind.LPAREN) {
+                handleFunctionStart(lexer, typeTable, symbolStack, globalTable,
+                        typeName, name, dimensions, errors);
+                return;
             }
-            builder.append(line).append("\n");
+            handleGlobalDeclaration(lexer, typeTable, globalTable, typeName, name, dimensions);
+            return;
         }
+
+        handleGlobalDeclaration(lexer, typeTable, globalTable, typeName,
+                parseDeclaratorName(lexer), dimensions);
     }
 
     /**
-     * Inicia el procesamiento de una declaración de función.
+     * Inicia el procesamiento de una declaración de función. El token actual
+     * es el paréntesis que abre la lista de parámetros.
      */
-    private static void handleFunctionStart(String line, TypeTable typeTable,
+    private static void handleFunctionStart(Lexer lexer, TypeTable typeTable,
+            SymbolTableStack symbolStack,
             SymbolTable globalTable,
-            StringBuilder builder) {
-        builder.setLength(0);
-        builder.append(line).append("\n");
-        processFunctionHeader(line, typeTable, globalTable);
+            String returnType,
+            String funcName,
+            IntList dimensions,
+            List<String> errors) {
+        processFunctionHeader(lexer, typeTable, globalTable, returnType, funcName, dimensions);
+
+        if (lexer.kind() == TokenKind.SEMICOLON) {
+            lexer.next();
+            return;
+        }
+        expect(lexer, TokenKind.LBRACE, "'{'");
+
+        SymbolTable functionScope = new SymbolTableImpl(typeTable);
+        handleFunctionContent(lexer, typeTable, functionScope, dimensions, errors);
+        symbolStack.push(functionScope);
     }
 
     /**
-     * Procesa el contenido de una función, incluyendo variables locales.
+     * Procesa el contenido de una función, incluyendo variables locales,
+     * hasta consumir la llave que cierra su cuerpo.
+     *
+     * Un error en una sentencia del cuerpo se registra con la línea de esa
+     * sentencia y el análisis continúa en la siguiente, sin abandonar la
+     * función ni su ámbito.
      */
-    private static void handleFunctionContent(String line, TypeTable typeTable,
-            SymbolTableStack symbolStack,
+    private static void handleFunctionContent(Lexer lexer, TypeTable typeTable,
             SymbolTable functionScope,
-            StringBuilder builder) {
-        if (line.contains("}")) {
-            builder.append(line);
-            processFunctionBody(builder.toString(), functionScope, typeTable, symbolStack);
-        } else if (line.contains(";") && !line.startsWith("return")) {
-            processLocalVariable(line, functionScope, typeTable);
-            builder.append(line).append("\n");
+            IntList dimensions,
+            List<String> errors) {
+        int depth = 1;
+        while (true) {
+            switch (lexer.kind()) {
+                case EOF:
+                    throw new IllegalStateException("Se esperaba '}' al final de la función");
+                case LBRACE:
+                    depth++;
+                    lexer.next();
+                    break;
+                case RBRACE:
+                    lexer.next();
+                    if (--depth == 0) {
+                        return;
+                    }
+                    break;
+                case INT:
+                case FLOAT:
+                case VOID:
+                case IDENTIFIER:
+                    int line = lexer.line();
+                    try {
+                        processLocalVariable(lexer, functionScope, typeTable, dimensions);
+                    } catch (RuntimeException e) {
+                        errors.add("Error procesando línea: " + line);
+                        errors.add("Error: " + e.getMessage());
+                        skipStatement(lexer);
+                    }
+                    break;
+                default:
+                    skipStatement(lexer);
+                    break;
+            }
         }
     }
 
     /**
-     * Maneja declaraciones globales de variables y arrays.
+     * Maneja declaraciones globales de variables y arrays. El token actual
+     * es el que sigue al nombre declarado.
+     *
+     * El punto y coma se consume después de registrar la declaración: si el
+     * registro falla, el llamador omite la sentencia hasta ese punto y coma
+     * en lugar de consumir la declaración siguiente.
      */
-    private static void handleGlobalDeclaration(String line, TypeTable typeTable,
-            SymbolTable globalTable) {
-        if (line.contains("[")) {
-            processGlobalArrayDeclaration(line, typeTable, globalTable);
+    private static void handleGlobalDeclaration(Lexer lexer, TypeTable typeTable,
+            SymbolTable globalTable,
+            String typeName,
+            String name,
+            IntList dimensions) {
+        if (lexer.kind() == TokenKind.LBRACKET) {
+            name = appendPostfixDimensions(lexer, name);
+        }
+        if (lexer.kind() != TokenKind.SEMICOLON) {
+            throw new IllegalStateException("Se esperaba ';' en la línea " + lexer.line());
+        }
+
+        if (!dimensions.isEmpty()) {
+            processArrayDeclaration(typeName, dimensions, name, typeTable, globalTable);
         } else {
-            processGlobalVariable(line, typeTable, globalTable);
+            processGlobalVariable(typeName, name, typeTable, globalTable);
         }
+        lexer.next();
     }
 
     /**
-     * Procesa la cabecera de una función, extrayendo tipo de retorno y parámetros.
+     * Procesa la cabecera de una función, extrayendo tipo de retorno y
+     * parámetros, y la registra en el ámbito global.
      */
-    private static void processFunctionHeader(String line, TypeTable typeTable,
-            SymbolTable globalTable) {
-        String[] parts = line.split("\\s+|\\(");
-        String returnType = parts[0];
-        String funcName = parts[1];
-
+    private static void processFunctionHeader(Lexer lexer, TypeTable typeTable,
+            SymbolTable globalTable,
+            String returnType,
+            String funcName,
+            IntList dimensions) {
         List<Integer> paramTypes = new ArrayList<>();
-        String paramStr = line.substring(line.indexOf("(") + 1, line.indexOf(")"));
-        if (!paramStr.trim().isEmpty()) {
-            for (String param : paramStr.split(",")) {
-                String[] paramParts = param.trim().split("\\s+");
-                paramTypes.add(getTypeId(typeTable, paramParts[0]));
+        lexer.next();
+        while (lexer.kind() != TokenKind.RPAREN) {
+            if (!lexer.kind().isTypeName()) {
+                throw new IllegalStateException("Parámetro inválido en la función " + funcName);
+            }
+            String paramType = lexer.text();
+            lexer.next();
+            parseDimensions(lexer, dimensions);
+            paramTypes.add(resolveType(typeTable, paramType, dimensions));
+
+            if (lexer.kind() == TokenKind.IDENTIFIER) {
+                parseDeclaratorName(lexer);
+            }
+            if (lexer.kind() == TokenKind.COMMA) {
+                lexer.next();
+            } else if (lexer.kind() != TokenKind.RPAREN) {
+                throw new IllegalStateException("Se esperaba ')' en la función " + funcName);
             }
         }
+        lexer.next();
 
         globalTable.insertFunction(funcName, getTypeId(typeTable, returnType), paramTypes);
     }
 
     /**
-     * Procesa una variable local dentro de una función.
+     * Procesa una sentencia dentro de una función. Si es la declaración de
+     * una variable local la registra en el ámbito de la función; cualquier
+     * otra sentencia se omite.
      */
-    private static void processLocalVariable(String line, SymbolTable scope,
-            TypeTable typeTable) {
-        String[] parts = line.trim().split("\\s+");
-        if (parts.length < 2)
+    private static void processLocalVariable(Lexer lexer, SymbolTable scope,
+            TypeTable typeTable,
+            IntList dimensions) {
+        String varType = lexer.text();
+        lexer.next();
+        if (!parseDimensions(lexer, dimensions) || lexer.kind() != TokenKind.IDENTIFIER) {
+            skipStatement(lexer);
             return;
+        }
 
-        String varType = parts[0];
-        String varName = parts[1].replace(";", "");
-
-        int typeId = getTypeId(typeTable, varType);
+        String varName = parseDeclaratorName(lexer);
+        int typeId = resolveType(typeTable, varType, dimensions);
         scope.insert(varName, new SymbolImpl(
                 scope.getCurrentOffset(),
                 typeId,
-                "Variable"
+                SymbolCategory.VARIABLE
         ));
+        skipStatement(lexer);
     }
 
     /**
      * Procesa una variable global.
      */
-    private static void processGlobalVariable(String line, TypeTable typeTable,
+    private static void processGlobalVariable(String varType, String varName,
+            TypeTable typeTable,
             SymbolTable globalTable) {
-        String[] parts = line.trim().split("\\s+");
-        if (parts.length < 2)
-            return;
+        int typeId = getTypeId(typeTable, varType);
+        globalTable.insert(varName, new SymbolImpl(0, typeId, SymbolCategory.VARIABLE));
+    }
 
-        String varType = parts[0];
-        String varName = parts[1].replace(";", "");
+    /**
+     * Lee las dimensiones prefijas de un tipo array, como en int[10][20].
+     * La lista se vacía antes de llenarse.
+     *
+     * @param lexer      Analizador léxico posicionado después del nombre del tipo
+     * @param dimensions Lista donde se guardan las dimensiones leídas
+     * @return false si los corchetes no contienen un número, en cuyo caso el
+     *         analizador queda en el primer token que no corresponde
+     */
+    private static boolean parseDimensions(Lexer lexer, IntList dimensions) {
+        dimensions.clear();
+        while (lexer.kind() == TokenKind.LBRACKET) {
+            lexer.next();
+            if (lexer.kind() == TokenKind.ERROR) {
+                throw new IllegalStateException(lexer.text());
+            }
+            if (lexer.kind() != TokenKind.NUMBER) {
+                return false;
+            }
+            dimensions.add(lexer.intValue());
+            lexer.next();
+            expect(lexer, TokenKind.RBRACKET, "']'");
+        }
+        return true;
+    }
+
+    /**
+     * Lee el nombre declarado. Las dimensiones escritas después del nombre,
+     * como en rows[3], se conservan como parte del nombre.
+     *
+     * @param lexer Analizador léxico posicionado en el identificador
+     * @return Nombre declarado
+     */
+    private static String parseDeclaratorName(Lexer lexer) {
+        String name = expectIdentifier(lexer);
+        if (lexer.kind() == TokenKind.LBRACKET) {
+            name = appendPostfixDimensions(lexer, name);
+        }
+        return name;
+    }
 
-        int typeId = typeTable.findTypeByName(varType);
-        if (typeId < 0) {
-            typeId = getTypeId(typeTable, varType);
+    /**
+     * Agrega al nombre las dimensiones escritas después de él.
+     */
+    private static String appendPostfixDimensions(Lexer lexer, String name) {
+        StringBuilder sb = new StringBuilder(name);
+        while (lexer.kind() == TokenKind.LBRACKET) {
+            lexer.next();
+            if (lexer.kind() == TokenKind.ERROR) {
+                throw new IllegalStateException(lexer.text());
+            }
+            if (lexer.kind() != TokenKind.NUMBER) {
+                throw new IllegalStateException("Se esperaba un número en la línea " + lexer.line());
+            }
+            sb.append('[').append(lexer.intValue()).append(']');
+            lexer.next();
+            expect(lexer, TokenKind.RBRACKET, "']'");
         }
+        return sb.toString();
+    }
 
-        globalTable.insert(varName, new SymbolImpl(0, typeId, "Variable"));
+    /**
+     * Consume un identificador y devuelve su texto.
+     */
+    private static String expectIdentifier(Lexer lexer) {
+        if (lexer.kind() != TokenKind.IDENTIFIER) {
+            throw new IllegalStateException("Se esperaba un identificador en la línea " + lexer.line());
+        }
+        String name = lexer.text();
+        lexer.next();
+        return name;
     }
 
     /**
-     * Procesa la declaración de un array global.
+     * Consume el token esperado o lanza un error si el token actual es otro.
      */
-    private static void processGlobalArrayDeclaration(String line, TypeTable typeTable,
-            SymbolTable globalTable) {
-        String[] parts = line.trim().split("\\s+");
-        if (parts.length < 2)
-            return;
+    private static void expect(Lexer lexer, TokenKind kind, String description) {
+        if (lexer.kind() != kind) {
+            throw new IllegalStateException("Se esperaba " + description + " en la línea " + lexer.line());
+        }
+        lexer.next();
+    }
 
-        String arrayType = parts[0];
-        String arrayName = parts[1].replace(";", "");
-        processArrayDeclaration(arrayType, arrayName, typeTable, globalTable);
+    /**
+     * Omite tokens hasta consumir el punto y coma que termina la sentencia.
+     * Se detiene antes de una llave para no romper el anidamiento de bloques.
+     */
+    private static void skipStatement(Lexer lexer) {
+        while (true) {
+            switch (lexer.kind()) {
+                case SEMICOLON:
+                    lexer.next();
+                    return;
+                case LBRACE:
+                case RBRACE:
+                case EOF:
+                    return;
+                default:
+                    lexer.next();
+            }
+        }
+    }
+
+    /**
+     * Omite tokens hasta consumir la llave que cierra el bloque actual,
+     * teniendo en cuenta las llaves anidadas. Se detiene al final del
+     * archivo si el bloque no se cierra.
+     */
+    private static void skipBlock(Lexer lexer) {
+        int depth = 1;
+        while (true) {
+            switch (lexer.kind()) {
+                case LBRACE:
+                    depth++;
+                    lexer.next();
+                    break;
+                case RBRACE:
+                    lexer.next();
+                    if (--depth == 0) {
+                        return;
+                    }
+                    break;
+                case EOF:
+                    return;
+                default:
+                    lexer.next();
+            }
+        }
+    }
+
+    /**
+     * Obtiene el identificador de un tipo simple o de un tipo array.
+     *
+     * @param typeTable  Tabla de tipos
+     * @param typeName   Nombre del tipo base
+     * @param dimensions Dimensiones del array, vacía si no es array
+     * @return ID del tipo encontrado o creado
+     */
+    private static int resolveType(TypeTable typeTable, String typeName, IntList dimensions) {
+        if (dimensions.isEmpty()) {
+            return getTypeId(typeTable, typeName);
+        }
+        return ((TypeTableImpl) typeTable).createMultiDimArrayType(typeName, dimensions);
     }
 
     /**
@@ -382,21 +664,17 @@ public class Main {
      * @return ID del tipo encontrado o creado
      */
     private static int getTypeId(TypeTable typeTable, String typeName) {
-    
-        if (typeName.equals("return")) {
-        }
-
         int existingId = typeTable.findTypeByName(typeName);
         if (existingId >= 0) {
             return existingId;
         }
 
-        switch (typeName.toLowerCase()) {
-            case "int":
+        switch (Keywords.classifyIgnoreCase(typeName)) {
+            case INT:
                 return Config.TypeIds.INT;
-            case "float":
+            case FLOAT:
                 return Config.TypeIds.FLOAT;
-            case "void":
+            case VOID:
                 return Config.TypeIds.VOID;
             default:
                 return typeTable.addType(typeName, 1, -1);
@@ -404,70 +682,34 @@ public class Main {
     }
 
     /**
-     * Procesa la declaración de un array, extrayendo dimensiones y tipo base.
+     * Procesa la declaración de un array a partir de su tipo base y sus
+     * dimensiones.
      */
-    private static void processArrayDeclaration(String arrayType, String name,
-            TypeTable typeTable, SymbolTable scope) {
-
-        List<Integer> dimensions = new ArrayList<>();
-        int start = arrayType.indexOf("[");
-        while (start != -1) {
-            int end = arrayType.indexOf("]", start);
-            String dimStr = arrayType.substring(start + 1, end);
-            dimensions.add(Integer.parseInt(dimStr));
-            start = arrayType.indexOf("[", end);
-        }
-
-        String baseType = arrayType.substring(0, arrayType.indexOf("["));
-
+    private static void processArrayDeclaration(String baseType, IntList dimensions,
+            String name, TypeTable typeTable, SymbolTable scope) {
         int arrayTypeId = ((TypeTableImpl) typeTable).createMultiDimArrayType(
                 baseType, dimensions);
 
-        scope.insert(name, new SymbolImpl(0, arrayTypeId, "Variable"));
+        scope.insert(name, new SymbolImpl(0, arrayTypeId, SymbolCategory.VARIABLE));
     }
 
     /**
-     * Imprime las tablas de símbolos y tipos con formato.
+     * Imprime los mensajes de error acumulados durante el análisis.
+     *
+     * @param errors Mensajes de error en el orden en que ocurrieron
      */
-    private static void printSymbolTable(SymbolTable globalTable, TypeTable typeTable,
-            SymbolTableStack symbolStack) {
-        TablePrinter.printTypeTable(typeTable);
-        TablePrinter.printSymbolTables(symbolStack, typeTable);
+    static void printErrors(List<String> errors) {
+        for (String error : errors) {
+            Colors.println(error, Colors.RED);
+        }
     }
 
     /**
-     * Procesa el cuerpo de una función, incluyendo variables locales y ámbito.
+     * Imprime las tablas de símbolos y tipos con formato.
      */
-    private static void processFunctionBody(String functionDef,
-            SymbolTable functionScope,
-            TypeTable typeTable,
+    private static void printSymbolTable(SymbolTable globalTable, TypeTable typeTable,
             SymbolTableStack symbolStack) {
-        String[] lines = functionDef.split("\n");
-
-        for (String line : lines) {
-            line = line.trim();
-            if (line.isEmpty() || line.contains("(") || line.equals("{") ||
-                    line.equals("}") || line.startsWith("return ")) {
-                continue;
-            }
-
-            if (line.contains(";")) {
-                String[] parts = line.trim().split("\\s+");
-                if (parts.length >= 2) {
-                    String varType = parts[0];
-                    String varName = parts[1].replace(";", "");
-
-                    if (varType.contains("[")) {
-                        processArrayDeclaration(varType, varName, typeTable, functionScope);
-                    } else {
-                        int typeId = getTypeId(typeTable, varType);
-                        functionScope.insert(varName, new SymbolImpl(0, typeId, "Variable"));
-                    }
-                }
-            }
-        }
-
-        symbolStack.push(functionScope);
+        TablePrinter.printTypeTable(typeTable);
+        TablePrinter.printSymbolTables(symbolStack, typeTable);
     }
-
-}
+}
\ No newline at end of file
@@ -0,0 +1,547 @@
+package src.main;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.*;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+
+import src.lexer.Lexer;
+import src.lexer.TokenKind;
+import src.main.BatchAnalyzer.Unit;
+import src.symbol.SymbolTable;
+import src.symbol.SymbolTableImpl;
+import src.symbol.SymbolTableStack;
+import src.symbol.SymbolTableStackImpl;
+import src.type.TypeTable;
+import src.type.TypeTableImpl;
+import src.util.Colors;
+import src.util.InputReader;
+import src.util.IntList;
+import src.util.OutputSink;
+
+/**
+ * Análisis en etapas encadenadas, cada una en su propio hilo y unidas por
+ * colas acotadas:
+ *
+ * 1. Lectura: lee cada archivo por tramos de tamaño fijo.
+ * 2. Tokenización: corta el texto acumulado después del último salto de
+ *    línea, porque ningún token ni comentario cruza una línea, y entrega
+ *    los tokens por lotes.
+ * 3. Declaración: procesa las declaraciones con los tokens recibidos y
+ *    llena las tablas de cada archivo.
+ * 4. Salida: imprime las tablas de cada archivo terminado.
+ *
+ * Dentro de un archivo las tres primeras etapas avanzan a la vez, y
+ * mientras se imprime un archivo ya se están leyendo los siguientes, así
+ * que el tiempo total se acerca al de la etapa más lenta y no a la suma de
+ * todas. Si una etapa va más rápido que la siguiente, la cola llena la
+ * frena en lugar de crecer sin límite.
+ *
+ * @author steve-quezada
+ */
+public class PipelineAnalyzer {
+
+    /**
+     * Argumento que activa el análisis en etapas desde Main.
+     */
+    public static final String PIPELINE_FLAG = "--pipeline";
+
+    private static final String PLAIN_FLAG = "--plain";
+
+    private static final String COLOR_FLAG = "--color";
+
+    /**
+     * Caracteres que se leen del archivo en cada tramo.
+     */
+    private static final int CHUNK_SIZE = 1 << 16;
+
+    /**
+     * Tokens que se entregan juntos a la etapa de declaración.
+     */
+    private static final int BATCH_SIZE = 4096;
+
+    private static final int CHUNK_QUEUE_CAPACITY = 4;
+
+    private static final int TOKEN_QUEUE_CAPACITY = 8;
+
+    private static final int UNIT_QUEUE_CAPACITY = 2;
+
+    /**
+     * Tramo de texto leído de un archivo. El último tramo de cada archivo
+     * lleva last en true; si la lectura falló, lleva además el mensaje.
+     */
+    private static final class Chunk {
+
+        static final Chunk END = new Chunk(null, null, 0, true, null);
+
+        final Path file;
+
+        final char[] chars;
+
+        final int length;
+
+        final boolean last;
+
+        final String error;
+
+        Chunk(Path file, char[] chars, int length, boolean last, String error) {
+            this.file = file;
+            this.chars = chars;
+            this.length = length;
+            this.last = last;
+            this.error = error;
+        }
+    }
+
+    /**
+     * Lote de tokens en arreglos paralelos. El lote que cierra un archivo
+     * termina con un token EOF.
+     */
+    private static final class TokenBatch {
+
+        static final TokenBatch END = new TokenBatch(null, 0);
+
+        final Path file;
+
+        final TokenKind[] kinds;
+
+        final String[] texts;
+
+        final int[] starts;
+
+        final int[] ends;
+
+        final int[] lines;
+
+        final int[] hashes;
+
+        final int[] numbers;
+
+        int count;
+
+        String readError;
+
+        TokenBatch(Path file, int capacity) {
+            this.file = file;
+            this.kinds = new TokenKind[capacity];
+            this.texts = new String[capacity];
+            this.starts = new int[capacity];
+            this.ends = new int[capacity];
+            this.lines = new int[capacity];
+            this.hashes = new int[capacity];
+            this.numbers = new int[capacity];
+        }
+
+        boolean isFull() {
+            return count == kinds.length;
+        }
+    }
+
+    /**
+     * Analizador léxico que no lee texto: entrega los tokens que le llegan
+     * por la cola de la etapa de tokenización, de modo que el procesamiento
+     * de declaraciones de Main lo usa sin cambios. Al llegar al EOF de un
+     * archivo se detiene; el siguiente archivo usa otra instancia.
+     */
+    private static final class QueuedLexer extends Lexer {
+
+        private final BlockingQueue<TokenBatch> queue;
+
+        private TokenBatch batch;
+
+        private int index;
+
+        private boolean done;
+
+        private TokenKind kind;
+
+        private String text;
+
+        private int start;
+
+        private int end;
+
+        private int line;
+
+        private int hash;
+
+        private int number;
+
+        QueuedLexer(BlockingQueue<TokenBatch> queue) {
+            super("");
+            this.queue = queue;
+        }
+
+        @Override
+        public TokenKind next() {
+            if (done) {
+                return kind = TokenKind.EOF;
+            }
+            if (batch == null || index == batch.count) {
+                try {
+                    batch = queue.take();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    batch = null;
+                }
+                index = 0;
+                if (batch == null || batch == TokenBatch.END) {
+                    done = true;
+                    return kind = TokenKind.EOF;
+                }
+            }
+            int i = index++;
+            kind = batch.kinds[i];
+            text = batch.texts[i];
+            start = batch.starts[i];
+            end = batch.ends[i];
+            line = batch.lines[i];
+            hash = batch.hashes[i];
+            number = batch.numbers[i];
+            done = kind == TokenKind.EOF;
+            return kind;
+        }
+
+        @Override
+        public TokenKind kind() {
+            return kind;
+        }
+
+        @Override
+        public int hash() {
+            return hash;
+        }
+
+        @Override
+        public int intValue() {
+            return number;
+        }
+
+        @Override
+        public int start() {
+            return start;
+        }
+
+        @Override
+        public int end() {
+            return end;
+        }
+
+        @Override
+        public int line() {
+            return line;
+        }
+
+        @Override
+        public String text() {
+            return text;
+        }
+
+        /**
+         * Obtiene el archivo de los tokens recibidos.
+         *
+         * @return Archivo, o null si no quedan archivos
+         */
+        Path file() {
+            return batch != null && batch != TokenBatch.END ? batch.file : null;
+        }
+
+        /**
+         * Obtiene el error de lectura del archivo, si lo hubo.
+         */
+        String readError() {
+            return batch != null ? batch.readError : null;
+        }
+    }
+
+    private final BlockingQueue<Chunk> chunks = new ArrayBlockingQueue<>(CHUNK_QUEUE_CAPACITY);
+
+    private final BlockingQueue<TokenBatch> tokens = new ArrayBlockingQueue<>(TOKEN_QUEUE_CAPACITY);
+
+    private final BlockingQueue<Unit> units = new ArrayBlockingQueue<>(UNIT_QUEUE_CAPACITY);
+
+    private final Unit endOfUnits = new Unit(null, null, null, null);
+
+    private final List<Thread> stages = new ArrayList<>();
+
+    private volatile Throwable failure;
+
+    /**
+     * Punto de entrada del análisis en etapas. Acepta opcionalmente
+     * "--plain" o "--color", seguidos de archivos o directorios, igual que
+     * el modo por lotes.
+     *
+     * @param args Argumentos posteriores a --pipeline
+     */
+    public static void run(String[] args) {
+        boolean ansi = OutputSink.isTerminal();
+        List<String> paths = new ArrayList<>();
+        for (String arg : args) {
+            if (PLAIN_FLAG.equals(arg)) {
+                ansi = false;
+            } else if (COLOR_FLAG.equals(arg)) {
+                ansi = true;
+            } else {
+                paths.add(arg);
+            }
+        }
+
+        Colors.setSink(OutputSink.standardOutput(true, !ansi));
+        try {
+            List<Path> files;
+            try {
+                files = BatchAnalyzer.collectFiles(paths);
+            } catch (IOException e) {
+                Colors.println("Error al leer el directorio: " + e.getMessage(), Colors.RED);
+                return;
+            }
+            new PipelineAnalyzer().analyze(files);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            Colors.flush();
+        }
+    }
+
+    /**
+     * Analiza e imprime los archivos en orden, con cada etapa en su hilo.
+     * Si una etapa falla, las demás se interrumpen.
+     *
+     * @param files Archivos a analizar
+     * @throws InterruptedException Si el hilo se interrumpe esperando a las
+     *                              etapas
+     */
+    public void analyze(List<Path> files) throws InterruptedException {
+        stage("pipeline-reader", () -> read(files));
+        stage("pipeline-tokenizer", this::tokenize);
+        stage("pipeline-declarations", this::declare);
+        stage("pipeline-output", this::render);
+        for (Thread stage : stages) {
+            stage.start();
+        }
+        try {
+            for (Thread stage : stages) {
+                stage.join();
+            }
+        } finally {
+            for (Thread stage : stages) {
+                stage.interrupt();
+            }
+        }
+        if (failure != null) {
+            Colors.println("Error inesperado: " + failure.getMessage(), Colors.RED);
+        }
+    }
+
+    /**
+     * Trabajo de una etapa, que puede quedar esperando en sus colas.
+     */
+    private interface Stage {
+
+        void run() throws InterruptedException;
+    }
+
+    /**
+     * Crea el hilo de una etapa. Si la etapa falla, interrumpe a las demás
+     * para que ninguna quede esperando en una cola.
+     */
+    private void stage(String name, Stage stage) {
+        Thread thread = new Thread(() -> {
+            try {
+                stage.run();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } catch (RuntimeException | Error e) {
+                failure = e;
+                for (Thread other : stages) {
+                    other.interrupt();
+                }
+            }
+        }, name);
+        thread.setDaemon(true);
+        stages.add(thread);
+    }
+
+    /**
+     * Etapa de lectura: entrega cada archivo en tramos de tamaño fijo.
+     */
+    private void read(List<Path> files) throws InterruptedException {
+        for (Path file : files) {
+            try {
+                InputReader reader = new InputReader(file.toString(), false);
+                try {
+                    while (true) {
+                        char[] buffer = new char[CHUNK_SIZE];
+                        int length = reader.read(buffer, 0, buffer.length);
+                        if (length < 0) {
+                            chunks.put(new Chunk(file, buffer, 0, true, null));
+                            break;
+                        }
+                        chunks.put(new Chunk(file, buffer, length, false, null));
+                    }
+                } finally {
+                    reader.close();
+                }
+            } catch (IOException e) {
+                chunks.put(new Chunk(file, null, 0, true, e.getMessage()));
+            }
+        }
+        chunks.put(Chunk.END);
+    }
+
+    /**
+     * Etapa de tokenización: acumula los tramos de un archivo y analiza
+     * léxicamente todo lo que llega hasta el último salto de línea.
+     */
+    private void tokenize() throws InterruptedException {
+        StringBuilder pending = new StringBuilder();
+        TokenBatch batch = null;
+        int offset = 0;
+        int line = 1;
+        while (true) {
+            Chunk chunk = chunks.take();
+            if (chunk == Chunk.END) {
+                tokens.put(TokenBatch.END);
+                return;
+            }
+            if (batch == null) {
+                batch = new TokenBatch(chunk.file, BATCH_SIZE);
+            }
+            if (chunk.chars != null) {
+                pending.append(chunk.chars, 0, chunk.length);
+            }
+
+            int cut = pending.length();
+            if (!chunk.last) {
+                cut = pending.lastIndexOf("\n") + 1;
+            }
+            if (cut > 0) {
+                Lexer lexer = new Lexer(pending.substring(0, cut), 0, line);
+                while (true) {
+                    TokenKind kind = lexer.next();
+                    if (kind == TokenKind.EOF) {
+                        line = lexer.line();
+                        break;
+                    }
+                    batch = add(batch, kind, textOf(lexer, kind), lexer, offset);
+                }
+                pending.delete(0, cut);
+                offset += cut;
+            }
+
+            if (chunk.last) {
+                int i = batch.count++;
+                batch.kinds[i] = TokenKind.EOF;
+                batch.texts[i] = "";
+                batch.starts[i] = offset;
+                batch.ends[i] = offset;
+                batch.lines[i] = line;
+                batch.readError = chunk.error;
+                tokens.put(batch);
+                batch = null;
+                pending.setLength(0);
+                offset = 0;
+                line = 1;
+            }
+        }
+    }
+
+    /**
+     * Agrega un token al lote y lo entrega si se llenó, dejando siempre
+     * lugar para el siguiente.
+     */
+    private TokenBatch add(TokenBatch batch, TokenKind kind, String text, Lexer lexer, int offset)
+            throws InterruptedException {
+        int i = batch.count++;
+        batch.kinds[i] = kind;
+        batch.texts[i] = text;
+        batch.starts[i] = offset + lexer.start();
+        batch.ends[i] = offset + lexer.end();
+        batch.lines[i] = lexer.line();
+        batch.hashes[i] = lexer.hash();
+        batch.numbers[i] = lexer.intValue();
+        if (batch.isFull()) {
+            tokens.put(batch);
+            return new TokenBatch(batch.file, BATCH_SIZE);
+        }
+        return batch;
+    }
+
+    /**
+     * Obtiene el texto de un token sin crear cadenas para los signos de
+     * puntuación; Lexer ya devuelve constantes para las palabras reservadas.
+     */
+    private static String textOf(Lexer lexer, TokenKind kind) {
+        switch (kind) {
+            case LBRACE:
+                return "{";
+            case RBRACE:
+                return "}";
+            case LPAREN:
+                return "(";
+            case RPAREN:
+                return ")";
+            case LBRACKET:
+                return "[";
+            case RBRACKET:
+                return "]";
+            case SEMICOLON:
+                return ";";
+            case COMMA:
+                return ",";
+            default:
+                return lexer.text();
+        }
+    }
+
+    /**
+     * Etapa de declaración: procesa las declaraciones de cada archivo con
+     * tablas propias a medida que llegan sus tokens.
+     */
+    private void declare() throws InterruptedException {
+        IntList dimensions = new IntList();
+        while (true) {
+            QueuedLexer lexer = new QueuedLexer(tokens);
+            TypeTable typeTable = new TypeTableImpl();
+            SymbolTableStack symbolStack = new SymbolTableStackImpl();
+            SymbolTable globalTable = new SymbolTableImpl(typeTable, null);
+            symbolStack.push(globalTable);
+            List<String> errors = new ArrayList<>();
+
+            lexer.next();
+            Path file = lexer.file();
+            if (file == null) {
+                if (Thread.currentThread().isInterrupted()) {
+                    throw new InterruptedException();
+                }
+                units.put(endOfUnits);
+                return;
+            }
+            while (lexer.kind() != TokenKind.EOF) {
+                Main.processDeclaration(lexer, typeTable, symbolStack, globalTable, dimensions, errors);
+            }
+            if (Thread.currentThread().isInterrupted()) {
+                throw new InterruptedException();
+            }
+            if (lexer.readError() != null) {
+                errors.add("Error al leer el archivo: " + lexer.readError());
+            }
+            units.put(new Unit(file, typeTable, symbolStack, errors));
+        }
+    }
+
+    /**
+     * Etapa de salida: imprime cada archivo terminado en el orden de
+     * entrada.
+     */
+    private void render() throws InterruptedException {
+        while (true) {
+            Unit unit = units.take();
+            if (unit == endOfUnits) {
+                return;
+            }
+            BatchAnalyzer.printUnit(unit);
+        }
+    }
+}
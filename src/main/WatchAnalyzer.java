@@ -0,0 +1,243 @@
+package src.main;
+
+import java.io.IOException;
+import java.nio.file.*;
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+import src.util.Colors;
+import src.util.InputReader;
+import src.util.OutputSink;
+import src.util.TablePrinter;
+
+/**
+ * Modo de vigilancia: analiza los archivos de un directorio y los vuelve a
+ * analizar cada vez que cambian, sin pasar por el menú.
+ *
+ * Los eventos del WatchService llegan en ráfagas (un editor suele truncar,
+ * escribir y renombrar al guardar), así que después del primer evento se
+ * siguen juntando los que lleguen hasta que pasa el intervalo de espera sin
+ * ninguno nuevo. Entonces se analizan solo los archivos afectados, cada uno
+ * con su propio IncrementalAnalyzer, y se reporta cuánto tardó la ronda.
+ *
+ * @author steve-quezada
+ */
+public class WatchAnalyzer {
+
+    /**
+     * Argumento que activa el modo de vigilancia desde Main.
+     */
+    public static final String WATCH_FLAG = "--watch";
+
+    private static final String DEBOUNCE_FLAG = "--debounce";
+
+    private static final String PLAIN_FLAG = "--plain";
+
+    private static final String COLOR_FLAG = "--color";
+
+    /**
+     * Milisegundos sin eventos nuevos que se esperan antes de analizar.
+     */
+    private static final long DEFAULT_DEBOUNCE_MILLIS = 20;
+
+    private final Path dir;
+
+    private final Map<Path, IncrementalAnalyzer> analyzers;
+
+    /**
+     * Constructor que crea un vigilante sin archivos analizados.
+     *
+     * @param dir Directorio vigilado
+     */
+    public WatchAnalyzer(Path dir) {
+        this.dir = dir;
+        this.analyzers = new HashMap<>();
+    }
+
+    /**
+     * Punto de entrada del modo de vigilancia. Acepta opcionalmente
+     * "--debounce MS" y "--plain" o "--color", seguidos del directorio a
+     * vigilar; sin directorio se vigila el de recursos. Termina cuando el
+     * directorio deja de existir o se interrumpe el proceso.
+     *
+     * @param args Argumentos posteriores a --watch
+     */
+    public static void run(String[] args) {
+        long debounceMillis = DEFAULT_DEBOUNCE_MILLIS;
+        boolean ansi = OutputSink.isTerminal();
+        Path dir = Paths.get(Config.RESOURCE_DIR);
+        for (int i = 0; i < args.length; i++) {
+            if (DEBOUNCE_FLAG.equals(args[i]) && i + 1 < args.length) {
+                debounceMillis = Long.parseLong(args[++i]);
+            } else if (PLAIN_FLAG.equals(args[i])) {
+                ansi = false;
+            } else if (COLOR_FLAG.equals(args[i])) {
+                ansi = true;
+            } else {
+                dir = Paths.get(args[i]);
+            }
+        }
+
+        Colors.setSink(OutputSink.standardOutput(true, !ansi));
+        try (WatchService service = dir.getFileSystem().newWatchService()) {
+            dir.register(service, StandardWatchEventKinds.ENTRY_CREATE,
+                    StandardWatchEventKinds.ENTRY_MODIFY, StandardWatchEventKinds.ENTRY_DELETE);
+            WatchAnalyzer watcher = new WatchAnalyzer(dir);
+            watcher.analyzeAll(System.nanoTime());
+            watcher.watch(service, debounceMillis);
+        } catch (IOException e) {
+            Colors.println("Error al vigilar el directorio: " + e.getMessage(), Colors.RED);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            Colors.flush();
+        }
+    }
+
+    /**
+     * Espera ráfagas de eventos y analiza los archivos afectados por cada
+     * una hasta que el directorio deja de ser válido.
+     *
+     * @param service        Servicio donde está registrado el directorio
+     * @param debounceMillis Milisegundos sin eventos que cierran una ráfaga
+     * @throws IOException          Si no se puede listar el directorio
+     * @throws InterruptedException Si el hilo se interrumpe esperando
+     */
+    public void watch(WatchService service, long debounceMillis) throws IOException, InterruptedException {
+        Colors.println("Vigilando " + dir + " (Ctrl+C para salir)", Colors.GRAY_DARK);
+        Colors.flush();
+        while (true) {
+            WatchKey key = service.take();
+            long firstEvent = System.nanoTime();
+            Set<Path> changed = new LinkedHashSet<>();
+            boolean overflow = false;
+            while (key != null) {
+                overflow |= drain(key, changed);
+                if (!key.reset()) {
+                    Colors.println("El directorio " + dir + " ya no está disponible", Colors.RED);
+                    return;
+                }
+                key = service.poll(debounceMillis, TimeUnit.MILLISECONDS);
+            }
+
+            if (overflow) {
+                analyzeAll(firstEvent);
+            } else if (!changed.isEmpty()) {
+                analyzeFiles(changed, firstEvent);
+            }
+        }
+    }
+
+    /**
+     * Agrega a la lista los archivos de los eventos pendientes de una
+     * clave.
+     *
+     * @return true si se perdieron eventos y hay que revisar todo el
+     *         directorio
+     */
+    private boolean drain(WatchKey key, Set<Path> changed) {
+        boolean overflow = false;
+        for (WatchEvent<?> event : key.pollEvents()) {
+            if (event.kind() == StandardWatchEventKinds.OVERFLOW) {
+                overflow = true;
+            } else if (event.context() instanceof Path) {
+                Path name = (Path) event.context();
+                if (!isIgnored(name)) {
+                    changed.add(dir.resolve(name));
+                }
+            }
+        }
+        return overflow;
+    }
+
+    /**
+     * Indica si un nombre corresponde a un archivo auxiliar de un editor
+     * (ocultos, de respaldo o instantáneas) que no se debe analizar.
+     */
+    private static boolean isIgnored(Path name) {
+        String text = name.toString();
+        return text.startsWith(".") || text.endsWith("~")
+                || text.endsWith(BatchAnalyzer.SNAPSHOT_EXTENSION);
+    }
+
+    /**
+     * Analiza todos los archivos del directorio y descarta los análisis de
+     * los que ya no existen.
+     *
+     * @param since Instante en nanosegundos desde el que se mide la ronda
+     * @throws IOException Si no se puede listar el directorio
+     */
+    public void analyzeAll(long since) throws IOException {
+        Set<Path> files = new LinkedHashSet<>();
+        try (Stream<Path> entries = Files.list(dir)) {
+            entries.filter(path -> !isIgnored(path.getFileName())).sorted().forEach(files::add);
+        }
+        files.addAll(analyzers.keySet());
+        analyzeFiles(files, since);
+    }
+
+    /**
+     * Analiza los archivos indicados e imprime sus resultados y el tiempo
+     * de la ronda. Un archivo que ya no existe se deja de seguir.
+     *
+     * @param files Archivos afectados
+     * @param since Instante en nanosegundos desde el que se mide la ronda
+     */
+    public void analyzeFiles(Collection<Path> files, long since) {
+        long start = System.nanoTime();
+        int analyzed = 0;
+        for (Path file : files) {
+            if (!Files.isRegularFile(file)) {
+                if (analyzers.remove(file) != null) {
+                    Colors.println("\n" + "═".repeat(89), Colors.GRAY_DARK);
+                    Colors.println("Archivo eliminado: " + file, Colors.TEAL + Colors.HIGH_INTENSITY);
+                }
+                continue;
+            }
+            analyzeFile(file);
+            analyzed++;
+        }
+        Colors.flush();
+        long end = System.nanoTime();
+        if (analyzed > 0) {
+            Colors.println(String.format("\nRonda: %d archivo(s) en %.1f ms, %.1f ms desde el primer cambio",
+                    analyzed, (end - start) / 1e6, (end - since) / 1e6), Colors.GRAY_DARK);
+            Colors.flush();
+        }
+    }
+
+    /**
+     * Analiza un archivo con su analizador incremental e imprime el
+     * resultado. El archivo se copia al leerlo en lugar de proyectarse,
+     * porque el editor puede truncarlo mientras se analiza.
+     */
+    private void analyzeFile(Path file) {
+        IncrementalAnalyzer analyzer = analyzers.computeIfAbsent(file, path -> new IncrementalAnalyzer());
+        Colors.println("\n" + "═".repeat(89), Colors.GRAY_DARK);
+        Colors.println("Archivo: " + file, Colors.TEAL + Colors.HIGH_INTENSITY);
+
+        long start = System.nanoTime();
+        List<String> errors;
+        try {
+            InputReader reader = new InputReader(file.toString(), false);
+            CharSequence input = reader.readAll();
+            reader.close();
+            errors = analyzer.analyze(input);
+        } catch (IOException e) {
+            analyzers.remove(file);
+            Colors.println("Error al leer el archivo: " + e.getMessage(), Colors.RED);
+            return;
+        } catch (RuntimeException e) {
+            Colors.println("Error inesperado: " + e.getMessage(), Colors.RED);
+            return;
+        }
+        long elapsed = System.nanoTime() - start;
+
+        Colors.println(String.format("Analizado en %.2f ms; declaraciones reutilizadas: %d de %d",
+                elapsed / 1e6, analyzer.getReusedCount(), analyzer.getDeclarationCount()), Colors.GRAY_DARK);
+        Main.printErrors(errors);
+        TablePrinter.printTypeTable(analyzer.getTypeTable());
+        TablePrinter.printSymbolTables(analyzer.getSymbolStack(), analyzer.getTypeTable());
+    }
+}
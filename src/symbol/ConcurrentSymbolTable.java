@@ -0,0 +1,416 @@
+package src.symbol;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReferenceFieldUpdater;
+
+import src.type.TypeTable;
+
+/**
+ * Tabla de símbolos segura entre hilos, pensada para un ámbito global que
+ * varios hilos de análisis llenan a la vez.
+ *
+ * Cada identificador tiene un nodo en un ConcurrentHashMap, así que las
+ * búsquedas no toman candados. Los nodos nuevos se enlazan además al final
+ * de una lista con compareAndSet, que da el orden de declaración; el
+ * recorrido de {@link #getSymbols()} sigue esa lista y es débilmente
+ * consistente: no falla si otro hilo inserta mientras tanto y puede o no
+ * ver esas inserciones. Los desplazamientos se reservan con
+ * compareAndSet sobre un contador atómico, de modo que dos hilos nunca
+ * reciben la misma dirección.
+ *
+ * Resolver una sobrecarga bloquea solo el conjunto de sobrecargas de ese
+ * nombre, porque guarda en caché las formas de llamada ya resueltas.
+ *
+ * La tabla de tipos solo se consulta para calcular tamaños; si otros hilos
+ * crean tipos al mismo tiempo, deben sincronizarse con ella por su cuenta.
+ * Una pila de ámbitos que apile esta tabla enlaza los identificadores que
+ * tenga en ese momento y consulta la tabla directamente para ver los que
+ * otros hilos inserten después. La pila en sí no es segura entre hilos:
+ * cada hilo debería usar la suya, o usar esta tabla como padre de sus
+ * propias tablas locales.
+ *
+ * @author etnicst
+ */
+public class ConcurrentSymbolTable implements SymbolTable {
+
+    private static final AtomicReferenceFieldUpdater<ConcurrentSymbolTable, Node> TAIL =
+            AtomicReferenceFieldUpdater.newUpdater(ConcurrentSymbolTable.class, Node.class, "tail");
+
+    private static final AtomicReferenceFieldUpdater<Node, Node> NEXT =
+            AtomicReferenceFieldUpdater.newUpdater(Node.class, Node.class, "next");
+
+    private final ConcurrentHashMap<String, Node> index;
+
+    private final ConcurrentHashMap<String, OverloadSet> overloads;
+
+    private final Node head;
+
+    private volatile Node tail;
+
+    private final AtomicInteger size;
+
+    private final AtomicInteger currentOffset;
+
+    private final SymbolTable parent;
+
+    private final TypeTable typeTable;
+
+    private final Map<String, Symbol> view;
+
+    /**
+     * Entrada de la tabla. La clave no cambia; el símbolo se reemplaza si
+     * el identificador se vuelve a insertar, sin mover el nodo de su
+     * posición en la lista.
+     */
+    private static final class Node implements Map.Entry<String, Symbol> {
+
+        final String key;
+
+        volatile Symbol value;
+
+        volatile Node next;
+
+        Node(String key, Symbol value) {
+            this.key = key;
+            this.value = value;
+        }
+
+        @Override
+        public String getKey() {
+            return key;
+        }
+
+        @Override
+        public Symbol getValue() {
+            return value;
+        }
+
+        @Override
+        public Symbol setValue(Symbol value) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (!(o instanceof Map.Entry)) {
+                return false;
+            }
+            Map.Entry<?, ?> other = (Map.Entry<?, ?>) o;
+            return key.equals(other.getKey()) && Objects.equals(value, other.getValue());
+        }
+
+        @Override
+        public int hashCode() {
+            return key.hashCode() ^ Objects.hashCode(value);
+        }
+    }
+
+    /**
+     * Vista de solo lectura de la tabla: las búsquedas van al índice y los
+     * recorridos siguen la lista en orden de declaración.
+     */
+    private final class SymbolView extends AbstractMap<String, Symbol> {
+
+        private final Set<Map.Entry<String, Symbol>> entries = new AbstractSet<Map.Entry<String, Symbol>>() {
+
+            @Override
+            public Iterator<Map.Entry<String, Symbol>> iterator() {
+                return new Iterator<Map.Entry<String, Symbol>>() {
+
+                    private Node next = head.next;
+
+                    @Override
+                    public boolean hasNext() {
+                        return next != null;
+                    }
+
+                    @Override
+                    public Map.Entry<String, Symbol> next() {
+                        Node current = next;
+                        if (current == null) {
+                            throw new NoSuchElementException();
+                        }
+                        next = current.next;
+                        return current;
+                    }
+                };
+            }
+
+            @Override
+            public int size() {
+                return size.get();
+            }
+        };
+
+        @Override
+        public Symbol get(Object key) {
+            Node node = index.get(key);
+            return node != null ? node.value : null;
+        }
+
+        @Override
+        public boolean containsKey(Object key) {
+            return index.containsKey(key);
+        }
+
+        @Override
+        public int size() {
+            return size.get();
+        }
+
+        @Override
+        public Set<Map.Entry<String, Symbol>> entrySet() {
+            return entries;
+        }
+    }
+
+    /**
+     * Constructor que inicializa una tabla vacía con una tabla de tipos y
+     * una referencia opcional a una tabla padre.
+     *
+     * @param typeTable Tabla de tipos del compilador
+     * @param parent    Tabla de símbolos padre (null si es ámbito global)
+     */
+    public ConcurrentSymbolTable(TypeTable typeTable, SymbolTable parent) {
+        this.index = new ConcurrentHashMap<>();
+        this.overloads = new ConcurrentHashMap<>();
+        this.head = new Node(null, null);
+        this.tail = head;
+        this.size = new AtomicInteger();
+        this.currentOffset = new AtomicInteger();
+        this.parent = parent;
+        this.typeTable = typeTable;
+        this.view = new SymbolView();
+    }
+
+    /**
+     * Constructor simplificado que crea una tabla sin padre.
+     *
+     * @param typeTable Tabla de tipos del compilador
+     */
+    public ConcurrentSymbolTable(TypeTable typeTable) {
+        this(typeTable, null);
+    }
+
+    /**
+     * Busca un símbolo por su identificador en esta tabla y en las tablas
+     * padre, sin tomar candados.
+     *
+     * @param id Identificador a buscar
+     * @return Optional conteniendo el símbolo si se encuentra
+     */
+    @Override
+    public Optional<Symbol> lookup(String id) {
+        Node node = index.get(id);
+        if (node != null) {
+            return Optional.of(node.value);
+        }
+        return parent != null ? parent.lookup(id) : Optional.empty();
+    }
+
+    /**
+     * Inserta un símbolo tal como viene y avanza el desplazamiento en su
+     * tamaño. Como la dirección del símbolo se calculó antes de llamar,
+     * los hilos que comparten la tabla deberían usar
+     * {@link #allocate(String, int, SymbolCategory)}.
+     *
+     * @param id  Identificador del símbolo
+     * @param sym Símbolo a insertar
+     */
+    @Override
+    public void insert(String id, Symbol sym) {
+        reserve(id, calculateSize(sym));
+        put(id, sym);
+    }
+
+    /**
+     * Reserva atómicamente la siguiente dirección para un símbolo del tipo
+     * indicado e inserta el símbolo con esa dirección.
+     *
+     * @param id       Identificador del símbolo
+     * @param typeId   ID del tipo del símbolo
+     * @param category Categoría del símbolo
+     * @return Símbolo insertado
+     */
+    public Symbol allocate(String id, int typeId, SymbolCategory category) {
+        Symbol sym = new SymbolImpl(reserve(id, sizeOfType(typeId)), typeId, category);
+        put(id, sym);
+        return sym;
+    }
+
+    /**
+     * Obtiene una vista de solo lectura de los símbolos en orden de
+     * declaración, débilmente consistente con las inserciones concurrentes.
+     *
+     * @return Mapa de símbolos
+     */
+    @Override
+    public Map<String, Symbol> getSymbols() {
+        return view;
+    }
+
+    /**
+     * Inserta una función en la tabla con soporte para sobrecarga, bajo su
+     * identificador único y en el conjunto de sobrecargas de su nombre.
+     *
+     * @param id         Nombre de la función
+     * @param returnType Tipo de retorno
+     * @param paramTypes Lista de tipos de parámetros
+     */
+    @Override
+    public void insertFunction(String id, int returnType, List<Integer> paramTypes) {
+        FunctionSymbol sym = new FunctionSymbol(currentOffset.get(), returnType, Signatures.intern(paramTypes));
+        put(SymbolTableImpl.generateUniqueFunctionId(id, paramTypes), sym);
+        OverloadSet set = overloads.computeIfAbsent(id, OverloadSet::new);
+        synchronized (set) {
+            set.add(sym);
+        }
+    }
+
+    /**
+     * Resuelve una llamada a una función sobrecargada a partir de los tipos
+     * de sus argumentos.
+     *
+     * @param name     Nombre de la función
+     * @param argTypes IDs de los tipos de los argumentos
+     * @return Optional con la sobrecarga elegida
+     * @throws IllegalStateException Si la llamada es ambigua
+     */
+    @Override
+    public Optional<Symbol> resolveFunction(String name, int[] argTypes) {
+        return resolveFunction(name, argTypes, Signatures.find(argTypes, argTypes.length));
+    }
+
+    /**
+     * Resuelve una llamada cuya firma de argumentos ya tiene ID. Las
+     * sobrecargas de esta tabla ocultan a las del mismo nombre en las
+     * tablas padre.
+     *
+     * @param name        Nombre de la función
+     * @param argTypes    IDs de los tipos de los argumentos
+     * @param signatureId ID de la firma de argTypes según {@link Signatures#find}
+     * @return Optional con la sobrecarga elegida
+     * @throws IllegalStateException Si la llamada es ambigua
+     */
+    @Override
+    public Optional<Symbol> resolveFunction(String name, int[] argTypes, int signatureId) {
+        OverloadSet set = overloads.get(name);
+        if (set != null) {
+            synchronized (set) {
+                return Optional.ofNullable(set.resolve(argTypes, signatureId));
+            }
+        }
+        return parent != null ? parent.resolveFunction(name, argTypes, signatureId) : Optional.empty();
+    }
+
+    /**
+     * Obtiene el desplazamiento actual de la memoria.
+     *
+     * @return Desplazamiento actual en bytes
+     */
+    @Override
+    public int getCurrentOffset() {
+        return currentOffset.get();
+    }
+
+    /**
+     * Inserta una estructura en la tabla.
+     *
+     * @param name   Nombre de la estructura
+     * @param typeId ID del tipo de la estructura
+     */
+    @Override
+    public void insertStruct(String name, int typeId) {
+        put(name, new SymbolImpl(currentOffset.get(), typeId, SymbolCategory.STRUCT));
+    }
+
+    /**
+     * Obtiene la tabla padre en la que continúan las búsquedas.
+     *
+     * @return Tabla padre, o null si no tiene
+     */
+    public SymbolTable getParent() {
+        return parent;
+    }
+
+    /**
+     * Guarda un símbolo. Si el identificador es nuevo, su nodo se publica
+     * primero en el índice y después se enlaza al final de la lista; si
+     * otro hilo lo publicó antes, solo se reemplaza el símbolo.
+     */
+    private void put(String id, Symbol sym) {
+        Node node = index.get(id);
+        if (node == null) {
+            Node fresh = new Node(id, sym);
+            node = index.putIfAbsent(id, fresh);
+            if (node == null) {
+                append(fresh);
+                return;
+            }
+        }
+        node.value = sym;
+    }
+
+    /**
+     * Enlaza un nodo al final de la lista. Si otro hilo ya enlazó uno pero
+     * aún no movió el final, se le ayuda a moverlo antes de reintentar.
+     */
+    private void append(Node node) {
+        while (true) {
+            Node last = tail;
+            Node next = last.next;
+            if (next != null) {
+                TAIL.compareAndSet(this, last, next);
+            } else if (NEXT.compareAndSet(last, null, node)) {
+                TAIL.compareAndSet(this, last, node);
+                size.incrementAndGet();
+                return;
+            }
+        }
+    }
+
+    /**
+     * Reserva bytes para un símbolo avanzando el desplazamiento actual.
+     *
+     * @param id    Identificador del símbolo, para el mensaje de error
+     * @param bytes Número de bytes a reservar
+     * @return Desplazamiento anterior, donde empieza lo reservado
+     * @throws IllegalStateException Si el desplazamiento excede el rango de
+     *                               direcciones del ámbito
+     */
+    private int reserve(String id, int bytes) {
+        while (true) {
+            int offset = currentOffset.get();
+            if (offset > Integer.MAX_VALUE - bytes) {
+                throw new IllegalStateException("Declarar " + id + " excede el rango de direcciones de un ámbito");
+            }
+            if (currentOffset.compareAndSet(offset, offset + bytes)) {
+                return offset;
+            }
+        }
+    }
+
+    /**
+     * Calcula el tamaño en bytes que ocupa un símbolo.
+     */
+    private int calculateSize(Symbol sym) {
+        if (sym.getCategory() == SymbolCategory.FUNCTION) {
+            return 4;
+        }
+        return sizeOfType(sym.getType());
+    }
+
+    /**
+     * Calcula el tamaño en bytes de un tipo dentro de un ámbito.
+     */
+    private int sizeOfType(int typeId) {
+        long size = typeTable.getTam(typeId);
+        if (size > Integer.MAX_VALUE) {
+            throw new IllegalStateException("El tamaño de " + typeTable.getName(typeId)
+                    + " excede el rango de direcciones de un ámbito");
+        }
+        return (int) size;
+    }
+}
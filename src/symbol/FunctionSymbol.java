@@ -0,0 +1,46 @@
+package src.symbol;
+
+/**
+ * Símbolo de una función. Es el único tipo de símbolo que guarda una
+ * firma; la firma es un arreglo compartido obtenido de {@link Signatures}.
+ *
+ * @author etnicst
+ */
+public class FunctionSymbol extends SymbolImpl {
+
+    private final int[] signature;
+
+    private final int signatureId;
+
+    /**
+     * Constructor que inicializa una función con su firma.
+     *
+     * @param dir        Dirección o desplazamiento en memoria
+     * @param returnType Identificador del tipo de retorno
+     * @param signature  Firma compartida con los tipos de los parámetros
+     */
+    public FunctionSymbol(int dir, int returnType, int[] signature) {
+        super(dir, returnType, SymbolCategory.FUNCTION);
+        this.signature = signature;
+        this.signatureId = Signatures.idOf(signature, signature.length);
+    }
+
+    /**
+     * Obtiene la firma de la función.
+     *
+     * @return Arreglo compartido con los tipos de los parámetros; no debe modificarse
+     */
+    @Override
+    public int[] getSignature() {
+        return signature;
+    }
+
+    /**
+     * Obtiene el ID de la firma de la función.
+     *
+     * @return ID asignado por {@link Signatures}
+     */
+    public int getSignatureId() {
+        return signatureId;
+    }
+}
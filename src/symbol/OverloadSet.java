@@ -0,0 +1,231 @@
+package src.symbol;
+
+import java.util.Arrays;
+
+import src.type.TypeCompatibility;
+
+/**
+ * Conjunto de sobrecargas de un mismo nombre de función dentro de una
+ * tabla. Indexa cada sobrecarga por el ID de su firma, así que una llamada
+ * cuyos argumentos coinciden exactamente con una firma se resuelve con una
+ * sola búsqueda entera.
+ *
+ * Cuando no hay coincidencia exacta se elige, entre las sobrecargas con el
+ * mismo número de parámetros, la que necesita menos promociones según la
+ * matriz de {@link TypeCompatibility}. El resultado se guarda por forma de llamada (el ID de la firma de
+ * los argumentos) para que las llamadas repetidas no vuelvan a comparar.
+ *
+ * @author etnicst
+ */
+final class OverloadSet {
+
+    /**
+     * Marca guardada en la caché cuando una forma de llamada no tiene
+     * ninguna sobrecarga aplicable.
+     */
+    private static final FunctionSymbol NO_MATCH = new FunctionSymbol(0, -1, Signatures.EMPTY);
+
+    private final String name;
+
+    private final IdMap bySignature = new IdMap();
+
+    private final IdMap resolved = new IdMap();
+
+    private FunctionSymbol[] overloads = new FunctionSymbol[2];
+
+    private int size;
+
+    /**
+     * Constructor que crea un conjunto vacío.
+     *
+     * @param name Nombre de la función, para los mensajes de error
+     */
+    OverloadSet(String name) {
+        this.name = name;
+    }
+
+    /**
+     * Agrega una sobrecarga. Si ya existía una con la misma firma la
+     * reemplaza.
+     *
+     * @param function Símbolo de la función
+     */
+    void add(FunctionSymbol function) {
+        FunctionSymbol previous = bySignature.put(function.getSignatureId(), function);
+        if (previous != null) {
+            for (int i = 0; i < size; i++) {
+                if (overloads[i] == previous) {
+                    overloads[i] = function;
+                }
+            }
+        } else {
+            if (size == overloads.length) {
+                overloads = Arrays.copyOf(overloads, size << 1);
+            }
+            overloads[size++] = function;
+        }
+        resolved.clear();
+    }
+
+    /**
+     * Quita una sobrecarga registrada.
+     *
+     * @param function Símbolo de la función
+     * @return true si el conjunto quedó vacío
+     */
+    boolean remove(FunctionSymbol function) {
+        int kept = 0;
+        for (int i = 0; i < size; i++) {
+            if (overloads[i] != function) {
+                overloads[kept++] = overloads[i];
+            }
+        }
+        Arrays.fill(overloads, kept, size, null);
+        size = kept;
+        bySignature.clear();
+        for (int i = 0; i < size; i++) {
+            bySignature.put(overloads[i].getSignatureId(), overloads[i]);
+        }
+        resolved.clear();
+        return size == 0;
+    }
+
+    /**
+     * Resuelve una llamada a partir de la firma de sus argumentos.
+     *
+     * @param argTypes    Tipos de los argumentos
+     * @param signatureId ID de la firma de los argumentos, o
+     *                    {@link Signatures#UNKNOWN_ID} si no está registrada,
+     *                    en cuyo caso el resultado no se guarda en caché
+     * @return Sobrecarga elegida, o null si ninguna es aplicable
+     * @throws IllegalStateException Si dos sobrecargas son igual de buenas
+     */
+    FunctionSymbol resolve(int[] argTypes, int signatureId) {
+        if (signatureId == Signatures.UNKNOWN_ID) {
+            FunctionSymbol best = bestMatch(argTypes);
+            return best == NO_MATCH ? null : best;
+        }
+        FunctionSymbol exact = bySignature.get(signatureId);
+        if (exact != null) {
+            return exact;
+        }
+        FunctionSymbol cached = resolved.get(signatureId);
+        if (cached == null) {
+            cached = bestMatch(argTypes);
+            resolved.put(signatureId, cached);
+        }
+        return cached == NO_MATCH ? null : cached;
+    }
+
+    /**
+     * Busca la sobrecarga aplicable con menos promociones.
+     */
+    private FunctionSymbol bestMatch(int[] argTypes) {
+        FunctionSymbol best = NO_MATCH;
+        int bestCost = Integer.MAX_VALUE;
+        boolean ambiguous = false;
+        for (int i = 0; i < size; i++) {
+            int cost = conversionCost(overloads[i].getSignature(), argTypes);
+            if (cost < 0 || cost > bestCost) {
+                continue;
+            }
+            ambiguous = cost == bestCost;
+            if (cost < bestCost) {
+                best = overloads[i];
+                bestCost = cost;
+            }
+        }
+        if (ambiguous) {
+            throw new IllegalStateException("La llamada a " + name + " es ambigua");
+        }
+        return best;
+    }
+
+    /**
+     * Cuenta las promociones necesarias para pasar los argumentos a los
+     * parámetros, o -1 si algún argumento no es compatible.
+     */
+    private static int conversionCost(int[] params, int[] argTypes) {
+        if (params.length != argTypes.length) {
+            return -1;
+        }
+        int cost = 0;
+        for (int i = 0; i < params.length; i++) {
+            if (params[i] == argTypes[i]) {
+                continue;
+            }
+            int promotions = TypeCompatibility.promotionCost(argTypes[i], params[i]);
+            if (promotions < 0) {
+                return -1;
+            }
+            cost += promotions;
+        }
+        return cost;
+    }
+
+    /**
+     * Mapa de direccionamiento abierto de IDs de firma a funciones, sin
+     * boxing de las claves.
+     */
+    private static final class IdMap {
+
+        private int[] keys = new int[4];
+
+        private FunctionSymbol[] values = new FunctionSymbol[4];
+
+        private int count;
+
+        FunctionSymbol get(int key) {
+            int mask = keys.length - 1;
+            for (int i = mix(key) & mask; values[i] != null; i = (i + 1) & mask) {
+                if (keys[i] == key) {
+                    return values[i];
+                }
+            }
+            return null;
+        }
+
+        FunctionSymbol put(int key, FunctionSymbol value) {
+            if ((count + 1) << 1 > keys.length) {
+                rehash(keys.length << 1);
+            }
+            int mask = keys.length - 1;
+            int i = mix(key) & mask;
+            for (; values[i] != null; i = (i + 1) & mask) {
+                if (keys[i] == key) {
+                    FunctionSymbol previous = values[i];
+                    values[i] = value;
+                    return previous;
+                }
+            }
+            keys[i] = key;
+            values[i] = value;
+            count++;
+            return null;
+        }
+
+        void clear() {
+            if (count > 0) {
+                Arrays.fill(values, null);
+                count = 0;
+            }
+        }
+
+        private void rehash(int capacity) {
+            int[] oldKeys = keys;
+            FunctionSymbol[] oldValues = values;
+            keys = new int[capacity];
+            values = new FunctionSymbol[capacity];
+            count = 0;
+            for (int i = 0; i < oldKeys.length; i++) {
+                if (oldValues[i] != null) {
+                    put(oldKeys[i], oldValues[i]);
+                }
+            }
+        }
+
+        private static int mix(int key) {
+            return key * 0x9E3779B9 >>> 16 ^ key;
+        }
+    }
+}
@@ -0,0 +1,164 @@
+package src.symbol;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Registro de firmas de funciones. Cada lista de tipos de parámetros se
+ * guarda una sola vez como int[] y todas las funciones con la misma firma
+ * comparten el mismo arreglo, que por eso no debe modificarse.
+ *
+ * Cada firma registrada recibe además un ID entero estable, de modo que
+ * comparar o indexar firmas (por ejemplo al resolver sobrecargas) se reduce
+ * a comparar enteros.
+ *
+ * El registro es global y seguro entre hilos, así que las unidades
+ * analizadas en paralelo también comparten sus firmas. Solo se registran
+ * las firmas de funciones declaradas; las formas de llamada se consultan
+ * con {@link #find}, que no agrega entradas.
+ *
+ * @author etnicst
+ */
+public final class Signatures {
+
+    /**
+     * Firma sin parámetros, compartida por todas las funciones sin
+     * argumentos y por los símbolos que no son funciones.
+     */
+    public static final int[] EMPTY = new int[0];
+
+    /**
+     * ID de la firma vacía.
+     */
+    public static final int EMPTY_ID = 0;
+
+    /**
+     * ID que devuelve {@link #find} para una firma que ninguna función
+     * declaró. No corresponde a ninguna firma registrada.
+     */
+    public static final int UNKNOWN_ID = -1;
+
+    private static final ConcurrentHashMap<Key, Key> INTERNED = new ConcurrentHashMap<>();
+
+    private static final AtomicInteger NEXT_ID = new AtomicInteger(EMPTY_ID + 1);
+
+    /**
+     * Firma registrada, que también sirve como clave de búsqueda. Las
+     * claves de búsqueda temporales apuntan al arreglo del llamador sin
+     * copiarlo y se comparan solo en sus primeros count elementos.
+     */
+    private static final class Key {
+
+        final int[] types;
+
+        final int count;
+
+        final int hash;
+
+        final int id;
+
+        Key(int[] types, int count, int id) {
+            this.types = types;
+            this.count = count;
+            this.id = id;
+            int h = 1;
+            for (int i = 0; i < count; i++) {
+                h = 31 * h + types[i];
+            }
+            this.hash = h;
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (!(o instanceof Key)) {
+                return false;
+            }
+            Key other = (Key) o;
+            return Arrays.equals(types, 0, count, other.types, 0, other.count);
+        }
+    }
+
+    static {
+        Key empty = new Key(EMPTY, 0, EMPTY_ID);
+        INTERNED.put(empty, empty);
+    }
+
+    private Signatures() {
+    }
+
+    /**
+     * Obtiene la firma compartida con los tipos indicados.
+     *
+     * @param types Tipos de los parámetros
+     * @param count Número de tipos válidos en types
+     * @return Arreglo compartido con la firma
+     */
+    public static int[] intern(int[] types, int count) {
+        return count == 0 ? EMPTY : register(types, count).types;
+    }
+
+    /**
+     * Obtiene el ID de la firma con los tipos indicados, registrándola si
+     * aún no existe. Dos firmas tienen el mismo ID si y solo si tienen los
+     * mismos tipos en el mismo orden.
+     *
+     * @param types Tipos de los parámetros
+     * @param count Número de tipos válidos en types
+     * @return ID de la firma
+     */
+    public static int idOf(int[] types, int count) {
+        return count == 0 ? EMPTY_ID : register(types, count).id;
+    }
+
+    /**
+     * Busca el ID de una firma sin registrarla. Sirve para las formas de
+     * llamada al resolver sobrecargas: una firma que no se registró no
+     * puede coincidir exactamente con ninguna función declarada.
+     *
+     * @param types Tipos de los parámetros
+     * @param count Número de tipos válidos en types
+     * @return ID de la firma, o {@link #UNKNOWN_ID} si no está registrada
+     */
+    public static int find(int[] types, int count) {
+        if (count == 0) {
+            return EMPTY_ID;
+        }
+        Key found = INTERNED.get(new Key(types, count, UNKNOWN_ID));
+        return found != null ? found.id : UNKNOWN_ID;
+    }
+
+    /**
+     * Obtiene la firma compartida con los tipos de una lista.
+     *
+     * @param types Tipos de los parámetros
+     * @return Arreglo compartido con la firma
+     */
+    public static int[] intern(List<Integer> types) {
+        int[] array = new int[types.size()];
+        for (int i = 0; i < array.length; i++) {
+            array[i] = types.get(i);
+        }
+        return intern(array, array.length);
+    }
+
+    /**
+     * Busca una firma registrada y la registra si no existe. La búsqueda no
+     * copia el arreglo; solo se copia al registrar una firma nueva.
+     */
+    private static Key register(int[] types, int count) {
+        Key found = INTERNED.get(new Key(types, count, -1));
+        if (found != null) {
+            return found;
+        }
+        Key key = new Key(Arrays.copyOf(types, count), count, NEXT_ID.getAndIncrement());
+        Key existing = INTERNED.putIfAbsent(key, key);
+        return existing != null ? existing : key;
+    }
+}
@@ -5,6 +5,8 @@ public interface Symbol {
     int getDir();
     int getType();
     String getCat();
+    SymbolCategory getCategory();
+    int[] getSignature();
     ArrayList<Integer> getArgs();
 }
 
@@ -0,0 +1,52 @@
+package src.symbol;
+
+/**
+ * Categorías de símbolo. Cada símbolo guarda una de estas constantes en
+ * lugar de una cadena; la etiqueta es el texto con el que la categoría se
+ * muestra y se guarda en las instantáneas.
+ *
+ * @author etnicst
+ */
+public enum SymbolCategory {
+
+    VARIABLE("Variable"),
+
+    MEMBER("Miembro"),
+
+    FUNCTION("function"),
+
+    STRUCT("struct");
+
+    private static final SymbolCategory[] VALUES = values();
+
+    private final String label;
+
+    SymbolCategory(String label) {
+        this.label = label;
+    }
+
+    /**
+     * Obtiene el texto de la categoría.
+     *
+     * @return Etiqueta de la categoría
+     */
+    public String getLabel() {
+        return label;
+    }
+
+    /**
+     * Obtiene la categoría que corresponde a una etiqueta.
+     *
+     * @param label Etiqueta de la categoría
+     * @return Categoría con esa etiqueta
+     * @throws IllegalArgumentException Si la etiqueta no corresponde a ninguna categoría
+     */
+    public static SymbolCategory fromLabel(String label) {
+        for (SymbolCategory category : VALUES) {
+            if (category.label.equals(label)) {
+                return category;
+            }
+        }
+        throw new IllegalArgumentException("Categoría de símbolo desconocida: " + label);
+    }
+}
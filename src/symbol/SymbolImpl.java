@@ -5,31 +5,47 @@ import java.util.ArrayList;
 /**
  * Implementación de un símbolo que representa una variable, función o estructura
  * en el programa. Almacena información sobre su ubicación, tipo y categoría.
+ *
+ * La categoría es una constante de {@link SymbolCategory} y los símbolos que
+ * no son funciones no guardan lista de argumentos: las funciones usan la
+ * subclase {@link FunctionSymbol}, que referencia una firma compartida.
  * 
  * @author etnicst
  */
 public class SymbolImpl implements Symbol {
     
-    private int dir;
+    private final int dir;
 
-    private int type;
+    private final int type;
 
-    private String cat;
-
-    private ArrayList<Integer> args;
+    private final SymbolCategory category;
 
     /**
      * Constructor que inicializa un nuevo símbolo.
      *
+     * @param dir      Dirección o desplazamiento en memoria
+     * @param type     Identificador del tipo de datos
+     * @param category Categoría del símbolo
+     */
+    public SymbolImpl(int dir, int type, SymbolCategory category) {
+        this.dir = dir;
+        this.type = type;
+        this.category = category;
+    }
+
+    /**
+     * Constructor que inicializa un nuevo símbolo a partir de la etiqueta de
+     * su categoría. Solo se aceptan las etiquetas de {@link SymbolCategory}
+     * ("Variable", "Miembro", "function" y "struct"); el símbolo no guarda
+     * texto libre como categoría.
+     *
      * @param dir  Dirección o desplazamiento en memoria
      * @param type Identificador del tipo de datos
-     * @param cat  Categoría del símbolo
+     * @param cat  Etiqueta de la categoría del símbolo
+     * @throws IllegalArgumentException Si la etiqueta no corresponde a ninguna categoría
      */
     public SymbolImpl(int dir, int type, String cat) {
-        this.dir = dir;
-        this.type = type;
-        this.cat = cat;
-        this.args = new ArrayList<>();
+        this(dir, type, SymbolCategory.fromLabel(cat));
     }
 
     /**
@@ -53,32 +69,48 @@ public class SymbolImpl implements Symbol {
     }
 
     /**
-     * Obtiene la categoría del símbolo.
+     * Obtiene la etiqueta de la categoría del símbolo.
      *
      * @return Categoría del símbolo
      */
     @Override
     public String getCat() {
-        return cat;
+        return category.getLabel();
+    }
+
+    /**
+     * Obtiene la categoría del símbolo.
+     *
+     * @return Categoría del símbolo
+     */
+    @Override
+    public SymbolCategory getCategory() {
+        return category;
     }
 
     /**
-     * Obtiene la lista de tipos de los argumentos.
+     * Obtiene la firma del símbolo. Solo las funciones tienen parámetros.
      *
-     * @return Lista de IDs de tipos de argumentos
+     * @return Firma vacía compartida
      */
     @Override
-    public ArrayList<Integer> getArgs() {
-        return args;
+    public int[] getSignature() {
+        return Signatures.EMPTY;
     }
 
     /**
-     * Añade un nuevo tipo de argumento a la lista.
+     * Obtiene una copia de la lista de tipos de los argumentos.
      *
-     * @param typeId ID del tipo de argumento a añadir
+     * @return Lista nueva de IDs de tipos de argumentos
      */
-    public void addArgument(int typeId) {
-        args.add(typeId);
+    @Override
+    public ArrayList<Integer> getArgs() {
+        int[] signature = getSignature();
+        ArrayList<Integer> args = new ArrayList<>(signature.length);
+        for (int typeId : signature) {
+            args.add(typeId);
+        }
+        return args;
     }
 
     /**
@@ -87,6 +119,6 @@ public class SymbolImpl implements Symbol {
      * @return true si es una función, false en caso contrario
      */
     public boolean isFunction() {
-        return "function".equals(cat);
+        return category == SymbolCategory.FUNCTION;
     }
 }
\ No newline at end of file
@@ -0,0 +1,310 @@
+package src.symbol;
+
+import java.util.*;
+
+/**
+ * Mapa de símbolos con direccionamiento abierto que conserva el orden de
+ * inserción. Sigue la distribución de los diccionarios compactos: las entradas
+ * viven en arreglos densos (claves, valores y hashes) en el orden en que se
+ * declararon, y un arreglo de índices separado, mucho más pequeño, resuelve
+ * las colisiones con sondeo lineal.
+ *
+ * Reemplaza al par LinkedHashMap/HashMap de las tablas de símbolos: no crea
+ * un objeto por entrada y una búsqueda solo recorre arreglos primitivos.
+ *
+ * @author etnicst
+ */
+public final class SymbolMap extends AbstractMap<String, Symbol> {
+
+    private static final int EMPTY = -1;
+
+    private static final int MIN_INDEX_CAPACITY = 8;
+
+    private String[] keys;
+
+    private Symbol[] values;
+
+    private int[] hashes;
+
+    private int[] index;
+
+    private int size;
+
+    private EntrySet entrySet;
+
+    /**
+     * Constructor que crea un mapa vacío con capacidad por defecto.
+     */
+    public SymbolMap() {
+        this(MIN_INDEX_CAPACITY * 2 / 3);
+    }
+
+    /**
+     * Constructor que reserva espacio para un número esperado de símbolos.
+     *
+     * @param expectedSize Número de símbolos que se espera insertar
+     */
+    public SymbolMap(int expectedSize) {
+        int capacity = MIN_INDEX_CAPACITY;
+        while (capacity * 2 / 3 < expectedSize) {
+            capacity <<= 1;
+        }
+        int entries = Math.max(capacity * 2 / 3, 1);
+        this.keys = new String[entries];
+        this.values = new Symbol[entries];
+        this.hashes = new int[entries];
+        this.index = new int[capacity];
+        Arrays.fill(index, EMPTY);
+    }
+
+    /**
+     * Dispersa el hash de la cadena para que el sondeo no dependa solo de los
+     * bits bajos.
+     *
+     * @param key Clave a dispersar
+     * @return Hash dispersado
+     */
+    private static int spread(String key) {
+        int h = key.hashCode();
+        return h ^ (h >>> 16);
+    }
+
+    /**
+     * Localiza la posición de una clave en los arreglos densos.
+     *
+     * @param key  Clave a buscar
+     * @param hash Hash dispersado de la clave
+     * @return Posición de la entrada, o -1 si no existe
+     */
+    private int findEntry(String key, int hash) {
+        int mask = index.length - 1;
+        int slot = hash & mask;
+        int entry;
+        while ((entry = index[slot]) != EMPTY) {
+            if (hashes[entry] == hash && key.equals(keys[entry])) {
+                return entry;
+            }
+            slot = (slot + 1) & mask;
+        }
+        return EMPTY;
+    }
+
+    /**
+     * Obtiene el símbolo asociado a un identificador.
+     *
+     * @param key Identificador a buscar
+     * @return Símbolo asociado, o null si no existe
+     */
+    @Override
+    public Symbol get(Object key) {
+        if (!(key instanceof String)) {
+            return null;
+        }
+        String k = (String) key;
+        int entry = findEntry(k, spread(k));
+        return entry == EMPTY ? null : values[entry];
+    }
+
+    /**
+     * Verifica si el identificador está registrado en el mapa.
+     *
+     * @param key Identificador a buscar
+     * @return true si existe, false en caso contrario
+     */
+    @Override
+    public boolean containsKey(Object key) {
+        if (!(key instanceof String)) {
+            return false;
+        }
+        String k = (String) key;
+        return findEntry(k, spread(k)) != EMPTY;
+    }
+
+    /**
+     * Inserta o reemplaza un símbolo. Si la clave ya existía conserva su
+     * posición original en el orden de declaración.
+     *
+     * @param key   Identificador del símbolo
+     * @param value Símbolo a insertar
+     * @return Símbolo anterior, o null si no existía
+     */
+    @Override
+    public Symbol put(String key, Symbol value) {
+        Objects.requireNonNull(key);
+        int hash = spread(key);
+        int mask = index.length - 1;
+        int slot = hash & mask;
+        int entry;
+        while ((entry = index[slot]) != EMPTY) {
+            if (hashes[entry] == hash && key.equals(keys[entry])) {
+                Symbol old = values[entry];
+                values[entry] = value;
+                return old;
+            }
+            slot = (slot + 1) & mask;
+        }
+
+        if (size == keys.length) {
+            growEntries();
+        }
+        keys[size] = key;
+        values[size] = value;
+        hashes[size] = hash;
+        index[slot] = size;
+        size++;
+
+        if (size * 3 > index.length * 2) {
+            rebuildIndex(index.length << 1);
+        }
+        return null;
+    }
+
+    /**
+     * Aumenta la capacidad de los arreglos densos de entradas.
+     */
+    private void growEntries() {
+        int capacity = keys.length + (keys.length >> 1) + 1;
+        keys = Arrays.copyOf(keys, capacity);
+        values = Arrays.copyOf(values, capacity);
+        hashes = Arrays.copyOf(hashes, capacity);
+    }
+
+    /**
+     * Reconstruye el arreglo de índices con una nueva capacidad. Solo recorre
+     * los hashes almacenados; no vuelve a calcular el hash de ninguna clave.
+     *
+     * @param capacity Nueva capacidad, potencia de dos
+     */
+    private void rebuildIndex(int capacity) {
+        int[] newIndex = new int[capacity];
+        Arrays.fill(newIndex, EMPTY);
+        int mask = capacity - 1;
+        for (int i = 0; i < size; i++) {
+            int slot = hashes[i] & mask;
+            while (newIndex[slot] != EMPTY) {
+                slot = (slot + 1) & mask;
+            }
+            newIndex[slot] = i;
+        }
+        index = newIndex;
+    }
+
+    /**
+     * Obtiene el número de símbolos almacenados.
+     *
+     * @return Número de símbolos
+     */
+    @Override
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Descarta las entradas a partir de una posición del orden de
+     * declaración, empezando por la última. Cada entrada se saca del arreglo
+     * de índices desplazando hacia atrás las que la seguían en su secuencia
+     * de sondeo, así que el costo depende solo de las entradas descartadas.
+     *
+     * @param newSize Número de entradas que se conservan
+     */
+    public void truncate(int newSize) {
+        int mask = index.length - 1;
+        while (size > newSize) {
+            int entry = --size;
+            int slot = hashes[entry] & mask;
+            while (index[slot] != entry) {
+                slot = (slot + 1) & mask;
+            }
+            int hole = slot;
+            for (int next = (hole + 1) & mask; index[next] != EMPTY; next = (next + 1) & mask) {
+                int home = hashes[index[next]] & mask;
+                if (((next - home) & mask) >= ((next - hole) & mask)) {
+                    index[hole] = index[next];
+                    hole = next;
+                }
+            }
+            index[hole] = EMPTY;
+            keys[entry] = null;
+            values[entry] = null;
+        }
+    }
+
+    /**
+     * Elimina todos los símbolos del mapa conservando la capacidad reservada.
+     */
+    @Override
+    public void clear() {
+        Arrays.fill(keys, 0, size, null);
+        Arrays.fill(values, 0, size, null);
+        Arrays.fill(index, EMPTY);
+        size = 0;
+    }
+
+    /**
+     * Obtiene la clave almacenada en una posición del orden de declaración.
+     *
+     * @param position Posición de la entrada
+     * @return Identificador en esa posición
+     */
+    public String keyAt(int position) {
+        Objects.checkIndex(position, size);
+        return keys[position];
+    }
+
+    /**
+     * Obtiene el símbolo almacenado en una posición del orden de declaración.
+     *
+     * @param position Posición de la entrada
+     * @return Símbolo en esa posición
+     */
+    public Symbol valueAt(int position) {
+        Objects.checkIndex(position, size);
+        return values[position];
+    }
+
+    /**
+     * Vista de las entradas en orden de declaración. Las entradas se crean al
+     * recorrer la vista y no se guardan en el mapa.
+     *
+     * @return Conjunto de entradas del mapa
+     */
+    @Override
+    public Set<Map.Entry<String, Symbol>> entrySet() {
+        if (entrySet == null) {
+            entrySet = new EntrySet();
+        }
+        return entrySet;
+    }
+
+    /**
+     * Vista de solo lectura de las entradas del mapa.
+     */
+    private final class EntrySet extends AbstractSet<Map.Entry<String, Symbol>> {
+
+        @Override
+        public int size() {
+            return size;
+        }
+
+        @Override
+        public Iterator<Map.Entry<String, Symbol>> iterator() {
+            return new Iterator<Map.Entry<String, Symbol>>() {
+                private int next = 0;
+
+                @Override
+                public boolean hasNext() {
+                    return next < size;
+                }
+
+                @Override
+                public Map.Entry<String, Symbol> next() {
+                    if (next >= size) {
+                        throw new NoSuchElementException();
+                    }
+                    int i = next++;
+                    return new SimpleImmutableEntry<>(keys[i], values[i]);
+                }
+            };
+        }
+    }
+}
@@ -8,6 +8,8 @@ public interface SymbolTable {
     void insert(String id, Symbol sym);
     Map<String, Symbol> getSymbols();
     void insertFunction(String id, int returnType, List<Integer> paramTypes);
+    Optional<Symbol> resolveFunction(String name, int[] argTypes);
+    Optional<Symbol> resolveFunction(String name, int[] argTypes, int signatureId);
     int getCurrentOffset();
     void insertStruct(String name, int typeId);
 }
@@ -1,6 +1,7 @@
 package src.symbol;
 
 import java.util.*;
+import java.util.function.BiConsumer;
 import src.type.TypeTable;
 
 /**
@@ -11,9 +12,9 @@ import src.type.TypeTable;
  */
 public class SymbolTableImpl implements SymbolTable {
     
-    private Map<String, List<Symbol>> symbolsByName;
+    private SymbolMap symbols;
 
-    private Map<String, Symbol> symbols = new LinkedHashMap<>();
+    private Map<String, Symbol> view;
 
     private SymbolTable parent;
 
@@ -21,6 +22,83 @@ public class SymbolTableImpl implements SymbolTable {
 
     private TypeTable typeTable;
 
+    private List<BiConsumer<String, Symbol>> insertListeners;
+
+    private Map<String, OverloadSet> overloads;
+
+    private String[] journalKeys;
+
+    private Symbol[] journalPrevious;
+
+    private Symbol[] journalValues;
+
+    private int journalSize;
+
+    /**
+     * Estado de la tabla en un momento del análisis, al que se puede volver
+     * con {@link #rollback(Mark)}.
+     */
+    public static final class Mark {
+
+        final int size;
+
+        final int offset;
+
+        final int journal;
+
+        Mark(int size, int offset, int journal) {
+            this.size = size;
+            this.offset = offset;
+            this.journal = journal;
+        }
+
+        /**
+         * Obtiene el desplazamiento que tenía la tabla.
+         *
+         * @return Desplazamiento en bytes
+         */
+        public int getOffset() {
+            return offset;
+        }
+    }
+
+    /**
+     * Inserciones registradas entre dos marcas, en el orden en que se
+     * hicieron, para aplicarlas de nuevo sin repetir el análisis.
+     */
+    public static final class Changes {
+
+        private final String[] keys;
+
+        private final Symbol[] values;
+
+        private final boolean[] added;
+
+        private final int offsetDelta;
+
+        Changes(String[] keys, Symbol[] values, boolean[] added, int offsetDelta) {
+            this.keys = keys;
+            this.values = values;
+            this.added = added;
+            this.offsetDelta = offsetDelta;
+        }
+
+        /**
+         * Agrega a una lista los identificadores que el tramo insertó por
+         * primera vez, en orden. Son los que determinan la posición de las
+         * inserciones posteriores.
+         *
+         * @param out Lista que recibe los identificadores
+         */
+        public void collectAddedKeys(List<String> out) {
+            for (int i = 0; i < keys.length; i++) {
+                if (added[i]) {
+                    out.add(keys[i]);
+                }
+            }
+        }
+    }
+
     /**
      * Constructor que inicializa una tabla de símbolos con una tabla de tipos
      * y una referencia opcional a una tabla padre.
@@ -29,8 +107,8 @@ public class SymbolTableImpl implements SymbolTable {
      * @param parent    Tabla de símbolos padre (null si es ámbito global)
      */
     public SymbolTableImpl(TypeTable typeTable, SymbolTable parent) {
-        this.symbolsByName = new HashMap<>();
-        this.symbols = new LinkedHashMap<>();
+        this.symbols = new SymbolMap();
+        this.view = Collections.unmodifiableMap(symbols);
         this.parent = parent;
         this.currentOffset = 0;
         this.typeTable = typeTable;
@@ -68,18 +146,26 @@ public class SymbolTableImpl implements SymbolTable {
      */
     @Override
     public void insert(String id, Symbol sym) {
-        symbols.put(id, sym);
-        currentOffset += calculateSize(sym);
+        int size = calculateSize(sym);
+        if (currentOffset > Integer.MAX_VALUE - size) {
+            throw new IllegalStateException("Declarar " + id + " excede el rango de direcciones de un ámbito");
+        }
+        put(id, sym);
+        currentOffset += size;
+        notifyInsert(id, sym);
     }
 
     /**
-     * Obtiene todos los símbolos de la tabla.
+     * Obtiene todos los símbolos de la tabla en orden de declaración. La
+     * vista es de solo lectura: los cambios deben pasar por la tabla para
+     * que queden en el registro de deshacer, en los conjuntos de sobrecargas
+     * y en las pilas de ámbitos que la tienen apilada.
      *
-     * @return Mapa de símbolos
+     * @return Vista inmodificable de los símbolos
      */
     @Override
     public Map<String, Symbol> getSymbols() {
-        return symbols;
+        return view;
     }
 
     /**
@@ -91,15 +177,22 @@ public class SymbolTableImpl implements SymbolTable {
     private int calculateSize(Symbol sym) {
         int typeId = sym.getType();
 
-        if (sym.getCat().equals("function")) {
+        if (sym.getCategory() == SymbolCategory.FUNCTION) {
             return 4;
         }
 
-        return typeTable.getTam(typeId);
+        long size = typeTable.getTam(typeId);
+        if (size > Integer.MAX_VALUE) {
+            throw new IllegalStateException("El tamaño de " + typeTable.getName(typeId)
+                    + " excede el rango de direcciones de un ámbito");
+        }
+        return (int) size;
     }
 
     /**
-     * Inserta una función en la tabla con soporte para sobrecarga.
+     * Inserta una función en la tabla con soporte para sobrecarga. Cada
+     * sobrecarga se registra bajo su identificador único para listarla y
+     * en el conjunto de sobrecargas de su nombre para resolver llamadas.
      *
      * @param id         Nombre de la función
      * @param returnType Tipo de retorno
@@ -107,11 +200,75 @@ public class SymbolTableImpl implements SymbolTable {
      */
     @Override
     public void insertFunction(String id, int returnType, List<Integer> paramTypes) {
-        SymbolImpl sym = new SymbolImpl(currentOffset, returnType, "function");
-        paramTypes.forEach(sym::addArgument);
+        SymbolImpl sym = new FunctionSymbol(currentOffset, returnType, Signatures.intern(paramTypes));
+
+        String uniqueId = generateUniqueFunctionId(id, paramTypes);
+        put(uniqueId, sym);
+        addOverload(id, (FunctionSymbol) sym);
+        notifyInsert(uniqueId, sym);
+    }
 
-        symbolsByName.computeIfAbsent(id, k -> new ArrayList<>()).add(sym);
-        symbols.put(generateUniqueFunctionId(id, paramTypes), sym);
+    /**
+     * Resuelve una llamada a una función sobrecargada a partir de los tipos
+     * de sus argumentos.
+     *
+     * @param name     Nombre de la función
+     * @param argTypes IDs de los tipos de los argumentos
+     * @return Optional con la sobrecarga elegida
+     * @throws IllegalStateException Si la llamada es ambigua
+     */
+    @Override
+    public Optional<Symbol> resolveFunction(String name, int[] argTypes) {
+        return resolveFunction(name, argTypes, Signatures.find(argTypes, argTypes.length));
+    }
+
+    /**
+     * Resuelve una llamada cuya firma de argumentos ya tiene ID, evitando
+     * volver a calcularlo en cada llamada. Las sobrecargas de esta tabla
+     * ocultan a las del mismo nombre en las tablas padre.
+     *
+     * @param name        Nombre de la función
+     * @param argTypes    IDs de los tipos de los argumentos
+     * @param signatureId ID de la firma de argTypes según {@link Signatures#find}
+     * @return Optional con la sobrecarga elegida
+     * @throws IllegalStateException Si la llamada es ambigua
+     */
+    @Override
+    public Optional<Symbol> resolveFunction(String name, int[] argTypes, int signatureId) {
+        OverloadSet set = overloads != null ? overloads.get(name) : null;
+        if (set != null) {
+            return Optional.ofNullable(set.resolve(argTypes, signatureId));
+        }
+        return parent != null ? parent.resolveFunction(name, argTypes, signatureId) : Optional.empty();
+    }
+
+    /**
+     * Registra una función en el conjunto de sobrecargas de su nombre.
+     *
+     * @param name     Nombre de la función
+     * @param function Símbolo de la función
+     */
+    private void addOverload(String name, FunctionSymbol function) {
+        if (overloads == null) {
+            overloads = new HashMap<>();
+        }
+        overloads.computeIfAbsent(name, OverloadSet::new).add(function);
+    }
+
+    /**
+     * Recupera el nombre de una función a partir de su identificador único,
+     * quitando un sufijo por cada parámetro de la firma.
+     *
+     * @param uniqueId   Identificador único de la función
+     * @param paramCount Número de parámetros
+     * @return Nombre de la función
+     */
+    private static String baseFunctionName(String uniqueId, int paramCount) {
+        int end = uniqueId.length();
+        for (int i = 0; i < paramCount && end > 0; i++) {
+            end = uniqueId.lastIndexOf('_', end - 1);
+        }
+        return end > 0 ? uniqueId.substring(0, end) : uniqueId;
     }
 
     /**
@@ -122,7 +279,7 @@ public class SymbolTableImpl implements SymbolTable {
      * @param paramTypes Lista de tipos de parámetros
      * @return Identificador único
      */
-    private String generateUniqueFunctionId(String baseName, List<Integer> paramTypes) {
+    static String generateUniqueFunctionId(String baseName, List<Integer> paramTypes) {
         StringBuilder sb = new StringBuilder(baseName);
         for (Integer param : paramTypes) {
             sb.append("_").append(param);
@@ -137,8 +294,49 @@ public class SymbolTableImpl implements SymbolTable {
      * @param typeId ID del tipo de la estructura
      */
     public void insertStruct(String id, int typeId) {
-        SymbolImpl sym = new SymbolImpl(currentOffset, typeId, "struct");
-        symbols.put(id, sym);
+        SymbolImpl sym = new SymbolImpl(currentOffset, typeId, SymbolCategory.STRUCT);
+        put(id, sym);
+        notifyInsert(id, sym);
+    }
+
+    /**
+     * Registra un observador que se invoca después de cada inserción.
+     * Lo utiliza la pila de ámbitos para mantener su entorno actualizado
+     * mientras la tabla está apilada.
+     *
+     * @param listener Observador a registrar
+     */
+    void addInsertListener(BiConsumer<String, Symbol> listener) {
+        if (insertListeners == null) {
+            insertListeners = new ArrayList<>(1);
+        }
+        insertListeners.add(listener);
+    }
+
+    /**
+     * Elimina un observador de inserciones registrado previamente.
+     *
+     * @param listener Observador a eliminar
+     */
+    void removeInsertListener(BiConsumer<String, Symbol> listener) {
+        if (insertListeners != null) {
+            insertListeners.remove(listener);
+        }
+    }
+
+    /**
+     * Notifica a los observadores registrados que se insertó un símbolo.
+     *
+     * @param id  Identificador insertado
+     * @param sym Símbolo insertado
+     */
+    private void notifyInsert(String id, Symbol sym) {
+        if (insertListeners == null) {
+            return;
+        }
+        for (int i = 0; i < insertListeners.size(); i++) {
+            insertListeners.get(i).accept(id, sym);
+        }
     }
 
     /**
@@ -150,4 +348,157 @@ public class SymbolTableImpl implements SymbolTable {
     public int getCurrentOffset() {
         return currentOffset;
     }
-}
\ No newline at end of file
+
+    /**
+     * Obtiene la tabla padre en la que continúan las búsquedas.
+     *
+     * @return Tabla padre, o null si no tiene
+     */
+    public SymbolTable getParent() {
+        return parent;
+    }
+
+    /**
+     * Inserta un símbolo tal como se guardó, sin recalcular el
+     * desplazamiento ni generar identificadores. Lo usa la carga de
+     * instantáneas.
+     *
+     * @param id  Identificador del símbolo
+     * @param sym Símbolo con su dirección original
+     */
+    public void restore(String id, Symbol sym) {
+        put(id, sym);
+        if (sym instanceof FunctionSymbol) {
+            FunctionSymbol function = (FunctionSymbol) sym;
+            addOverload(baseFunctionName(id, function.getSignature().length), function);
+        }
+        notifyInsert(id, sym);
+    }
+
+    /**
+     * Marca el estado actual de la tabla. Desde la primera marca la tabla
+     * registra cada inserción, de modo que después puede deshacer las
+     * posteriores a una marca o extraerlas para aplicarlas de nuevo.
+     *
+     * @return Marca del estado actual
+     */
+    public Mark mark() {
+        if (journalKeys == null) {
+            journalKeys = new String[16];
+            journalPrevious = new Symbol[16];
+            journalValues = new Symbol[16];
+        }
+        return new Mark(symbols.size(), currentOffset, journalSize);
+    }
+
+    /**
+     * Deshace todas las inserciones posteriores a una marca, en orden
+     * inverso: los identificadores nuevos se eliminan y los reemplazados
+     * recuperan su símbolo anterior.
+     *
+     * @param mark Marca obtenida de esta tabla
+     */
+    public void rollback(Mark mark) {
+        for (int i = journalSize - 1; i >= mark.journal; i--) {
+            String id = journalKeys[i];
+            Symbol previous = journalPrevious[i];
+            removeOverload(id, journalValues[i]);
+            if (previous != null) {
+                symbols.put(id, previous);
+                if (previous instanceof FunctionSymbol) {
+                    addOverload(baseFunctionName(id, previous.getSignature().length), (FunctionSymbol) previous);
+                }
+            } else {
+                symbols.truncate(symbols.size() - 1);
+            }
+            journalKeys[i] = null;
+            journalPrevious[i] = null;
+            journalValues[i] = null;
+        }
+        journalSize = mark.journal;
+        currentOffset = mark.offset;
+    }
+
+    /**
+     * Extrae las inserciones hechas entre dos marcas de esta tabla.
+     *
+     * @param from Marca inicial
+     * @param to   Marca final
+     * @return Inserciones del tramo en orden
+     */
+    public Changes changesBetween(Mark from, Mark to) {
+        int count = to.journal - from.journal;
+        boolean[] added = new boolean[count];
+        for (int i = 0; i < count; i++) {
+            added[i] = journalPrevious[from.journal + i] == null;
+        }
+        return new Changes(
+                Arrays.copyOfRange(journalKeys, from.journal, to.journal),
+                Arrays.copyOfRange(journalValues, from.journal, to.journal),
+                added, to.offset - from.offset);
+    }
+
+    /**
+     * Aplica inserciones extraídas con {@link #changesBetween(Mark, Mark)}
+     * sin recalcular desplazamientos: los símbolos conservan su dirección y
+     * el desplazamiento actual avanza lo mismo que en el tramo original.
+     *
+     * @param changes Inserciones a aplicar
+     */
+    public void apply(Changes changes) {
+        for (int i = 0; i < changes.keys.length; i++) {
+            restore(changes.keys[i], changes.values[i]);
+        }
+        currentOffset = Math.addExact(currentOffset, changes.offsetDelta);
+    }
+
+    /**
+     * Guarda un símbolo en el mapa y, si la tabla tiene marcas, registra la
+     * inserción para poder deshacerla.
+     *
+     * @param id  Identificador del símbolo
+     * @param sym Símbolo a guardar
+     */
+    private void put(String id, Symbol sym) {
+        Symbol previous = symbols.put(id, sym);
+        if (journalKeys == null) {
+            return;
+        }
+        if (journalSize == journalKeys.length) {
+            int capacity = journalSize << 1;
+            journalKeys = Arrays.copyOf(journalKeys, capacity);
+            journalPrevious = Arrays.copyOf(journalPrevious, capacity);
+            journalValues = Arrays.copyOf(journalValues, capacity);
+        }
+        journalKeys[journalSize] = id;
+        journalPrevious[journalSize] = previous;
+        journalValues[journalSize] = sym;
+        journalSize++;
+    }
+
+    /**
+     * Quita una función del conjunto de sobrecargas de su nombre.
+     *
+     * @param id  Identificador único de la función
+     * @param sym Símbolo guardado bajo ese identificador
+     */
+    private void removeOverload(String id, Symbol sym) {
+        if (!(sym instanceof FunctionSymbol) || overloads == null) {
+            return;
+        }
+        String name = baseFunctionName(id, sym.getSignature().length);
+        OverloadSet set = overloads.get(name);
+        if (set != null && set.remove((FunctionSymbol) sym)) {
+            overloads.remove(name);
+        }
+    }
+
+    /**
+     * Restablece el desplazamiento actual guardado en una instantánea.
+     *
+     * @param offset Desplazamiento en bytes
+     */
+    public void setCurrentOffset(int offset) {
+        this.currentOffset = offset;
+    }
+}
\ No newline at end of file
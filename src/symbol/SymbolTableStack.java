@@ -1,4 +1,5 @@
 package src.symbol;
+import java.util.List;
 import java.util.Optional;
 
 public interface SymbolTableStack{
@@ -7,5 +8,6 @@ public interface SymbolTableStack{
     Optional<SymbolTable> peek();
     Optional<SymbolTable> base();
     Optional<SymbolTable> lookup(String id);
+    List<SymbolTable> getTables();
 
 }
\ No newline at end of file
@@ -1,37 +1,138 @@
 package src.symbol;
 
 import java.util.*;
+import java.util.function.BiConsumer;
 
 /**
  * Implementación de pila de tablas de símbolos, gestiona la jerarquía de ámbitos.
  * Esta clase mantiene una pila donde la cima representa el ámbito actual y
  * la base representa el ámbito global.
- * 
+ *
+ * Las búsquedas se resuelven con un único entorno: una tabla hash que asocia
+ * cada identificador con su cadena de declaraciones, donde la primera es la
+ * visible y las siguientes son las que oculta. Cada ámbito guarda la lista de
+ * identificadores que enlazó para deshacerlos al desapilarse, de modo que
+ * push y pop cuestan O(k) en el número de símbolos del ámbito y lookup es
+ * O(1) sin importar la profundidad del anidamiento.
+ *
+ * Solo SymbolTableImpl avisa de sus inserciones. Las tablas de otras
+ * implementaciones, como una ConcurrentSymbolTable que otros hilos siguen
+ * llenando, se consultan directamente en lookup cuando el entorno no tiene
+ * un enlace en un ámbito más interno.
+ *
  * @author etnicst
  */
 public class SymbolTableStackImpl implements SymbolTableStack {
 
-    private Stack<SymbolTable> stack;
+    private Stack<Scope> stack;
+
+    private Map<String, Binding> environment;
+
+    private List<Scope> bindLog;
+
+    private List<String> bindLogIds;
+
+    private List<Scope> unobserved;
+
+    /**
+     * Estado de la pila en un momento del análisis, al que se puede volver
+     * con {@link #rollback(Mark)}.
+     */
+    public static final class Mark {
+
+        final int depth;
+
+        final int binds;
+
+        Mark(int depth, int binds) {
+            this.depth = depth;
+            this.binds = binds;
+        }
+
+        /**
+         * Obtiene el número de tablas que había apiladas.
+         *
+         * @return Profundidad de la pila
+         */
+        public int getDepth() {
+            return depth;
+        }
+    }
+
+    /**
+     * Enlace de un identificador con la tabla que lo declara. Forma una
+     * cadena con los enlaces que oculta en ámbitos exteriores.
+     */
+    private static final class Binding {
+
+        final SymbolTable table;
+
+        final int depth;
+
+        Binding shadowed;
+
+        Binding(SymbolTable table, int depth, Binding shadowed) {
+            this.table = table;
+            this.depth = depth;
+            this.shadowed = shadowed;
+        }
+    }
+
+    /**
+     * Ámbito apilado junto con su lista de deshacer.
+     */
+    private final class Scope {
+
+        final SymbolTable table;
+
+        final int depth;
+
+        final List<String> undo = new ArrayList<>();
+
+        final BiConsumer<String, Symbol> listener = (id, sym) -> bind(this, id);
+
+        Scope(SymbolTable table, int depth) {
+            this.table = table;
+            this.depth = depth;
+        }
+    }
 
     /**
      * Constructor que crea una nueva pila de tablas de símbolos vacía.
      */
     public SymbolTableStackImpl() {
         this.stack = new Stack<>();
+        this.environment = new HashMap<>();
     }
 
     /**
-     * Empuja una nueva tabla de símbolos en la cima de la pila.
+     * Empuja una nueva tabla de símbolos en la cima de la pila y enlaza sus
+     * identificadores en el entorno. Si la tabla es una SymbolTableImpl, las
+     * inserciones posteriores se enlazan también mientras siga apilada.
      *
      * @param table La tabla de símbolos a insertar en la pila
      */
     @Override
     public void push(SymbolTable table) {
-        stack.push(table);
+        Scope scope = new Scope(table, stack.size());
+        stack.push(scope);
+
+        for (String id : table.getSymbols().keySet()) {
+            bind(scope, id);
+        }
+        if (table instanceof SymbolTableImpl) {
+            ((SymbolTableImpl) table).addInsertListener(scope.listener);
+        } else {
+            if (unobserved == null) {
+                unobserved = new ArrayList<>();
+            }
+            unobserved.add(scope);
+        }
     }
 
     /**
-     * Elimina y devuelve la tabla de símbolos en la cima de la pila.
+     * Elimina y devuelve la tabla de símbolos en la cima de la pila,
+     * restaurando los enlaces que sus identificadores ocultaban.
      *
      * @return La tabla de símbolos eliminada, o null si la pila está vacía
      */
@@ -39,7 +140,121 @@ public class SymbolTableStackImpl implements SymbolTableStack {
     public SymbolTable pop() {
         if (stack.isEmpty())
             return null;
-        return stack.pop();
+
+        Scope scope = stack.pop();
+        if (scope.table instanceof SymbolTableImpl) {
+            ((SymbolTableImpl) scope.table).removeInsertListener(scope.listener);
+        } else {
+            unobserved.remove(unobserved.size() - 1);
+        }
+        for (int i = scope.undo.size() - 1; i >= 0; i--) {
+            String id = scope.undo.get(i);
+            Binding binding = environment.get(id);
+            if (binding.shadowed == null) {
+                environment.remove(id);
+            } else {
+                environment.put(id, binding.shadowed);
+            }
+        }
+        return scope.table;
+    }
+
+    /**
+     * Enlaza un identificador con el ámbito indicado. Si ya estaba enlazado
+     * en ese mismo ámbito no se modifica la cadena. Cuando la declaración
+     * llega a un ámbito exterior mientras uno interior sigue apilado, el
+     * enlace se coloca debajo de los que lo ocultan.
+     *
+     * @param scope Ámbito que declara el identificador
+     * @param id    Identificador a enlazar
+     */
+    private void bind(Scope scope, String id) {
+        Binding current = environment.get(id);
+        if (current == null || current.depth < scope.depth) {
+            environment.put(id, new Binding(scope.table, scope.depth, current));
+            recordBind(scope, id);
+            return;
+        }
+
+        Binding inner = current;
+        while (inner.depth > scope.depth && inner.shadowed != null
+                && inner.shadowed.depth >= scope.depth) {
+            inner = inner.shadowed;
+        }
+        if (inner.depth == scope.depth) {
+            return;
+        }
+        inner.shadowed = new Binding(scope.table, scope.depth, inner.shadowed);
+        recordBind(scope, id);
+    }
+
+    /**
+     * Agrega un enlace nuevo a la lista de deshacer del ámbito y, si la pila
+     * tiene marcas, al registro de enlaces.
+     */
+    private void recordBind(Scope scope, String id) {
+        scope.undo.add(id);
+        if (bindLog != null) {
+            bindLog.add(scope);
+            bindLogIds.add(id);
+        }
+    }
+
+    /**
+     * Marca el estado actual de la pila. Desde la primera marca la pila
+     * registra cada enlace nuevo, para poder deshacer también las
+     * inserciones que lleguen a tablas que siguen apiladas.
+     *
+     * @return Marca del estado actual
+     */
+    public Mark mark() {
+        if (bindLog == null) {
+            bindLog = new ArrayList<>();
+            bindLogIds = new ArrayList<>();
+        }
+        return new Mark(stack.size(), bindLog.size());
+    }
+
+    /**
+     * Vuelve al estado de una marca: desapila las tablas apiladas después
+     * de ella y deshace los enlaces que las inserciones posteriores crearon
+     * en las tablas que quedan.
+     *
+     * @param mark Marca obtenida de esta pila
+     */
+    public void rollback(Mark mark) {
+        while (stack.size() > mark.depth) {
+            pop();
+        }
+        for (int i = bindLog.size() - 1; i >= mark.binds; i--) {
+            Scope scope = bindLog.remove(i);
+            String id = bindLogIds.remove(i);
+            if (scope.depth < stack.size() && stack.get(scope.depth) == scope) {
+                unbind(scope, id);
+            }
+        }
+    }
+
+    /**
+     * Quita del entorno el enlace de un identificador con un ámbito que
+     * sigue apilado. El enlace es el último de la lista de deshacer del
+     * ámbito.
+     */
+    private void unbind(Scope scope, String id) {
+        scope.undo.remove(scope.undo.size() - 1);
+        Binding binding = environment.get(id);
+        if (binding.table == scope.table && binding.depth == scope.depth) {
+            if (binding.shadowed == null) {
+                environment.remove(id);
+            } else {
+                environment.put(id, binding.shadowed);
+            }
+            return;
+        }
+        while (binding.shadowed.depth != scope.depth) {
+            binding = binding.shadowed;
+        }
+        binding.shadowed = binding.shadowed.shadowed;
     }
 
     /**
@@ -52,7 +267,7 @@ public class SymbolTableStackImpl implements SymbolTableStack {
     public Optional<SymbolTable> peek() {
         if (stack.isEmpty())
             return Optional.empty();
-        return Optional.of(stack.peek());
+        return Optional.of(stack.peek().table);
     }
 
     /**
@@ -65,13 +280,16 @@ public class SymbolTableStackImpl implements SymbolTableStack {
     public Optional<SymbolTable> base() {
         if (stack.isEmpty())
             return Optional.empty();
-        return Optional.of(stack.firstElement());
+        return Optional.of(stack.firstElement().table);
     }
 
     /**
-     * Busca un símbolo por identificador en el ámbito actual y en el ámbito global. 
-     * Implementa las reglas de ámbito donde las declaraciones locales ocultan las
-     * declaraciones globales.
+     * Busca un símbolo por identificador en todos los ámbitos apilados.
+     * Implementa las reglas de ámbito donde las declaraciones más internas
+     * ocultan a las de los ámbitos que las contienen. Las tablas apiladas
+     * que no avisan de sus inserciones y son más internas que el enlace
+     * encontrado se consultan directamente, para ver también lo que se les
+     * insertó después de apilarlas.
      *
      * @param id El identificador a buscar
      * @return Un Optional conteniendo la tabla de símbolos con el identificador,
@@ -79,19 +297,33 @@ public class SymbolTableStackImpl implements SymbolTableStack {
      */
     @Override
     public Optional<SymbolTable> lookup(String id) {
-        if (stack.isEmpty())
-            return Optional.empty();
-
-        Optional<Symbol> symbol = stack.peek().lookup(id);
-        if (symbol.isPresent()) {
-            return Optional.of(stack.peek());
+        Binding binding = environment.get(id);
+        if (unobserved != null) {
+            int depth = binding != null ? binding.depth : -1;
+            for (int i = unobserved.size() - 1; i >= 0 && unobserved.get(i).depth > depth; i--) {
+                SymbolTable table = unobserved.get(i).table;
+                if (table.getSymbols().containsKey(id)) {
+                    return Optional.of(table);
+                }
+            }
         }
+        if (binding == null)
+            return Optional.empty();
+        return Optional.of(binding.table);
+    }
 
-        symbol = stack.firstElement().lookup(id);
-        if (symbol.isPresent()) {
-            return Optional.of(stack.firstElement());
+    /**
+     * Devuelve las tablas apiladas desde la base (ámbito global) hasta la
+     * cima.
+     *
+     * @return Lista inmodificable de las tablas apiladas
+     */
+    @Override
+    public List<SymbolTable> getTables() {
+        List<SymbolTable> tables = new ArrayList<>(stack.size());
+        for (Scope scope : stack) {
+            tables.add(scope.table);
         }
-
-        return Optional.empty();
+        return Collections.unmodifiableList(tables);
     }
-}
\ No newline at end of file
+}
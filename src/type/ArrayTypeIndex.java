@@ -0,0 +1,266 @@
+package src.type;
+
+import java.util.Arrays;
+
+/**
+ * Índice estructural de tipos array. Identifica cada array por su tipo base
+ * y su vector de dimensiones, sin construir nombres como int[10][20].
+ *
+ * Todas las claves se guardan en arreglos primitivos: las dimensiones de
+ * todas las entradas comparten un mismo arreglo y la tabla de dispersión
+ * usa direccionamiento abierto. Una búsqueda que encuentra la forma no
+ * reserva memoria.
+ *
+ * @author steve-quezada
+ */
+final class ArrayTypeIndex {
+
+    private static final int EMPTY = -1;
+
+    private int[] slots;
+
+    private int[] entryBase;
+
+    private int[] entryHash;
+
+    private int[] entryDimOffset;
+
+    private int[] entryDimCount;
+
+    private int[] entryTypeId;
+
+    private int[] dimPool;
+
+    private int entries;
+
+    private int poolSize;
+
+    /**
+     * Constructor que crea un índice vacío.
+     */
+    ArrayTypeIndex() {
+        slots = new int[16];
+        Arrays.fill(slots, EMPTY);
+        entryBase = new int[8];
+        entryHash = new int[8];
+        entryDimOffset = new int[8];
+        entryDimCount = new int[8];
+        entryTypeId = new int[8];
+        dimPool = new int[32];
+    }
+
+    /**
+     * Calcula el hash estructural de una forma de array.
+     */
+    private static int hash(int baseTypeId, int[] dims, int count) {
+        int h = baseTypeId * 0x9E3779B9;
+        for (int i = 0; i < count; i++) {
+            h = (h ^ dims[i]) * 0x01000193;
+        }
+        h ^= count;
+        return h ^ (h >>> 16);
+    }
+
+    /**
+     * Busca el tipo array con el tipo base y las dimensiones indicadas.
+     *
+     * @param baseTypeId ID del tipo base
+     * @param dims       Dimensiones del array
+     * @param count      Número de dimensiones válidas en dims
+     * @return ID del tipo array, o -1 si la forma no está registrada o su
+     *         tipo se liberó
+     */
+    int find(int baseTypeId, int[] dims, int count) {
+        int h = hash(baseTypeId, dims, count);
+        int mask = slots.length - 1;
+        int slot = h & mask;
+        int entry;
+        while ((entry = slots[slot]) != EMPTY) {
+            if (entryHash[entry] == h && entryTypeId[entry] != EMPTY && matches(entry, baseTypeId, dims, count)) {
+                return entryTypeId[entry];
+            }
+            slot = (slot + 1) & mask;
+        }
+        return EMPTY;
+    }
+
+    /**
+     * Compara una entrada con una forma de array.
+     */
+    private boolean matches(int entry, int baseTypeId, int[] dims, int count) {
+        if (entryBase[entry] != baseTypeId || entryDimCount[entry] != count) {
+            return false;
+        }
+        int offset = entryDimOffset[entry];
+        for (int i = 0; i < count; i++) {
+            if (dimPool[offset + i] != dims[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Registra una forma de array que aún no está en el índice.
+     *
+     * @param baseTypeId ID del tipo base
+     * @param dims       Dimensiones del array
+     * @param count      Número de dimensiones válidas en dims
+     * @param typeId     ID asignado al tipo array
+     */
+    void add(int baseTypeId, int[] dims, int count, int typeId) {
+        if (entries == entryBase.length) {
+            int capacity = entries << 1;
+            entryBase = Arrays.copyOf(entryBase, capacity);
+            entryHash = Arrays.copyOf(entryHash, capacity);
+            entryDimOffset = Arrays.copyOf(entryDimOffset, capacity);
+            entryDimCount = Arrays.copyOf(entryDimCount, capacity);
+            entryTypeId = Arrays.copyOf(entryTypeId, capacity);
+        }
+        if (poolSize + count > dimPool.length) {
+            dimPool = Arrays.copyOf(dimPool, Math.max(dimPool.length << 1, poolSize + count));
+        }
+
+        int h = hash(baseTypeId, dims, count);
+        int entry = entries++;
+        entryBase[entry] = baseTypeId;
+        entryHash[entry] = h;
+        entryDimOffset[entry] = poolSize;
+        entryDimCount[entry] = count;
+        entryTypeId[entry] = typeId;
+        System.arraycopy(dims, 0, dimPool, poolSize, count);
+        poolSize += count;
+
+        if (entries * 2 > slots.length) {
+            slots = new int[slots.length << 1];
+            Arrays.fill(slots, EMPTY);
+            for (int i = 0; i < entries; i++) {
+                place(i);
+            }
+        } else {
+            place(entry);
+        }
+    }
+
+    /**
+     * Coloca una entrada en la tabla de dispersión.
+     */
+    private void place(int entry) {
+        int mask = slots.length - 1;
+        int slot = entryHash[entry] & mask;
+        while (slots[slot] != EMPTY) {
+            slot = (slot + 1) & mask;
+        }
+        slots[slot] = entry;
+    }
+
+    /**
+     * Anula las entradas que apuntan a un tipo liberado. Las entradas se
+     * conservan, con ID -1, para no mover las posiciones que guardan las
+     * marcas; las búsquedas las saltan.
+     *
+     * @param typeId ID del tipo liberado
+     */
+    void release(int typeId) {
+        for (int i = 0; i < entries; i++) {
+            if (entryTypeId[i] == typeId) {
+                entryTypeId[i] = EMPTY;
+            }
+        }
+    }
+
+    /**
+     * Obtiene el número de formas registradas.
+     *
+     * @return Número de entradas del índice
+     */
+    int size() {
+        return entries;
+    }
+
+    /**
+     * Obtiene el tipo base de una entrada.
+     *
+     * @param entry Posición de la entrada, en orden de registro
+     * @return ID del tipo base
+     */
+    int baseAt(int entry) {
+        return entryBase[entry];
+    }
+
+    /**
+     * Obtiene el tipo array asignado a una entrada.
+     *
+     * @param entry Posición de la entrada, en orden de registro
+     * @return ID del tipo array, -1 si se liberó
+     */
+    int typeIdAt(int entry) {
+        return entryTypeId[entry];
+    }
+
+    /**
+     * Copia las dimensiones de una entrada.
+     *
+     * @param entry Posición de la entrada, en orden de registro
+     * @return Dimensiones del array
+     */
+    int[] dimsAt(int entry) {
+        int offset = entryDimOffset[entry];
+        return Arrays.copyOfRange(dimPool, offset, offset + entryDimCount[entry]);
+    }
+
+    /**
+     * Busca las dimensiones con las que se registró un tipo array. Recorre
+     * las entradas, así que solo conviene en rutas que guardan el
+     * resultado.
+     *
+     * @param typeId ID del tipo array
+     * @return Dimensiones del array, o null si el tipo no está registrado
+     */
+    int[] dimsOf(int typeId) {
+        for (int entry = entries - 1; entry >= 0; entry--) {
+            if (entryTypeId[entry] == typeId) {
+                return dimsAt(entry);
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Descarta las formas registradas a partir de una posición, en orden
+     * inverso de registro. Cada entrada se saca de la tabla de dispersión
+     * desplazando hacia atrás las que la seguían en su secuencia de sondeo,
+     * así que el costo depende solo del número de entradas descartadas.
+     *
+     * @param count Número de entradas que se conservan
+     */
+    void truncate(int count) {
+        while (entries > count) {
+            int entry = --entries;
+            int mask = slots.length - 1;
+            int slot = entryHash[entry] & mask;
+            while (slots[slot] != entry) {
+                slot = (slot + 1) & mask;
+            }
+            int hole = slot;
+            for (int next = (hole + 1) & mask; slots[next] != EMPTY; next = (next + 1) & mask) {
+                int home = entryHash[slots[next]] & mask;
+                if (((next - home) & mask) >= ((next - hole) & mask)) {
+                    slots[hole] = slots[next];
+                    hole = next;
+                }
+            }
+            slots[hole] = EMPTY;
+            poolSize = entryDimOffset[entry];
+        }
+    }
+
+    /**
+     * Elimina todas las formas registradas.
+     */
+    void clear() {
+        Arrays.fill(slots, EMPTY);
+        entries = 0;
+        poolSize = 0;
+    }
+}
@@ -0,0 +1,173 @@
+package src.type;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.Arrays;
+
+import src.symbol.SymbolTable;
+
+/**
+ * Almacenamiento de tipos fuera del heap. Los atributos numéricos de cada
+ * tipo ocupan un registro de tamaño fijo en un ByteBuffer directo, así que
+ * el recolector de basura no los recorre. En el heap quedan solo los
+ * nombres, que son también las claves del índice de nombres de la tabla, y
+ * las tablas de miembros, en arreglos indexados por ID como en
+ * {@link HeapTypeStore}.
+ *
+ * Cada registro tiene la forma:
+ * <pre>
+ * long items | long tam | int parentId | int flags
+ * </pre>
+ *
+ * @author steve-quezada
+ */
+public final class DirectTypeStore implements TypeStore {
+
+    private static final int ITEMS = 0;
+
+    private static final int TAM = 8;
+
+    private static final int PARENT = 16;
+
+    private static final int FLAGS = 20;
+
+    private static final int RECORD_SIZE = 24;
+
+    private static final int PRESENT = 1;
+
+    private ByteBuffer records;
+
+    private String[] names;
+
+    private SymbolTable[] members;
+
+    private int size;
+
+    /**
+     * Constructor que crea un almacenamiento vacío.
+     */
+    public DirectTypeStore() {
+        this(16);
+    }
+
+    /**
+     * Constructor que crea un almacenamiento vacío con la capacidad indicada.
+     *
+     * @param capacity Número de IDs que caben antes de ampliar el búfer
+     */
+    public DirectTypeStore(int capacity) {
+        capacity = Math.max(capacity, 1);
+        records = allocate(capacity);
+        names = new String[capacity];
+        members = new SymbolTable[capacity];
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public int add(String name, long items, long tam, int parentId, SymbolTable memberTable) {
+        int id = size;
+        set(id, name, items, tam, parentId, memberTable);
+        return id;
+    }
+
+    @Override
+    public void set(int id, String name, long items, long tam, int parentId, SymbolTable memberTable) {
+        reserve(id + 1);
+        int base = id * RECORD_SIZE;
+        records.putLong(base + ITEMS, items);
+        records.putLong(base + TAM, tam);
+        records.putInt(base + PARENT, parentId);
+        records.putInt(base + FLAGS, PRESENT);
+        names[id] = name;
+        members[id] = memberTable;
+    }
+
+    @Override
+    public void reserve(int newSize) {
+        if (newSize > names.length) {
+            int capacity = Math.max(names.length << 1, newSize);
+            ByteBuffer grown = allocate(capacity);
+            records.clear().limit(size * RECORD_SIZE);
+            grown.put(records).clear();
+            records = grown;
+            names = Arrays.copyOf(names, capacity);
+            members = Arrays.copyOf(members, capacity);
+        }
+        while (size < newSize) {
+            int base = size++ * RECORD_SIZE;
+            records.putLong(base + ITEMS, 0);
+            records.putLong(base + TAM, 0);
+            records.putInt(base + PARENT, -1);
+            records.putInt(base + FLAGS, 0);
+        }
+    }
+
+    @Override
+    public boolean contains(int id) {
+        return (records.getInt(id * RECORD_SIZE + FLAGS) & PRESENT) != 0;
+    }
+
+    @Override
+    public String getName(int id) {
+        return names[id];
+    }
+
+    @Override
+    public long getItems(int id) {
+        return records.getLong(id * RECORD_SIZE + ITEMS);
+    }
+
+    @Override
+    public long getTam(int id) {
+        return records.getLong(id * RECORD_SIZE + TAM);
+    }
+
+    @Override
+    public int getParentId(int id) {
+        return records.getInt(id * RECORD_SIZE + PARENT);
+    }
+
+    @Override
+    public SymbolTable getMembers(int id) {
+        return members[id];
+    }
+
+    @Override
+    public void remove(int id) {
+        int base = id * RECORD_SIZE;
+        records.putLong(base + ITEMS, 0);
+        records.putLong(base + TAM, 0);
+        records.putInt(base + PARENT, -1);
+        records.putInt(base + FLAGS, 0);
+        names[id] = null;
+        members[id] = null;
+    }
+
+    @Override
+    public void truncate(int newSize) {
+        if (newSize >= size) {
+            return;
+        }
+        Arrays.fill(names, newSize, size, null);
+        Arrays.fill(members, newSize, size, null);
+        size = newSize;
+    }
+
+    @Override
+    public void clear() {
+        Arrays.fill(names, 0, size, null);
+        Arrays.fill(members, 0, size, null);
+        size = 0;
+    }
+
+    /**
+     * Reserva un búfer directo para la cantidad de registros indicada.
+     */
+    private static ByteBuffer allocate(int capacity) {
+        return ByteBuffer.allocateDirect(Math.multiplyExact(capacity, RECORD_SIZE)).order(ByteOrder.nativeOrder());
+    }
+}
@@ -0,0 +1,145 @@
+package src.type;
+
+import java.util.Arrays;
+
+import src.symbol.SymbolTable;
+
+/**
+ * Almacenamiento de tipos en arreglos paralelos del heap, uno por atributo.
+ * Un tipo ocupa una posición en cada arreglo en lugar de un objeto con
+ * cabecera y referencias, y los IDs vacíos cuestan solo esas posiciones.
+ *
+ * @author steve-quezada
+ */
+public final class HeapTypeStore implements TypeStore {
+
+    private String[] names;
+
+    private long[] items;
+
+    private long[] tams;
+
+    private int[] parents;
+
+    private SymbolTable[] members;
+
+    private int size;
+
+    /**
+     * Constructor que crea un almacenamiento vacío.
+     */
+    public HeapTypeStore() {
+        this(16);
+    }
+
+    /**
+     * Constructor que crea un almacenamiento vacío con la capacidad indicada.
+     *
+     * @param capacity Número de IDs que caben antes de ampliar los arreglos
+     */
+    public HeapTypeStore(int capacity) {
+        capacity = Math.max(capacity, 1);
+        names = new String[capacity];
+        items = new long[capacity];
+        tams = new long[capacity];
+        parents = new int[capacity];
+        members = new SymbolTable[capacity];
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public int add(String name, long itemCount, long tam, int parentId, SymbolTable memberTable) {
+        int id = size;
+        set(id, name, itemCount, tam, parentId, memberTable);
+        return id;
+    }
+
+    @Override
+    public void set(int id, String name, long itemCount, long tam, int parentId, SymbolTable memberTable) {
+        reserve(id + 1);
+        names[id] = name;
+        items[id] = itemCount;
+        tams[id] = tam;
+        parents[id] = parentId;
+        members[id] = memberTable;
+    }
+
+    @Override
+    public void reserve(int newSize) {
+        if (newSize > names.length) {
+            int capacity = Math.max(names.length << 1, newSize);
+            names = Arrays.copyOf(names, capacity);
+            items = Arrays.copyOf(items, capacity);
+            tams = Arrays.copyOf(tams, capacity);
+            parents = Arrays.copyOf(parents, capacity);
+            members = Arrays.copyOf(members, capacity);
+        }
+        while (size < newSize) {
+            parents[size++] = -1;
+        }
+    }
+
+    @Override
+    public boolean contains(int id) {
+        return names[id] != null;
+    }
+
+    @Override
+    public String getName(int id) {
+        return names[id];
+    }
+
+    @Override
+    public long getItems(int id) {
+        return items[id];
+    }
+
+    @Override
+    public long getTam(int id) {
+        return tams[id];
+    }
+
+    @Override
+    public int getParentId(int id) {
+        return parents[id];
+    }
+
+    @Override
+    public SymbolTable getMembers(int id) {
+        return members[id];
+    }
+
+    @Override
+    public void remove(int id) {
+        names[id] = null;
+        items[id] = 0;
+        tams[id] = 0;
+        parents[id] = -1;
+        members[id] = null;
+    }
+
+    @Override
+    public void truncate(int newSize) {
+        if (newSize >= size) {
+            return;
+        }
+        Arrays.fill(names, newSize, size, null);
+        Arrays.fill(items, newSize, size, 0);
+        Arrays.fill(tams, newSize, size, 0);
+        Arrays.fill(members, newSize, size, null);
+        size = newSize;
+    }
+
+    @Override
+    public void clear() {
+        Arrays.fill(names, 0, size, null);
+        Arrays.fill(items, 0, size, 0);
+        Arrays.fill(tams, 0, size, 0);
+        Arrays.fill(members, 0, size, null);
+        size = 0;
+    }
+}
@@ -0,0 +1,330 @@
+package src.type;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import src.symbol.SymbolTable;
+
+/**
+ * Resolución de rutas de miembros como tables[2].columns.intData a un tipo
+ * final y un desplazamiento en bytes desde el inicio del tipo raíz.
+ *
+ * La primera resolución de una ruta recorre un miembro o un índice por
+ * paso usando los desplazamientos de {@link TypeLayout}; el resultado se
+ * guarda por tipo raíz y texto de la ruta, así que repetir la misma ruta
+ * cuesta una búsqueda en un HashMap y no reserva memoria. La tabla de
+ * tipos descarta todo lo guardado cuando elimina o libera tipos.
+ *
+ * Una ruta es una secuencia de miembros separados por puntos y de índices
+ * entre corchetes; el primer miembro no lleva punto y la ruta vacía nombra
+ * al propio tipo raíz. Indexar solo algunas dimensiones de un array
+ * multidimensional da como resultado un sub-array, descrito por el tipo de
+ * sus elementos y las dimensiones restantes; resolver una ruta nunca
+ * registra tipos nuevos en la tabla.
+ *
+ * @author steve-quezada
+ */
+public class MemberPathResolver {
+
+    private final TypeTableImpl typeTable;
+
+    private final List<Map<String, Resolved>> byRoot;
+
+    /**
+     * Resultado de resolver una ruta.
+     */
+    public static final class Resolved {
+
+        private static final int[] NO_DIMS = new int[0];
+
+        private final int typeId;
+
+        private final int[] dims;
+
+        private final long offset;
+
+        private final long size;
+
+        Resolved(int typeId, int[] dims, long offset, long size) {
+            this.typeId = typeId;
+            this.dims = dims;
+            this.offset = offset;
+            this.size = size;
+        }
+
+        /**
+         * Obtiene el tipo del último miembro o elemento de la ruta. Si la
+         * ruta termina en un sub-array, es el tipo de sus elementos.
+         *
+         * @return ID del tipo final
+         */
+        public int getTypeId() {
+            return typeId;
+        }
+
+        /**
+         * Indica si la ruta termina en un sub-array, es decir, si indexó
+         * solo algunas dimensiones de un array multidimensional.
+         *
+         * @return true si el resultado es un sub-array
+         */
+        public boolean isSubArray() {
+            return dims.length > 0;
+        }
+
+        /**
+         * Obtiene las dimensiones restantes del sub-array.
+         *
+         * @return Dimensiones del sub-array, o un arreglo vacío si la ruta no
+         *         termina en un sub-array
+         */
+        public int[] getDims() {
+            return dims.clone();
+        }
+
+        /**
+         * Obtiene el tamaño en bytes del miembro o elemento final.
+         *
+         * @return Tamaño en bytes
+         */
+        public long getSize() {
+            return size;
+        }
+
+        /**
+         * Obtiene el desplazamiento desde el inicio del tipo raíz.
+         *
+         * @return Desplazamiento en bytes
+         */
+        public long getOffset() {
+            return offset;
+        }
+    }
+
+    /**
+     * Constructor que crea un resolvedor sin rutas guardadas.
+     *
+     * @param typeTable Tabla de tipos sobre la que se resuelven las rutas
+     */
+    public MemberPathResolver(TypeTableImpl typeTable) {
+        this.typeTable = typeTable;
+        this.byRoot = new ArrayList<>();
+    }
+
+    /**
+     * Resuelve una ruta a partir de un tipo raíz.
+     *
+     * @param rootTypeId ID del tipo raíz
+     * @param path       Ruta de miembros e índices
+     * @return Tipo final y desplazamiento de la ruta
+     * @throws IllegalArgumentException Si la ruta está mal formada, nombra
+     *                                  un miembro que no existe o un índice
+     *                                  fuera de rango
+     * @throws IllegalStateException    Si el desplazamiento desborda 64 bits
+     */
+    public Resolved resolve(int rootTypeId, String path) {
+        Map<String, Resolved> paths = rootTypeId >= 0 && rootTypeId < byRoot.size()
+                ? byRoot.get(rootTypeId) : null;
+        if (paths != null) {
+            Resolved cached = paths.get(path);
+            if (cached != null) {
+                return cached;
+            }
+        }
+
+        Resolved resolved = walk(rootTypeId, path);
+        if (paths == null) {
+            while (byRoot.size() <= rootTypeId) {
+                byRoot.add(null);
+            }
+            paths = new HashMap<>();
+            byRoot.set(rootTypeId, paths);
+        }
+        paths.put(path, resolved);
+        return resolved;
+    }
+
+    /**
+     * Descarta todas las rutas guardadas.
+     */
+    public void clear() {
+        byRoot.clear();
+    }
+
+    /**
+     * Recorre la ruta paso a paso.
+     */
+    private Resolved walk(int rootTypeId, String path) {
+        if (typeTable.getName(rootTypeId).isEmpty()) {
+            throw new IllegalArgumentException("El tipo con ID " + rootTypeId + " no existe");
+        }
+
+        int typeId = rootTypeId;
+        // Dimensiones restantes si la posición actual es un sub-array de
+        // elementos typeId; null si es el propio tipo typeId.
+        int[] subDims = null;
+        long size = typeTable.getLayout().sizeOf(rootTypeId);
+        long offset = 0;
+        int[] indices = new int[4];
+        int length = path.length();
+        int i = 0;
+        try {
+            while (i < length) {
+                char c = path.charAt(i);
+                if (c == '[') {
+                    int count = 0;
+                    while (i < length && path.charAt(i) == '[') {
+                        int close = path.indexOf(']', i + 1);
+                        if (close < 0) {
+                            throw malformed(path);
+                        }
+                        if (count == indices.length) {
+                            indices = Arrays.copyOf(indices, count << 1);
+                        }
+                        indices[count++] = parseIndex(path, i + 1, close);
+                        i = close + 1;
+                    }
+                    int[] dims = subDims != null ? subDims : dimsOf(typeId);
+                    int elementId = subDims != null ? typeId : typeTable.getParenId(typeId);
+                    checkIndices(typeId, elementId, dims, indices, count);
+                    subDims = count == dims.length ? null : Arrays.copyOfRange(dims, count, dims.length);
+                    size = typeTable.getLayout().sizeOf(elementId);
+                    if (subDims != null) {
+                        for (int dim : subDims) {
+                            size = Math.multiplyExact(size, dim);
+                        }
+                    }
+                    offset = Math.addExact(offset, elementOffset(dims, indices, count, size));
+                    typeId = elementId;
+                } else {
+                    if (subDims != null) {
+                        throw new IllegalArgumentException("Un sub-array de " + typeTable.getName(typeId)
+                                + " no es una estructura");
+                    }
+                    if (c == '.') {
+                        if (i == 0) {
+                            throw malformed(path);
+                        }
+                        i++;
+                    } else if (i != 0) {
+                        throw malformed(path);
+                    }
+                    int end = i;
+                    while (end < length && path.charAt(end) != '.' && path.charAt(end) != '[') {
+                        end++;
+                    }
+                    if (end == i) {
+                        throw malformed(path);
+                    }
+                    String member = path.substring(i, end);
+                    int index = memberIndex(typeId, member);
+                    offset = Math.addExact(offset, typeTable.getLayout().fieldOffsetsOf(typeId)[index]);
+                    typeId = typeTable.getParentStruct(typeId).getSymbols().get(member).getType();
+                    size = typeTable.getLayout().sizeOf(typeId);
+                    i = end;
+                }
+            }
+        } catch (ArithmeticException e) {
+            throw new IllegalStateException("El desplazamiento de " + path + " en "
+                    + typeTable.getName(rootTypeId) + " excede el rango de 64 bits");
+        }
+        return new Resolved(typeId, subDims != null ? subDims : Resolved.NO_DIMS, offset, size);
+    }
+
+    /**
+     * Busca la posición de un miembro en el orden de declaración de su
+     * estructura.
+     */
+    private int memberIndex(int typeId, String member) {
+        SymbolTable members = typeTable.getParentStruct(typeId);
+        if (members == null) {
+            throw new IllegalArgumentException("El tipo " + typeTable.getName(typeId) + " no es una estructura");
+        }
+        int index = 0;
+        for (String name : members.getSymbols().keySet()) {
+            if (name.equals(member)) {
+                return index;
+            }
+            index++;
+        }
+        throw new IllegalArgumentException("La estructura " + typeTable.getName(typeId)
+                + " no tiene el miembro " + member);
+    }
+
+    /**
+     * Verifica que un array admita los índices indicados: que sea un array,
+     * que tenga al menos tantas dimensiones y que cada índice esté dentro de
+     * la suya.
+     */
+    private void checkIndices(int typeId, int elementId, int[] dims, int[] indices, int count) {
+        if (elementId < 0) {
+            throw new IllegalArgumentException("El tipo " + typeTable.getName(typeId) + " no es un array");
+        }
+        if (count > dims.length) {
+            throw new IllegalArgumentException("El tipo " + typeTable.getName(typeId) + " tiene "
+                    + dims.length + " dimensión(es) y se indexó con " + count);
+        }
+        for (int d = 0; d < count; d++) {
+            if (indices[d] >= dims[d]) {
+                throw new IllegalArgumentException("El índice " + indices[d] + " está fuera de la dimensión "
+                        + dims[d] + " de " + typeTable.getName(typeId));
+            }
+        }
+    }
+
+    /**
+     * Calcula el desplazamiento del elemento indicado en orden por filas.
+     */
+    private static long elementOffset(int[] dims, int[] indices, int count, long elementSize) {
+        long linear = 0;
+        for (int d = 0; d < count; d++) {
+            linear = Math.addExact(Math.multiplyExact(linear, dims[d]), indices[d]);
+        }
+        return Math.multiplyExact(linear, elementSize);
+    }
+
+    /**
+     * Obtiene las dimensiones de un array. Un array que no está en el
+     * índice de formas se trata como de una sola dimensión.
+     */
+    private int[] dimsOf(int typeId) {
+        int[] dims = typeTable.getArrayIndex().dimsOf(typeId);
+        if (dims != null) {
+            return dims;
+        }
+        long items = typeTable.getItems(typeId);
+        return new int[] { (int) Math.min(items, Integer.MAX_VALUE) };
+    }
+
+    /**
+     * Lee un índice decimal no negativo entre dos posiciones de la ruta.
+     */
+    private static int parseIndex(String path, int start, int end) {
+        if (start == end) {
+            throw malformed(path);
+        }
+        int value = 0;
+        for (int i = start; i < end; i++) {
+            char c = path.charAt(i);
+            if (c < '0' || c > '9') {
+                throw malformed(path);
+            }
+            if (value > (Integer.MAX_VALUE - (c - '0')) / 10) {
+                throw new IllegalArgumentException("El índice " + path.substring(start, end)
+                        + " de " + path + " excede el rango de un entero");
+            }
+            value = value * 10 + (c - '0');
+        }
+        return value;
+    }
+
+    /**
+     * Crea la excepción de una ruta mal formada.
+     */
+    private static IllegalArgumentException malformed(String path) {
+        return new IllegalArgumentException("Ruta de miembro mal formada: " + path);
+    }
+}
@@ -0,0 +1,450 @@
+package src.type;
+
+import java.io.*;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.*;
+
+import src.symbol.FunctionSymbol;
+import src.symbol.Signatures;
+import src.symbol.Symbol;
+import src.symbol.SymbolCategory;
+import src.symbol.SymbolImpl;
+import src.symbol.SymbolTable;
+import src.symbol.SymbolTableImpl;
+import src.symbol.SymbolTableStack;
+import src.symbol.SymbolTableStackImpl;
+
+/**
+ * Instantánea binaria de una tabla de tipos y de su pila de ámbitos. Guarda
+ * los tipos con sus IDs, tamaños y tablas de miembros, los símbolos con sus
+ * direcciones, categorías y firmas, y el orden de los ámbitos, de modo que
+ * al cargarla se obtienen tablas vivas sin volver a analizar el código
+ * fuente, como un encabezado precompilado.
+ *
+ * Formato (versión 1), todos los enteros en LEB128 salvo la cabecera:
+ * <pre>
+ * int     MAGIC, short VERSION
+ * cadenas: n, n x UTF
+ * tablas:  n, n x (padre + 1, desplazamiento, m, m x símbolo)
+ * símbolo: nombre, dir, tipo, categoría, k, k x argumento
+ * tipos:   n, n x (0 | 1, nombre, items, tam, padre + 1, miembros + 1)
+ * nombres: n, n x (nombre, id)
+ * arrays:  n, n x (base, id, k, k x dimensión)
+ * pila:    n, n x tabla
+ * </pre>
+ * Cada nombre se guarda una sola vez en la tabla de cadenas y se referencia
+ * por su posición.
+ *
+ * @author steve-quezada
+ */
+public final class TableSnapshot {
+
+    /**
+     * Marca al inicio de todo archivo de instantánea ("SNAP").
+     */
+    public static final int MAGIC = 0x534E4150;
+
+    /**
+     * Versión del formato que escribe y acepta esta clase.
+     */
+    public static final int VERSION = 1;
+
+    private final TypeTableImpl typeTable;
+
+    private final SymbolTableStack symbolStack;
+
+    /**
+     * Constructor que agrupa las tablas de una instantánea.
+     *
+     * @param typeTable   Tabla de tipos
+     * @param symbolStack Pila de ámbitos
+     */
+    public TableSnapshot(TypeTableImpl typeTable, SymbolTableStack symbolStack) {
+        this.typeTable = typeTable;
+        this.symbolStack = symbolStack;
+    }
+
+    /**
+     * Obtiene la tabla de tipos.
+     *
+     * @return Tabla de tipos
+     */
+    public TypeTableImpl getTypeTable() {
+        return typeTable;
+    }
+
+    /**
+     * Obtiene la pila de ámbitos.
+     *
+     * @return Pila de ámbitos
+     */
+    public SymbolTableStack getSymbolStack() {
+        return symbolStack;
+    }
+
+    /**
+     * Guarda la instantánea en un archivo.
+     *
+     * @param file Archivo de destino
+     * @throws IOException Si ocurre un error al escribir
+     */
+    public void save(Path file) throws IOException {
+        try (OutputStream out = new BufferedOutputStream(Files.newOutputStream(file), 1 << 16)) {
+            write(out);
+        }
+    }
+
+    /**
+     * Carga una instantánea desde un archivo.
+     *
+     * @param file Archivo de origen
+     * @return Instantánea con tablas nuevas
+     * @throws IOException Si ocurre un error al leer o el formato no es válido
+     */
+    public static TableSnapshot load(Path file) throws IOException {
+        try (InputStream in = new BufferedInputStream(Files.newInputStream(file), 1 << 16)) {
+            return read(in);
+        }
+    }
+
+    /**
+     * Escribe la instantánea en un flujo. El cuerpo se arma primero en
+     * memoria para conocer todas las cadenas antes de escribir su tabla.
+     *
+     * @param out Flujo de destino; no se cierra
+     * @throws IOException Si ocurre un error al escribir
+     */
+    public void write(OutputStream out) throws IOException {
+        Map<String, Integer> strings = new LinkedHashMap<>();
+        Map<SymbolTable, Integer> tables = new IdentityHashMap<>();
+        List<SymbolTable> tableOrder = new ArrayList<>();
+
+        List<SymbolTable> stackTables = symbolStack.getTables();
+        int typeCount = typeTable.size();
+        for (int id = 0; id < typeCount; id++) {
+            Optional<Type> type = typeTable.getType(id);
+            if (type.isPresent() && type.get().getParentStruct() != null) {
+                collect(type.get().getParentStruct(), tables, tableOrder);
+            }
+        }
+        for (SymbolTable table : stackTables) {
+            collect(table, tables, tableOrder);
+        }
+
+        ByteArrayOutputStream bodyBytes = new ByteArrayOutputStream(1 << 12);
+        DataOutputStream body = new DataOutputStream(bodyBytes);
+
+        writeVarInt(body, tableOrder.size());
+        for (SymbolTable table : tableOrder) {
+            SymbolTable parent = table instanceof SymbolTableImpl ? ((SymbolTableImpl) table).getParent() : null;
+            writeVarInt(body, parent == null ? 0 : tables.get(parent) + 1);
+            writeVarInt(body, table.getCurrentOffset());
+            Map<String, Symbol> symbols = table.getSymbols();
+            writeVarInt(body, symbols.size());
+            for (Map.Entry<String, Symbol> entry : symbols.entrySet()) {
+                Symbol sym = entry.getValue();
+                writeVarInt(body, intern(strings, entry.getKey()));
+                writeVarInt(body, sym.getDir());
+                writeVarInt(body, sym.getType());
+                writeVarInt(body, intern(strings, sym.getCat()));
+                int[] signature = sym.getSignature();
+                writeVarInt(body, signature.length);
+                for (int typeId : signature) {
+                    writeVarInt(body, typeId);
+                }
+            }
+        }
+
+        writeVarInt(body, typeCount);
+        for (int id = 0; id < typeCount; id++) {
+            Optional<Type> found = typeTable.getType(id);
+            if (!found.isPresent()) {
+                body.writeByte(0);
+                continue;
+            }
+            Type type = found.get();
+            body.writeByte(1);
+            writeVarInt(body, intern(strings, type.getName()));
+            writeVarLong(body, type.getItems());
+            writeVarLong(body, type.getTam());
+            writeVarInt(body, type.getParenId() + 1);
+            writeVarInt(body, type.getParentStruct() == null ? 0 : tables.get(type.getParentStruct()) + 1);
+        }
+
+        Map<String, Integer> names = typeTable.getTypeNames();
+        writeVarInt(body, names.size());
+        for (Map.Entry<String, Integer> entry : names.entrySet()) {
+            writeVarInt(body, intern(strings, entry.getKey()));
+            writeVarInt(body, entry.getValue());
+        }
+
+        ArrayTypeIndex arrays = typeTable.getArrayIndex();
+        int liveArrays = 0;
+        for (int i = 0; i < arrays.size(); i++) {
+            if (arrays.typeIdAt(i) >= 0) {
+                liveArrays++;
+            }
+        }
+        writeVarInt(body, liveArrays);
+        for (int i = 0; i < arrays.size(); i++) {
+            if (arrays.typeIdAt(i) < 0) {
+                continue;
+            }
+            int[] dims = arrays.dimsAt(i);
+            writeVarInt(body, arrays.baseAt(i));
+            writeVarInt(body, arrays.typeIdAt(i));
+            writeVarInt(body, dims.length);
+            for (int dim : dims) {
+                writeVarInt(body, dim);
+            }
+        }
+
+        writeVarInt(body, stackTables.size());
+        for (SymbolTable table : stackTables) {
+            writeVarInt(body, tables.get(table));
+        }
+        body.flush();
+
+        DataOutputStream header = new DataOutputStream(out);
+        header.writeInt(MAGIC);
+        header.writeShort(VERSION);
+        writeVarInt(header, strings.size());
+        for (String s : strings.keySet()) {
+            header.writeUTF(s);
+        }
+        bodyBytes.writeTo(header);
+        header.flush();
+    }
+
+    /**
+     * Lee una instantánea de un flujo y reconstruye tablas nuevas. El flujo
+     * se lee completo antes de decodificarlo, de modo que cada número de
+     * elementos se compara con los bytes que quedan antes de reservar
+     * memoria para ellos.
+     *
+     * @param in Flujo de origen; no se cierra
+     * @return Instantánea con las tablas cargadas
+     * @throws IOException Si ocurre un error al leer o el formato no es válido
+     */
+    public static TableSnapshot read(InputStream in) throws IOException {
+        DataInputStream data = new DataInputStream(new ByteArrayInputStream(in.readAllBytes()));
+        if (data.readInt() != MAGIC) {
+            throw new IOException("El archivo no es una instantánea de tablas");
+        }
+        int version = data.readUnsignedShort();
+        if (version != VERSION) {
+            throw new IOException("Versión de instantánea no soportada: " + version);
+        }
+
+        String[] strings = new String[readCount(data)];
+        for (int i = 0; i < strings.length; i++) {
+            strings[i] = data.readUTF();
+        }
+
+        TypeTableImpl typeTable = new TypeTableImpl();
+
+        // Los IDs de tipo de los símbolos se leen antes que la tabla de
+        // tipos; se comprueban contra el mayor de ellos al leerla.
+        int maxTypeRef = -1;
+        SymbolTableImpl[] tables = new SymbolTableImpl[readCount(data)];
+        for (int t = 0; t < tables.length; t++) {
+            int parent = readIndex(data, t + 1, "tabla padre") - 1;
+            SymbolTableImpl table = new SymbolTableImpl(typeTable, parent >= 0 ? tables[parent] : null);
+            table.setCurrentOffset(readVarInt(data));
+            int symbolCount = readCount(data);
+            for (int s = 0; s < symbolCount; s++) {
+                String name = strings[readIndex(data, strings.length, "cadena")];
+                int dir = readVarInt(data);
+                int type = readVarInt(data);
+                SymbolCategory category = readCategory(strings[readIndex(data, strings.length, "cadena")]);
+                int[] signature = new int[readCount(data)];
+                for (int a = 0; a < signature.length; a++) {
+                    signature[a] = readVarInt(data);
+                    maxTypeRef = Math.max(maxTypeRef, signature[a]);
+                }
+                maxTypeRef = Math.max(maxTypeRef, type);
+                table.restore(name, category == SymbolCategory.FUNCTION
+                        ? new FunctionSymbol(dir, type, Signatures.intern(signature, signature.length))
+                        : new SymbolImpl(dir, type, category));
+            }
+            tables[t] = table;
+        }
+
+        int typeCount = readCount(data);
+        if (maxTypeRef >= typeCount) {
+            throw new IOException("Índice de tipo fuera de rango en la instantánea: " + maxTypeRef);
+        }
+        for (int id = 0; id < typeCount; id++) {
+            if (data.readByte() == 0) {
+                continue;
+            }
+            String name = strings[readIndex(data, strings.length, "cadena")];
+            long items = readVarLong(data);
+            long tam = readVarLong(data);
+            int parentId = readIndex(data, typeCount + 1, "tipo") - 1;
+            int members = readIndex(data, tables.length + 1, "tabla") - 1;
+            typeTable.restoreType(id, name, items, tam, parentId, members >= 0 ? tables[members] : null);
+        }
+        typeTable.restoreSize(typeCount);
+
+        int nameCount = readCount(data);
+        for (int i = 0; i < nameCount; i++) {
+            String name = strings[readIndex(data, strings.length, "cadena")];
+            typeTable.restoreName(name, readIndex(data, typeCount, "tipo"));
+        }
+
+        int arrayCount = readCount(data);
+        for (int i = 0; i < arrayCount; i++) {
+            int base = readIndex(data, typeCount, "tipo");
+            int typeId = readIndex(data, typeCount, "tipo");
+            int[] dims = new int[readCount(data)];
+            for (int d = 0; d < dims.length; d++) {
+                dims[d] = readDimension(data);
+            }
+            typeTable.restoreArray(base, dims, typeId);
+        }
+
+        SymbolTableStack symbolStack = new SymbolTableStackImpl();
+        int stackSize = readCount(data);
+        for (int i = 0; i < stackSize; i++) {
+            symbolStack.push(tables[readIndex(data, tables.length, "tabla")]);
+        }
+        return new TableSnapshot(typeTable, symbolStack);
+    }
+
+    /**
+     * Agrega una tabla a la lista de salida después de su padre, para que
+     * al cargar el padre ya exista cuando se construye la tabla.
+     */
+    private static void collect(SymbolTable table, Map<SymbolTable, Integer> tables, List<SymbolTable> order) {
+        if (tables.containsKey(table)) {
+            return;
+        }
+        if (table instanceof SymbolTableImpl) {
+            SymbolTable parent = ((SymbolTableImpl) table).getParent();
+            if (parent != null) {
+                collect(parent, tables, order);
+            }
+        }
+        tables.put(table, order.size());
+        order.add(table);
+    }
+
+    /**
+     * Obtiene la posición de una cadena en la tabla de cadenas,
+     * agregándola si es nueva.
+     */
+    private static int intern(Map<String, Integer> strings, String s) {
+        Integer index = strings.get(s);
+        if (index == null) {
+            index = strings.size();
+            strings.put(s, index);
+        }
+        return index;
+    }
+
+    /**
+     * Escribe un entero en LEB128. Los negativos ocupan cinco bytes.
+     */
+    private static void writeVarInt(DataOutput out, int value) throws IOException {
+        while ((value & ~0x7F) != 0) {
+            out.writeByte((value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        out.writeByte(value);
+    }
+
+    /**
+     * Escribe un entero largo en LEB128.
+     */
+    private static void writeVarLong(DataOutput out, long value) throws IOException {
+        while ((value & ~0x7FL) != 0) {
+            out.writeByte((int) (value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        out.writeByte((int) value);
+    }
+
+    /**
+     * Lee un entero escrito con writeVarInt.
+     */
+    private static int readVarInt(DataInput in) throws IOException {
+        int value = 0;
+        for (int shift = 0; shift < 35; shift += 7) {
+            int b = in.readUnsignedByte();
+            value |= (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return value;
+            }
+        }
+        throw new IOException("Entero mal codificado en la instantánea");
+    }
+
+    /**
+     * Lee un entero largo escrito con writeVarLong.
+     */
+    private static long readVarLong(DataInput in) throws IOException {
+        long value = 0;
+        for (int shift = 0; shift < 70; shift += 7) {
+            int b = in.readUnsignedByte();
+            value |= (long) (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return value;
+            }
+        }
+        throw new IOException("Entero mal codificado en la instantánea");
+    }
+
+    /**
+     * Convierte la etiqueta guardada de una categoría, reportando las
+     * desconocidas como error de formato.
+     */
+    private static SymbolCategory readCategory(String label) throws IOException {
+        try {
+            return SymbolCategory.fromLabel(label);
+        } catch (IllegalArgumentException e) {
+            throw new IOException(e.getMessage());
+        }
+    }
+
+    /**
+     * Lee una posición en una sección ya leída y rechaza las que quedan
+     * fuera de ella, de modo que una instantánea dañada se reporta como
+     * error de formato.
+     *
+     * @param limit Número de posiciones válidas
+     * @param what  Nombre de la sección para el mensaje de error
+     */
+    private static int readIndex(DataInput in, int limit, String what) throws IOException {
+        int index = readVarInt(in);
+        if (index < 0 || index >= limit) {
+            throw new IOException("Índice de " + what + " fuera de rango en la instantánea: " + index);
+        }
+        return index;
+    }
+
+    /**
+     * Lee un número de elementos y rechaza los valores negativos y los que
+     * no caben en los bytes restantes, ya que cada elemento ocupa al menos
+     * un byte.
+     */
+    private static int readCount(DataInputStream in) throws IOException {
+        int count = readVarInt(in);
+        if (count < 0 || count > in.available()) {
+            throw new IOException("Número de elementos inválido en la instantánea: " + count);
+        }
+        return count;
+    }
+
+    /**
+     * Lee una dimensión de array y rechaza los valores negativos.
+     */
+    private static int readDimension(DataInput in) throws IOException {
+        int dim = readVarInt(in);
+        if (dim < 0) {
+            throw new IOException("Dimensión inválida en la instantánea: " + dim);
+        }
+        return dim;
+    }
+}
@@ -3,8 +3,8 @@ import src.symbol.SymbolTable;
 
 public interface Type {
     String getName();
-    short getItems();
-    short getTam();
+    long getItems();
+    long getTam();
     int getParenId();
     SymbolTable getParentStruct();
 }
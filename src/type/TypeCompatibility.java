@@ -0,0 +1,325 @@
+package src.type;
+
+import java.util.Arrays;
+import java.util.Iterator;
+
+import src.main.Config;
+import src.symbol.Symbol;
+import src.symbol.SymbolTable;
+
+/**
+ * Equivalencia y compatibilidad entre los tipos de una tabla.
+ *
+ * - Equivalencia por nombre: el mismo ID, o dos tipos con el mismo nombre.
+ * - Equivalencia estructural: dos arrays con las mismas dimensiones y tipos
+ *   base equivalentes, o dos estructuras con el mismo número de campos y
+ *   campos equivalentes en el mismo orden, sin importar sus nombres. Los
+ *   tipos primitivos solo son equivalentes a sí mismos.
+ * - Compatibilidad: un tipo se puede usar donde se espera otro si son
+ *   estructuralmente equivalentes o si la matriz de promociones entre
+ *   primitivos lo permite (int a float cuesta una promoción).
+ *
+ * Las matrices de promoción y de resultado aritmético se indexan con los
+ * IDs de Config.TypeIds. Los resultados estructurales se guardan por par de
+ * IDs, así que comparar de nuevo los mismos tipos cuesta una búsqueda en
+ * una tabla de dispersión sin boxing. La tabla de tipos descarta lo
+ * guardado cuando elimina o libera tipos.
+ *
+ * @author etnicst
+ */
+public class TypeCompatibility {
+
+    private static final int PRIMITIVES = Math.max(Config.TypeIds.INT,
+            Math.max(Config.TypeIds.FLOAT, Config.TypeIds.VOID)) + 1;
+
+    /**
+     * Promociones necesarias para pasar de un primitivo (fila) a otro
+     * (columna), o -1 si no se puede.
+     */
+    private static final int[][] PROMOTION = new int[PRIMITIVES][PRIMITIVES];
+
+    /**
+     * Tipo del resultado de una operación aritmética entre dos primitivos,
+     * o -1 si la operación no es válida.
+     */
+    private static final int[][] ARITHMETIC = new int[PRIMITIVES][PRIMITIVES];
+
+    static {
+        for (int[] row : PROMOTION) {
+            Arrays.fill(row, -1);
+        }
+        for (int[] row : ARITHMETIC) {
+            Arrays.fill(row, -1);
+        }
+        PROMOTION[Config.TypeIds.INT][Config.TypeIds.INT] = 0;
+        PROMOTION[Config.TypeIds.FLOAT][Config.TypeIds.FLOAT] = 0;
+        PROMOTION[Config.TypeIds.VOID][Config.TypeIds.VOID] = 0;
+        PROMOTION[Config.TypeIds.INT][Config.TypeIds.FLOAT] = 1;
+
+        ARITHMETIC[Config.TypeIds.INT][Config.TypeIds.INT] = Config.TypeIds.INT;
+        ARITHMETIC[Config.TypeIds.INT][Config.TypeIds.FLOAT] = Config.TypeIds.FLOAT;
+        ARITHMETIC[Config.TypeIds.FLOAT][Config.TypeIds.INT] = Config.TypeIds.FLOAT;
+        ARITHMETIC[Config.TypeIds.FLOAT][Config.TypeIds.FLOAT] = Config.TypeIds.FLOAT;
+    }
+
+    private static final int EQUIVALENT = 1;
+
+    private static final int DIFFERENT = 0;
+
+    private static final int IN_PROGRESS = 2;
+
+    private final TypeTableImpl typeTable;
+
+    private final PairMap equivalences = new PairMap();
+
+    private final PairMap costs = new PairMap();
+
+    /**
+     * Constructor que crea un servicio sin comparaciones guardadas.
+     *
+     * @param typeTable Tabla de tipos cuyos tipos se comparan
+     */
+    public TypeCompatibility(TypeTableImpl typeTable) {
+        this.typeTable = typeTable;
+    }
+
+    /**
+     * Obtiene las promociones necesarias para pasar de un tipo primitivo a
+     * otro según la matriz de promociones.
+     *
+     * @param from ID del tipo de origen
+     * @param to   ID del tipo de destino
+     * @return Número de promociones, o -1 si alguno no es primitivo o la
+     *         conversión no está permitida
+     */
+    public static int promotionCost(int from, int to) {
+        if (from < 0 || from >= PRIMITIVES || to < 0 || to >= PRIMITIVES) {
+            return -1;
+        }
+        return PROMOTION[from][to];
+    }
+
+    /**
+     * Obtiene el tipo del resultado de una operación aritmética entre dos
+     * tipos primitivos.
+     *
+     * @param left  ID del tipo del operando izquierdo
+     * @param right ID del tipo del operando derecho
+     * @return ID del tipo del resultado, o -1 si la operación no es válida
+     */
+    public static int arithmeticResult(int left, int right) {
+        if (left < 0 || left >= PRIMITIVES || right < 0 || right >= PRIMITIVES) {
+            return -1;
+        }
+        return ARITHMETIC[left][right];
+    }
+
+    /**
+     * Verifica si dos tipos son equivalentes por nombre.
+     *
+     * @param a ID del primer tipo
+     * @param b ID del segundo tipo
+     * @return true si son el mismo tipo o tienen el mismo nombre
+     */
+    public boolean nameEquivalent(int a, int b) {
+        if (a == b) {
+            return true;
+        }
+        String name = typeTable.getName(a);
+        return !name.isEmpty() && name.equals(typeTable.getName(b));
+    }
+
+    /**
+     * Verifica si dos tipos son estructuralmente equivalentes.
+     *
+     * @param a ID del primer tipo
+     * @param b ID del segundo tipo
+     * @return true si tienen la misma forma
+     */
+    public boolean structurallyEquivalent(int a, int b) {
+        if (a == b) {
+            return true;
+        }
+        long key = a < b ? pairKey(a, b) : pairKey(b, a);
+        int cached = equivalences.get(key);
+        if (cached == IN_PROGRESS) {
+            // Una comparación que vuelve sobre sí misma se supone cierta;
+            // si alguna otra parte difiere, el resultado final será falso.
+            return true;
+        }
+        if (cached != PairMap.MISSING) {
+            return cached == EQUIVALENT;
+        }
+        equivalences.put(key, IN_PROGRESS);
+        boolean equivalent = compare(a, b);
+        equivalences.put(key, equivalent ? EQUIVALENT : DIFFERENT);
+        return equivalent;
+    }
+
+    /**
+     * Obtiene las conversiones necesarias para usar un valor de un tipo
+     * donde se espera otro.
+     *
+     * @param from ID del tipo del valor
+     * @param to   ID del tipo esperado
+     * @return 0 si son equivalentes, el número de promociones si la matriz
+     *         lo permite, o -1 si no son compatibles
+     */
+    public int conversionCost(int from, int to) {
+        if (from == to) {
+            return 0;
+        }
+        long key = pairKey(from, to);
+        int cached = costs.get(key);
+        if (cached != PairMap.MISSING) {
+            return cached;
+        }
+        int cost = promotionCost(from, to);
+        if (cost < 0 && structurallyEquivalent(from, to)) {
+            cost = 0;
+        }
+        costs.put(key, cost);
+        return cost;
+    }
+
+    /**
+     * Verifica si un valor de un tipo se puede usar donde se espera otro.
+     *
+     * @param from ID del tipo del valor
+     * @param to   ID del tipo esperado
+     * @return true si son compatibles
+     */
+    public boolean isAssignable(int from, int to) {
+        return conversionCost(from, to) >= 0;
+    }
+
+    /**
+     * Descarta todas las comparaciones guardadas.
+     */
+    public void clear() {
+        equivalences.clear();
+        costs.clear();
+    }
+
+    /**
+     * Compara la forma de dos tipos distintos.
+     */
+    private boolean compare(int a, int b) {
+        if (typeTable.getName(a).isEmpty() || typeTable.getName(b).isEmpty()
+                || a < PRIMITIVES || b < PRIMITIVES) {
+            return false;
+        }
+
+        int baseA = typeTable.getParenId(a);
+        int baseB = typeTable.getParenId(b);
+        if (baseA >= 0 || baseB >= 0) {
+            return baseA >= 0 && baseB >= 0
+                    && Arrays.equals(dimsOf(a), dimsOf(b))
+                    && structurallyEquivalent(baseA, baseB);
+        }
+
+        SymbolTable membersA = typeTable.getParentStruct(a);
+        SymbolTable membersB = typeTable.getParentStruct(b);
+        if (membersA == null || membersB == null) {
+            return membersA == membersB && nameEquivalent(a, b);
+        }
+        if (membersA.getSymbols().size() != membersB.getSymbols().size()) {
+            return false;
+        }
+        Iterator<Symbol> fieldsB = membersB.getSymbols().values().iterator();
+        for (Symbol field : membersA.getSymbols().values()) {
+            if (!structurallyEquivalent(field.getType(), fieldsB.next().getType())) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Obtiene las dimensiones de un array. Un array que no está en el
+     * índice de formas se trata como de una sola dimensión.
+     */
+    private int[] dimsOf(int typeId) {
+        int[] dims = typeTable.getArrayIndex().dimsOf(typeId);
+        return dims != null ? dims : new int[] { (int) Math.min(typeTable.getItems(typeId), Integer.MAX_VALUE) };
+    }
+
+    /**
+     * Combina dos IDs en una clave de 64 bits.
+     */
+    private static long pairKey(int a, int b) {
+        return (long) a << 32 | (b & 0xFFFFFFFFL);
+    }
+
+    /**
+     * Mapa de direccionamiento abierto de pares de IDs a enteros pequeños,
+     * sin boxing de las claves.
+     */
+    private static final class PairMap {
+
+        static final int MISSING = Integer.MIN_VALUE;
+
+        private long[] keys = new long[16];
+
+        private int[] values = new int[16];
+
+        private boolean[] used = new boolean[16];
+
+        private int count;
+
+        int get(long key) {
+            int mask = keys.length - 1;
+            for (int i = mix(key) & mask; used[i]; i = (i + 1) & mask) {
+                if (keys[i] == key) {
+                    return values[i];
+                }
+            }
+            return MISSING;
+        }
+
+        void put(long key, int value) {
+            if ((count + 1) << 1 > keys.length) {
+                rehash(keys.length << 1);
+            }
+            int mask = keys.length - 1;
+            int i = mix(key) & mask;
+            for (; used[i]; i = (i + 1) & mask) {
+                if (keys[i] == key) {
+                    values[i] = value;
+                    return;
+                }
+            }
+            keys[i] = key;
+            values[i] = value;
+            used[i] = true;
+            count++;
+        }
+
+        void clear() {
+            if (count > 0) {
+                Arrays.fill(used, false);
+                count = 0;
+            }
+        }
+
+        private void rehash(int capacity) {
+            long[] oldKeys = keys;
+            int[] oldValues = values;
+            boolean[] oldUsed = used;
+            keys = new long[capacity];
+            values = new int[capacity];
+            used = new boolean[capacity];
+            count = 0;
+            for (int i = 0; i < oldKeys.length; i++) {
+                if (oldUsed[i]) {
+                    put(oldKeys[i], oldValues[i]);
+                }
+            }
+        }
+
+        private static int mix(long key) {
+            long h = key * 0x9E3779B97F4A7C15L;
+            return (int) (h ^ h >>> 32);
+        }
+    }
+}
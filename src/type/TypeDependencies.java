@@ -0,0 +1,140 @@
+package src.type;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.List;
+
+import src.symbol.Symbol;
+import src.symbol.SymbolTable;
+
+/**
+ * Grafo de dependencias por valor entre los tipos de una tabla: un array
+ * depende de su tipo base y una estructura de los tipos de sus campos. Una
+ * referencia adelantada depende de la estructura que la define, a través
+ * de la tabla de miembros que devuelve la tabla de tipos.
+ *
+ * {@link TypeLayout} recorre este mismo grafo en profundidad al calcular
+ * un tamaño, así que cada tipo se distribuye después de todos los que
+ * contiene. Aquí se busca si un tipo llega a contenerse a sí mismo antes de
+ * que su definición entre en la tabla.
+ *
+ * @author steve-quezada
+ */
+final class TypeDependencies {
+
+    private final TypeTable typeTable;
+
+    /**
+     * Constructor que crea el grafo de una tabla de tipos.
+     *
+     * @param typeTable Tabla de tipos cuyas dependencias se recorren
+     */
+    TypeDependencies(TypeTable typeTable) {
+        this.typeTable = typeTable;
+    }
+
+    /**
+     * Busca un camino de contención por valor desde alguno de los tipos
+     * indicados hasta un tipo objetivo.
+     *
+     * @param target ID del tipo que no debe alcanzarse
+     * @param roots  IDs de los tipos desde los que se busca
+     * @param count  Número de IDs válidos en roots
+     * @return Nombres de los tipos del camino, terminando en el objetivo, o
+     *         null si no existe
+     */
+    List<String> pathTo(int target, int[] roots, int count) {
+        BitSet visited = new BitSet();
+        List<String> path = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            if (visit(roots[i], target, visited, path)) {
+                return path;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Busca los tipos que contienen por valor a un tipo objetivo,
+     * directamente o a través de otros tipos. Cada tipo se recorre una sola
+     * vez.
+     *
+     * @param target ID del tipo contenido
+     * @return IDs de los tipos que lo contienen, sin incluir al objetivo
+     */
+    BitSet containersOf(int target) {
+        BitSet visited = new BitSet();
+        BitSet containers = new BitSet();
+        int count = typeTable.size();
+        for (int id = 0; id < count; id++) {
+            reaches(id, target, visited, containers);
+        }
+        containers.clear(target);
+        return containers;
+    }
+
+    /**
+     * Indica si un tipo llega al objetivo, dejando marcados en containers
+     * los tipos ya recorridos que llegan.
+     */
+    private boolean reaches(int id, int target, BitSet visited, BitSet containers) {
+        if (id == target) {
+            return true;
+        }
+        if (id < 0 || visited.get(id)) {
+            return id >= 0 && containers.get(id);
+        }
+        visited.set(id);
+        boolean found = false;
+        int parentId = typeTable.getParenId(id);
+        if (parentId >= 0) {
+            found = reaches(parentId, target, visited, containers);
+        } else {
+            SymbolTable members = typeTable.getParentStruct(id);
+            if (members != null) {
+                for (Symbol member : members.getSymbols().values()) {
+                    if (reaches(member.getType(), target, visited, containers)) {
+                        found = true;
+                    }
+                }
+            }
+        }
+        if (found) {
+            containers.set(id);
+        }
+        return found;
+    }
+
+    /**
+     * Recorre en profundidad las dependencias de un tipo, dejando en el
+     * camino los tipos que llevan al objetivo.
+     */
+    private boolean visit(int id, int target, BitSet visited, List<String> path) {
+        if (id == target) {
+            path.add(typeTable.getName(id));
+            return true;
+        }
+        if (id < 0 || visited.get(id)) {
+            return false;
+        }
+        visited.set(id);
+        path.add(typeTable.getName(id));
+        int parentId = typeTable.getParenId(id);
+        if (parentId >= 0) {
+            if (visit(parentId, target, visited, path)) {
+                return true;
+            }
+        } else {
+            SymbolTable members = typeTable.getParentStruct(id);
+            if (members != null) {
+                for (Symbol member : members.getSymbols().values()) {
+                    if (visit(member.getType(), target, visited, path)) {
+                        return true;
+                    }
+                }
+            }
+        }
+        path.remove(path.size() - 1);
+        return false;
+    }
+}
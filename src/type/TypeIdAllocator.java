@@ -0,0 +1,256 @@
+package src.type;
+
+import java.util.Arrays;
+
+/**
+ * Asignador de IDs de tipo. Lleva un mapa de bits con los IDs ocupados y
+ * reparte dos clases de ID:
+ *
+ * - Estructuras: el menor ID libre a partir del inicio de su rango. Un
+ *   cursor recuerda hasta dónde todo está ocupado, así que el mapa de bits
+ *   se recorre de a 64 IDs y cada palabra llena se salta una sola vez. Los
+ *   IDs liberados por debajo del cursor van a un montículo de libres y se
+ *   reutilizan primero, del menor al mayor.
+ * - Derivados (arrays y tipos con nombre): el siguiente ID al final de la
+ *   tabla, a partir del inicio de su rango.
+ *
+ * Ningún rango tiene un límite superior: la tabla crece cuando hace falta.
+ * Los IDs por debajo del rango de estructuras solo se ocupan de forma
+ * explícita con {@link #claim(int)}, como los de los tipos primitivos.
+ *
+ * @author steve-quezada
+ */
+final class TypeIdAllocator {
+
+    private final int firstStructId;
+
+    private final int firstDerivedId;
+
+    private long[] used;
+
+    private int size;
+
+    private int structCursor;
+
+    private int[] free;
+
+    private int freeCount;
+
+    /**
+     * Constructor que crea un asignador sin IDs ocupados.
+     *
+     * @param firstStructId  Primer ID que puede recibir una estructura
+     * @param firstDerivedId Primer ID que puede recibir un tipo derivado
+     */
+    TypeIdAllocator(int firstStructId, int firstDerivedId) {
+        if (firstStructId < 0 || firstDerivedId < 0) {
+            throw new IllegalArgumentException("Los rangos de IDs de tipo no pueden empezar en un ID negativo");
+        }
+        this.firstStructId = firstStructId;
+        this.firstDerivedId = firstDerivedId;
+        this.used = new long[Math.max(1, (Math.max(firstStructId, firstDerivedId) >>> 6) + 1)];
+        this.free = new int[8];
+        clear();
+    }
+
+    /**
+     * Obtiene el primer ID del rango de los tipos derivados.
+     *
+     * @return Primer ID que puede recibir un array o un tipo con nombre
+     */
+    int getFirstDerivedId() {
+        return firstDerivedId;
+    }
+
+    /**
+     * Obtiene el número de IDs de la tabla, ocupados o no.
+     *
+     * @return Uno más que el mayor ID asignado o reservado
+     */
+    int size() {
+        return size;
+    }
+
+    /**
+     * Verifica si un ID está ocupado.
+     *
+     * @param id ID de tipo
+     * @return true si el ID está asignado
+     */
+    boolean isAllocated(int id) {
+        int word = id >>> 6;
+        return id >= 0 && word < used.length && (used[word] & 1L << id) != 0;
+    }
+
+    /**
+     * Asigna el menor ID libre del rango de estructuras.
+     *
+     * @return ID asignado
+     */
+    int allocateStruct() {
+        while (freeCount > 0) {
+            int id = pollFree();
+            if (id < structCursor && !isAllocated(id)) {
+                claim(id);
+                return id;
+            }
+        }
+        int id = nextClear(structCursor);
+        structCursor = id + 1;
+        claim(id);
+        return id;
+    }
+
+    /**
+     * Asigna el siguiente ID al final de la tabla para un tipo derivado.
+     *
+     * @return ID asignado
+     */
+    int allocateDerived() {
+        int id = Math.max(size, firstDerivedId);
+        claim(id);
+        return id;
+    }
+
+    /**
+     * Marca como ocupado un ID concreto, ampliando la tabla si hace falta.
+     *
+     * @param id ID de tipo
+     */
+    void claim(int id) {
+        ensureCapacity(id + 1);
+        used[id >>> 6] |= 1L << id;
+        if (id >= size) {
+            size = id + 1;
+        }
+    }
+
+    /**
+     * Libera un ID ocupado. Si está dentro del rango de estructuras queda
+     * disponible para la siguiente estructura; los tipos derivados siempre
+     * se agregan al final, así que nunca reciben un ID liberado.
+     *
+     * @param id ID de tipo
+     */
+    void release(int id) {
+        if (!isAllocated(id)) {
+            return;
+        }
+        used[id >>> 6] &= ~(1L << id);
+        if (id >= firstStructId && id < structCursor) {
+            pushFree(id);
+        }
+    }
+
+    /**
+     * Amplía la tabla con IDs libres hasta el tamaño indicado.
+     *
+     * @param newSize Número de IDs que debe tener como mínimo
+     */
+    void reserve(int newSize) {
+        if (newSize > size) {
+            ensureCapacity(newSize);
+            size = newSize;
+        }
+    }
+
+    /**
+     * Descarta los IDs a partir del tamaño indicado.
+     *
+     * @param newSize Número de IDs que se conservan
+     */
+    void truncate(int newSize) {
+        if (newSize >= size) {
+            return;
+        }
+        int word = newSize >>> 6;
+        if ((newSize & 63) != 0) {
+            used[word] &= (1L << newSize) - 1;
+            word++;
+        }
+        Arrays.fill(used, word, (size + 63) >>> 6, 0L);
+        size = newSize;
+        structCursor = Math.max(firstStructId, Math.min(structCursor, newSize));
+    }
+
+    /**
+     * Libera todos los IDs.
+     */
+    void clear() {
+        Arrays.fill(used, 0L);
+        size = 0;
+        structCursor = firstStructId;
+        freeCount = 0;
+    }
+
+    /**
+     * Busca el primer ID libre a partir del indicado. Los IDs fuera de la
+     * tabla siempre están libres.
+     */
+    private int nextClear(int from) {
+        int word = from >>> 6;
+        if (word >= used.length) {
+            return from;
+        }
+        long bits = ~used[word] & (-1L << from);
+        while (bits == 0) {
+            if (++word == used.length) {
+                return word << 6;
+            }
+            bits = ~used[word];
+        }
+        return (word << 6) + Long.numberOfTrailingZeros(bits);
+    }
+
+    /**
+     * Amplía el mapa de bits para que quepan los IDs indicados.
+     */
+    private void ensureCapacity(int ids) {
+        int words = (ids + 63) >>> 6;
+        if (words > used.length) {
+            used = Arrays.copyOf(used, Math.max(used.length << 1, words));
+        }
+    }
+
+    /**
+     * Agrega un ID al montículo de libres.
+     */
+    private void pushFree(int id) {
+        if (freeCount == free.length) {
+            free = Arrays.copyOf(free, freeCount << 1);
+        }
+        int i = freeCount++;
+        while (i > 0) {
+            int parent = (i - 1) >>> 1;
+            if (free[parent] <= id) {
+                break;
+            }
+            free[i] = free[parent];
+            i = parent;
+        }
+        free[i] = id;
+    }
+
+    /**
+     * Saca el menor ID del montículo de libres.
+     */
+    private int pollFree() {
+        int min = free[0];
+        int last = free[--freeCount];
+        int i = 0;
+        int half = freeCount >>> 1;
+        while (i < half) {
+            int child = (i << 1) + 1;
+            if (child + 1 < freeCount && free[child + 1] < free[child]) {
+                child++;
+            }
+            if (last <= free[child]) {
+                break;
+            }
+            free[i] = free[child];
+            i = child;
+        }
+        free[i] = last;
+        return min;
+    }
+}
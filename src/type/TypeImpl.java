@@ -10,15 +10,15 @@ import src.symbol.SymbolTable;
  */
 public class TypeImpl implements Type {
 
-    private String name;
+    private final String name;
 
-    private short items;
+    private final long items;
 
-    private short tam;
+    private final long tam;
 
-    private int parentId;
+    private final int parentId;
 
-    private SymbolTable parentStruct;
+    private final SymbolTable parentStruct;
 
     /**
      * Constructor que inicializa un nuevo tipo con todos sus atributos.
@@ -29,7 +29,7 @@ public class TypeImpl implements Type {
      * @param parentId     ID del tipo padre (-1 si no tiene)
      * @param parentStruct Tabla de símbolos para estructuras (null si no es estructura)
      */
-    public TypeImpl(String name, short items, short tam, int parentId, SymbolTable parentStruct) {
+    public TypeImpl(String name, long items, long tam, int parentId, SymbolTable parentStruct) {
         this.name = name;
         this.items = items;
         this.tam = tam;
@@ -53,7 +53,7 @@ public class TypeImpl implements Type {
      * @return Número de elementos, 1 para tipos no array
      */
     @Override
-    public short getItems() {
+    public long getItems() {
         return items;
     }
 
@@ -63,7 +63,7 @@ public class TypeImpl implements Type {
      * @return Tamaño en bytes
      */
     @Override
-    public short getTam() {
+    public long getTam() {
         return tam;
     }
 
@@ -0,0 +1,293 @@
+package src.type;
+
+import java.util.Arrays;
+import java.util.Map;
+
+import src.symbol.Symbol;
+import src.symbol.SymbolTable;
+
+/**
+ * Motor de distribución en memoria de los tipos. Calcula tamaños,
+ * alineaciones y desplazamientos de campos con aritmética de 64 bits,
+ * detecta desbordamientos y guarda el resultado por ID de tipo para no
+ * recalcularlo.
+ *
+ * Los tipos primitivos se alinean a su propio tamaño, los arrays heredan la
+ * alineación de su tipo base y las estructuras la del campo más exigente;
+ * cada campo se coloca en el siguiente múltiplo de su alineación y el
+ * tamaño de la estructura se redondea a la suya.
+ *
+ * @author steve-quezada
+ */
+public class TypeLayout {
+
+    private static final long UNKNOWN = -1;
+
+    private static final long IN_PROGRESS = -2;
+
+    private static final long[] NO_OFFSETS = new long[0];
+
+    private final TypeTable typeTable;
+
+    private long[] sizes;
+
+    private int[] alignments;
+
+    private long[][] fieldOffsets;
+
+    /**
+     * Distribución calculada de un conjunto de campos.
+     */
+    public static final class StructLayout {
+
+        private final long[] offsets;
+
+        private final long size;
+
+        private final int alignment;
+
+        StructLayout(long[] offsets, long size, int alignment) {
+            this.offsets = offsets;
+            this.size = size;
+            this.alignment = alignment;
+        }
+
+        /**
+         * Obtiene el desplazamiento de cada campo en orden de declaración.
+         *
+         * @return Desplazamientos en bytes
+         */
+        public long[] getOffsets() {
+            return offsets;
+        }
+
+        /**
+         * Obtiene el tamaño total, incluido el relleno final.
+         *
+         * @return Tamaño en bytes
+         */
+        public long getSize() {
+            return size;
+        }
+
+        /**
+         * Obtiene la alineación de la estructura.
+         *
+         * @return Alineación en bytes
+         */
+        public int getAlignment() {
+            return alignment;
+        }
+    }
+
+    /**
+     * Constructor que crea un motor vacío para una tabla de tipos.
+     *
+     * @param typeTable Tabla de tipos cuyos tipos se distribuyen
+     */
+    public TypeLayout(TypeTable typeTable) {
+        this.typeTable = typeTable;
+        this.sizes = new long[16];
+        this.alignments = new int[16];
+        this.fieldOffsets = new long[16][];
+        Arrays.fill(sizes, UNKNOWN);
+    }
+
+    /**
+     * Obtiene el tamaño en bytes de un tipo.
+     *
+     * @param id ID del tipo
+     * @return Tamaño en bytes, 0 si el tipo no existe
+     */
+    public long sizeOf(int id) {
+        if (id < 0) return 0;
+        ensure(id);
+        return sizes[id];
+    }
+
+    /**
+     * Obtiene la alineación en bytes de un tipo.
+     *
+     * @param id ID del tipo
+     * @return Alineación en bytes, 1 si el tipo no existe
+     */
+    public int alignmentOf(int id) {
+        if (id < 0) return 1;
+        ensure(id);
+        return alignments[id];
+    }
+
+    /**
+     * Obtiene los desplazamientos de los campos de una estructura en orden
+     * de declaración.
+     *
+     * @param id ID del tipo estructura
+     * @return Desplazamientos en bytes, vacío si el tipo no es estructura
+     */
+    public long[] fieldOffsetsOf(int id) {
+        if (id < 0) return NO_OFFSETS;
+        ensure(id);
+        return fieldOffsets[id] != null ? fieldOffsets[id] : NO_OFFSETS;
+    }
+
+    /**
+     * Calcula la distribución de una lista de campos.
+     *
+     * @param fieldTypes IDs de los tipos de los campos en orden
+     * @param count      Número de campos válidos en fieldTypes
+     * @param name       Nombre de la estructura, para los mensajes de error
+     * @return Distribución de los campos
+     * @throws IllegalStateException Si algún tamaño desborda 64 bits
+     */
+    public StructLayout layoutFields(int[] fieldTypes, int count, String name) {
+        long[] offsets = new long[count];
+        long offset = 0;
+        int alignment = 1;
+        try {
+            for (int i = 0; i < count; i++) {
+                int fieldAlignment = alignmentOf(fieldTypes[i]);
+                offset = alignUp(offset, fieldAlignment);
+                offsets[i] = offset;
+                offset = Math.addExact(offset, sizeOf(fieldTypes[i]));
+                alignment = Math.max(alignment, fieldAlignment);
+            }
+            return new StructLayout(offsets, alignUp(offset, alignment), alignment);
+        } catch (ArithmeticException e) {
+            throw overflow(name);
+        }
+    }
+
+    /**
+     * Calcula el tamaño de un array a partir de su tipo base.
+     *
+     * @param baseTypeId ID del tipo base
+     * @param items      Número total de elementos
+     * @param name       Nombre del array, para los mensajes de error
+     * @return Tamaño en bytes
+     * @throws IllegalStateException Si el tamaño desborda 64 bits
+     */
+    public long arraySize(int baseTypeId, long items, String name) {
+        try {
+            return Math.multiplyExact(sizeOf(baseTypeId), items);
+        } catch (ArithmeticException e) {
+            throw overflow(name);
+        }
+    }
+
+    /**
+     * Guarda la distribución ya calculada de una estructura recién creada.
+     *
+     * @param id     ID del tipo estructura
+     * @param layout Distribución de sus campos
+     */
+    public void record(int id, StructLayout layout) {
+        grow(id);
+        sizes[id] = layout.size;
+        alignments[id] = layout.alignment;
+        fieldOffsets[id] = layout.offsets;
+    }
+
+    /**
+     * Descarta la distribución guardada de un tipo.
+     *
+     * @param id ID del tipo
+     */
+    public void invalidate(int id) {
+        if (id >= 0 && id < sizes.length) {
+            sizes[id] = UNKNOWN;
+            fieldOffsets[id] = null;
+        }
+    }
+
+    /**
+     * Descarta todas las distribuciones guardadas.
+     */
+    public void clear() {
+        Arrays.fill(sizes, UNKNOWN);
+        Arrays.fill(fieldOffsets, null);
+    }
+
+    /**
+     * Calcula la distribución de un tipo si aún no está guardada.
+     */
+    private void ensure(int id) {
+        grow(id);
+        if (sizes[id] >= 0) {
+            return;
+        }
+        if (sizes[id] == IN_PROGRESS) {
+            throw new IllegalStateException("El tipo " + typeTable.getName(id) + " se contiene a sí mismo");
+        }
+
+        String name = typeTable.getName(id);
+        if (name == null || name.isEmpty()) {
+            sizes[id] = 0;
+            alignments[id] = 1;
+            return;
+        }
+
+        SymbolTable members = typeTable.getParentStruct(id);
+        int parentId = typeTable.getParenId(id);
+        sizes[id] = IN_PROGRESS;
+        try {
+            if (members != null) {
+                record(id, layoutMembers(members, name));
+            } else if (parentId >= 0) {
+                long size = arraySize(parentId, typeTable.getItems(id), name);
+                alignments[id] = alignmentOf(parentId);
+                sizes[id] = size;
+            } else {
+                long size = typeTable.getTam(id);
+                alignments[id] = (int) Math.min(8, Math.max(1, Long.highestOneBit(size)));
+                sizes[id] = size;
+            }
+        } finally {
+            if (sizes[id] == IN_PROGRESS) {
+                sizes[id] = UNKNOWN;
+            }
+        }
+    }
+
+    /**
+     * Calcula la distribución de los miembros de una estructura existente.
+     */
+    private StructLayout layoutMembers(SymbolTable members, String name) {
+        Map<String, Symbol> symbols = members.getSymbols();
+        int[] fieldTypes = new int[symbols.size()];
+        int i = 0;
+        for (Symbol member : symbols.values()) {
+            fieldTypes[i++] = member.getType();
+        }
+        return layoutFields(fieldTypes, fieldTypes.length, name);
+    }
+
+    /**
+     * Amplía los arreglos de resultados para incluir el ID indicado.
+     */
+    private void grow(int id) {
+        if (id < sizes.length) {
+            return;
+        }
+        int capacity = Math.max(sizes.length << 1, id + 1);
+        int old = sizes.length;
+        sizes = Arrays.copyOf(sizes, capacity);
+        alignments = Arrays.copyOf(alignments, capacity);
+        fieldOffsets = Arrays.copyOf(fieldOffsets, capacity);
+        Arrays.fill(sizes, old, capacity, UNKNOWN);
+    }
+
+    /**
+     * Redondea un desplazamiento al siguiente múltiplo de la alineación.
+     */
+    private static long alignUp(long offset, int alignment) {
+        long mask = alignment - 1L;
+        return Math.addExact(offset, mask) & ~mask;
+    }
+
+    /**
+     * Crea el error que se reporta cuando un tamaño desborda 64 bits.
+     */
+    private static IllegalStateException overflow(String name) {
+        return new IllegalStateException("El tamaño del tipo " + name + " excede el rango de 64 bits");
+    }
+}
@@ -0,0 +1,114 @@
+package src.type;
+
+import src.symbol.SymbolTable;
+
+/**
+ * Almacenamiento de los atributos de los tipos indexado por ID. Permite a
+ * TypeTableImpl guardar los tipos como columnas de valores primitivos en
+ * lugar de un objeto por tipo, de modo que leer un atributo es leer una
+ * posición de un arreglo o de un búfer.
+ *
+ * Los IDs que nunca se asignaron, como los reservados antes de
+ * FIRST_STRUCT_TYPE, existen pero están vacíos: contains() devuelve false y
+ * los getters devuelven null, 0 o -1.
+ *
+ * @author steve-quezada
+ */
+public interface TypeStore {
+
+    /**
+     * Obtiene el número de IDs del almacenamiento, incluidos los vacíos.
+     *
+     * @return Número de IDs
+     */
+    int size();
+
+    /**
+     * Agrega un tipo al final.
+     *
+     * @param name     Nombre del tipo
+     * @param items    Número de elementos
+     * @param tam      Tamaño en bytes
+     * @param parentId ID del tipo padre, -1 si no tiene
+     * @param members  Tabla de miembros de una estructura, o null
+     * @return ID asignado
+     */
+    int add(String name, long items, long tam, int parentId, SymbolTable members);
+
+    /**
+     * Guarda un tipo en un ID concreto, ampliando el almacenamiento con IDs
+     * vacíos si hace falta.
+     *
+     * @param id       ID del tipo
+     * @param name     Nombre del tipo
+     * @param items    Número de elementos
+     * @param tam      Tamaño en bytes
+     * @param parentId ID del tipo padre, -1 si no tiene
+     * @param members  Tabla de miembros de una estructura, o null
+     */
+    void set(int id, String name, long items, long tam, int parentId, SymbolTable members);
+
+    /**
+     * Amplía el almacenamiento con IDs vacíos hasta el tamaño indicado.
+     *
+     * @param size Número de IDs que debe tener como mínimo
+     */
+    void reserve(int size);
+
+    /**
+     * Verifica si un ID tiene un tipo guardado.
+     *
+     * @param id ID dentro de [0, size())
+     * @return true si el ID no está vacío
+     */
+    boolean contains(int id);
+
+    /**
+     * @param id ID dentro de [0, size())
+     * @return Nombre del tipo, null si el ID está vacío
+     */
+    String getName(int id);
+
+    /**
+     * @param id ID dentro de [0, size())
+     * @return Número de elementos, 0 si el ID está vacío
+     */
+    long getItems(int id);
+
+    /**
+     * @param id ID dentro de [0, size())
+     * @return Tamaño en bytes, 0 si el ID está vacío
+     */
+    long getTam(int id);
+
+    /**
+     * @param id ID dentro de [0, size())
+     * @return ID del tipo padre, -1 si no tiene o el ID está vacío
+     */
+    int getParentId(int id);
+
+    /**
+     * @param id ID dentro de [0, size())
+     * @return Tabla de miembros, null si no es estructura o el ID está vacío
+     */
+    SymbolTable getMembers(int id);
+
+    /**
+     * Vacía un ID sin cambiar el tamaño del almacenamiento.
+     *
+     * @param id ID dentro de [0, size())
+     */
+    void remove(int id);
+
+    /**
+     * Descarta los IDs a partir del tamaño indicado.
+     *
+     * @param size Número de IDs que se conservan
+     */
+    void truncate(int size);
+
+    /**
+     * Elimina todos los tipos.
+     */
+    void clear();
+}
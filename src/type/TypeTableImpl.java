@@ -1,61 +1,306 @@
 package src.type;
 import java.util.*;
 
+import src.lexer.Keywords;
 import src.main.Config;
 import src.symbol.Symbol;
+import src.symbol.SymbolCategory;
 import src.symbol.SymbolImpl;
 import src.symbol.SymbolTable;
 import src.symbol.SymbolTableImpl;
+import src.util.IntList;
 
 /**
  * Implementación de la tabla de tipos que gestiona los diferentes tipos de datos
  * en el programa, incluyendo tipos primitivos, arrays y estructuras.
  *
+ * Los atributos de los tipos se guardan en un {@link TypeStore} indexado por
+ * ID: por defecto en arreglos paralelos del heap ({@link HeapTypeStore}) y,
+ * para tablas muy grandes, fuera del heap ({@link DirectTypeStore}). Los IDs
+ * los reparte un {@link TypeIdAllocator}: las estructuras ocupan el menor ID
+ * libre de su rango y los arrays y tipos con nombre se agregan al final.
+ *
+ * Un nombre que se usa antes de declararse recibe un tipo con nombre sin
+ * miembros, que hace de referencia adelantada. Cuando después se declara
+ * la estructura de ese nombre, el nombre pasa a la estructura y la
+ * referencia se resuelve a ella; los tamaños y desplazamientos de los tipos
+ * que la contienen se vuelven a calcular al pedirlos, en orden de
+ * dependencias. Una estructura que llegaría a contenerse a sí misma se
+ * rechaza al declararla.
+ *
  * @author etnicst
  * @author steve-quezada
  */
 public class TypeTableImpl implements TypeTable {
-    
-    private List<TypeImpl> types;
+
+    private final TypeStore store;
+
+    private final TypeIdAllocator ids;
     
     private Map<String, Integer> typeNameToId;
 
+    private ArrayTypeIndex arrayIndex;
+
+    private TypeLayout layout;
+
+    private final MemberPathResolver paths;
+
+    private final TypeCompatibility compatibility;
+
+    private final IntList filledHoles;
+
+    private final Map<String, Integer> forwardReferences;
+
+    private final TypeDependencies dependencies;
+
+    /**
+     * Estado de la tabla en un momento del análisis, al que se puede volver
+     * con {@link #rollback(Mark)}.
+     */
+    public static final class Mark {
+
+        final int size;
+
+        final int arrays;
+
+        final int holes;
+
+        Mark(int size, int arrays, int holes) {
+            this.size = size;
+            this.arrays = arrays;
+            this.holes = holes;
+        }
+
+        /**
+         * Verifica si otra marca describe una tabla con los mismos IDs
+         * ocupados y las mismas formas de array registradas.
+         *
+         * @param other Marca a comparar
+         * @return true si ambas tablas tienen la misma forma
+         */
+        public boolean sameShape(Mark other) {
+            return size == other.size && arrays == other.arrays && holes == other.holes;
+        }
+    }
+
+    /**
+     * Tipos y formas de array creados entre dos marcas, con sus atributos,
+     * para compararlos o aplicarlos de nuevo sin repetir el análisis.
+     */
+    public static final class Changes {
+
+        private final int[] ids;
+
+        private final String[] names;
+
+        private final long[] items;
+
+        private final long[] tams;
+
+        private final int[] parents;
+
+        private final SymbolTable[] members;
+
+        private final boolean[] named;
+
+        private final int[] arrayBases;
+
+        private final int[][] arrayDims;
+
+        private final int[] arrayTypes;
+
+        Changes(int typeCount, int arrayCount) {
+            ids = new int[typeCount];
+            names = new String[typeCount];
+            items = new long[typeCount];
+            tams = new long[typeCount];
+            parents = new int[typeCount];
+            members = new SymbolTable[typeCount];
+            named = new boolean[typeCount];
+            arrayBases = new int[arrayCount];
+            arrayDims = new int[arrayCount][];
+            arrayTypes = new int[arrayCount];
+        }
+
+        /**
+         * Une varios tramos consecutivos en uno solo, con los tipos
+         * ordenados por ID como los devuelve
+         * {@link TypeTableImpl#changesBetween(Mark, Mark)}.
+         *
+         * @param parts Tramos en orden
+         * @return Tramo equivalente a todos ellos
+         */
+        public static Changes merge(List<Changes> parts) {
+            int typeCount = 0;
+            int arrayCount = 0;
+            for (Changes part : parts) {
+                typeCount += part.ids.length;
+                arrayCount += part.arrayTypes.length;
+            }
+            long[] order = new long[typeCount];
+            int n = 0;
+            for (int p = 0; p < parts.size(); p++) {
+                int[] partIds = parts.get(p).ids;
+                for (int i = 0; i < partIds.length; i++) {
+                    order[n] = (long) partIds[i] << 32 | n;
+                    n++;
+                }
+            }
+            Arrays.sort(order);
+
+            Changes merged = new Changes(typeCount, arrayCount);
+            Changes[] owner = new Changes[typeCount];
+            int[] position = new int[typeCount];
+            n = 0;
+            for (Changes part : parts) {
+                for (int i = 0; i < part.ids.length; i++, n++) {
+                    owner[n] = part;
+                    position[n] = i;
+                }
+            }
+            for (int i = 0; i < typeCount; i++) {
+                int source = (int) order[i];
+                Changes part = owner[source];
+                int j = position[source];
+                merged.ids[i] = part.ids[j];
+                merged.names[i] = part.names[j];
+                merged.items[i] = part.items[j];
+                merged.tams[i] = part.tams[j];
+                merged.parents[i] = part.parents[j];
+                merged.members[i] = part.members[j];
+                merged.named[i] = part.named[j];
+            }
+            int a = 0;
+            for (Changes part : parts) {
+                for (int i = 0; i < part.arrayTypes.length; i++, a++) {
+                    merged.arrayBases[a] = part.arrayBases[i];
+                    merged.arrayDims[a] = part.arrayDims[i];
+                    merged.arrayTypes[a] = part.arrayTypes[i];
+                }
+            }
+            return merged;
+        }
+
+        /**
+         * Verifica si otro tramo creó exactamente los mismos tipos, con los
+         * mismos IDs, atributos y miembros, y las mismas formas de array.
+         *
+         * @param other Tramo a comparar
+         * @return true si ambos tramos dejan la tabla igual
+         */
+        public boolean sameAs(Changes other) {
+            if (!Arrays.equals(ids, other.ids) || !Arrays.equals(names, other.names)
+                    || !Arrays.equals(items, other.items) || !Arrays.equals(tams, other.tams)
+                    || !Arrays.equals(parents, other.parents) || !Arrays.equals(named, other.named)
+                    || !Arrays.equals(arrayBases, other.arrayBases) || !Arrays.equals(arrayTypes, other.arrayTypes)
+                    || !Arrays.deepEquals(arrayDims, other.arrayDims)) {
+                return false;
+            }
+            for (int i = 0; i < members.length; i++) {
+                if (!sameMembers(members[i], other.members[i])) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        /**
+         * Compara los miembros de dos estructuras por nombre, tipo y
+         * desplazamiento, en orden de declaración.
+         */
+        private static boolean sameMembers(SymbolTable a, SymbolTable b) {
+            if (a == b) {
+                return true;
+            }
+            if (a == null || b == null || a.getSymbols().size() != b.getSymbols().size()) {
+                return false;
+            }
+            Iterator<Map.Entry<String, Symbol>> other = b.getSymbols().entrySet().iterator();
+            for (Map.Entry<String, Symbol> entry : a.getSymbols().entrySet()) {
+                Map.Entry<String, Symbol> match = other.next();
+                if (!entry.getKey().equals(match.getKey())
+                        || entry.getValue().getType() != match.getValue().getType()
+                        || entry.getValue().getDir() != match.getValue().getDir()) {
+                    return false;
+                }
+            }
+            return true;
+        }
+    }
+
     /**
      * Constructor que inicializa la tabla de tipos y registra los tipos básicos.
      */
     public TypeTableImpl() {
-        this.types = new ArrayList<>();
+        this(new HeapTypeStore());
+    }
+
+    /**
+     * Constructor que inicializa la tabla de tipos sobre el almacenamiento
+     * indicado y registra los tipos básicos.
+     *
+     * @param store Almacenamiento vacío de los atributos de los tipos
+     */
+    public TypeTableImpl(TypeStore store) {
+        this(store, Config.TypeIds.FIRST_STRUCT_TYPE, Config.TypeIds.FIRST_DERIVED_TYPE);
+    }
+
+    /**
+     * Constructor que inicializa la tabla de tipos con rangos de IDs
+     * propios y registra los tipos básicos. Los rangos solo fijan el primer
+     * ID de cada clase; ninguno tiene límite superior.
+     *
+     * @param store          Almacenamiento vacío de los atributos de los tipos
+     * @param firstStructId  Primer ID que puede recibir una estructura
+     * @param firstDerivedId Primer ID de los arrays y tipos con nombre
+     */
+    public TypeTableImpl(TypeStore store, int firstStructId, int firstDerivedId) {
+        this.store = store;
+        this.ids = new TypeIdAllocator(firstStructId, firstDerivedId);
         this.typeNameToId = new LinkedHashMap<>();
+        this.arrayIndex = new ArrayTypeIndex();
+        this.layout = new TypeLayout(this);
+        this.paths = new MemberPathResolver(this);
+        this.compatibility = new TypeCompatibility(this);
+        this.filledHoles = new IntList();
+        this.forwardReferences = new HashMap<>();
+        this.dependencies = new TypeDependencies(this);
         initializeBasicTypes();
     }
 
     /**
-     * Inicializa los tipos básicos (int y float) en la tabla.
+     * Inicializa los tipos básicos (int y float) en la tabla y reserva los
+     * IDs anteriores al rango de los tipos derivados.
      */
     private void initializeBasicTypes() {
-        while (types.size() <= Config.TypeIds.FIRST_STRUCT_TYPE) {
-            types.add(null);
-        }
-        
-        types.set(Config.TypeIds.INT, 
-            new TypeImpl("int", (short)1, (short)Config.TypeSizes.INT_SIZE, -1, null));
-        types.set(Config.TypeIds.FLOAT, 
-            new TypeImpl("float", (short)1, (short)Config.TypeSizes.FLOAT_SIZE, -1, null));
+        ids.claim(Config.TypeIds.INT);
+        ids.claim(Config.TypeIds.FLOAT);
+        ids.reserve(ids.getFirstDerivedId());
+        store.reserve(ids.size());
+
+        store.set(Config.TypeIds.INT, Config.DefaultTypes.INT, 1, Config.TypeSizes.INT_SIZE, -1, null);
+        store.set(Config.TypeIds.FLOAT, Config.DefaultTypes.FLOAT, 1, Config.TypeSizes.FLOAT_SIZE, -1, null);
         
         typeNameToId.put("int", Config.TypeIds.INT);
         typeNameToId.put("float", Config.TypeIds.FLOAT);
     }
 
     /**
-     * Obtiene el tamaño en bytes de un tipo.
+     * Obtiene el tamaño en bytes de un tipo. El de los arrays y las
+     * estructuras lo da el motor de distribución, que lo guarda al crear el
+     * tipo y lo vuelve a calcular si cambió alguna referencia adelantada de
+     * la que depende.
      *
      * @param id Identificador del tipo
      * @return Tamaño en bytes del tipo, 0 si el tipo no existe
      */
     @Override
-    public int getTam(int id) {
-        if (id < 0 || id >= types.size()) return 0;
-        return types.get(id).getTam();
+    public long getTam(int id) {
+        if (id < 0 || id >= store.size()) return 0;
+        if (store.getParentId(id) >= 0 || getParentStruct(id) != null) {
+            return layout.sizeOf(id);
+        }
+        return store.getTam(id);
     }
 
     /**
@@ -65,9 +310,9 @@ public class TypeTableImpl implements TypeTable {
      * @return Número de elementos, 0 si el tipo no existe
      */
     @Override
-    public int getItems(int id) {
-        if (id < 0 || id >= types.size()) return 0;
-        return types.get(id).getItems();
+    public long getItems(int id) {
+        if (id < 0 || id >= store.size()) return 0;
+        return store.getItems(id);
     }
 
     /**
@@ -78,8 +323,8 @@ public class TypeTableImpl implements TypeTable {
      */
     @Override
     public String getName(int id) {
-        if (id < 0 || id >= types.size()) return "";
-        return types.get(id).getName();
+        if (id < 0 || id >= store.size() || !store.contains(id)) return "";
+        return store.getName(id);
     }
 
     /**
@@ -90,40 +335,64 @@ public class TypeTableImpl implements TypeTable {
      */
     @Override
     public int getParenId(int id) {
-        if (id < 0 || id >= types.size()) return -1;
-        return types.get(id).getParenId();
+        if (id < 0 || id >= store.size()) return -1;
+        return store.getParentId(id);
     }
 
     /**
-     * Obtiene la tabla de símbolos asociada a una estructura.
+     * Obtiene la tabla de símbolos asociada a una estructura. Para una
+     * referencia adelantada ya resuelta, devuelve la de la estructura que
+     * la define.
      *
      * @param id Identificador del tipo estructura
      * @return Tabla de símbolos de la estructura, null si no es una estructura
      */
     @Override
     public SymbolTable getParentStruct(int id) {
-        if (id < 0 || id >= types.size()) return null;
-        return types.get(id).getParentStruct();
+        if (id < 0 || id >= store.size()) return null;
+        SymbolTable members = store.getMembers(id);
+        if (members == null && isForwardReference(id)) {
+            Integer definition = typeNameToId.get(store.getName(id));
+            if (definition != null && definition != id) {
+                return store.getMembers(definition);
+            }
+        }
+        return members;
     }
 
     /**
      * Obtiene un tipo por su identificador.
-     * Devuelve un Optional que contiene el tipo si existe.
+     * Devuelve un Optional que contiene el tipo si existe. El tipo se arma a
+     * partir del almacenamiento en cada llamada; para leer un solo atributo
+     * conviene usar los getters por ID.
      *
      * @param id Identificador del tipo a buscar
      * @return Optional con el tipo si existe, Optional.empty() si no existe
      */
     @Override
     public Optional<Type> getType(int id) {
-        if (id < 0 || id >= types.size() || types.get(id) == null) {
+        if (id < 0 || id >= store.size() || !store.contains(id)) {
             return Optional.empty();
         }
-        return Optional.of(types.get(id));
+        return Optional.of(new TypeImpl(store.getName(id), store.getItems(id), getTam(id),
+                store.getParentId(id), store.getMembers(id)));
+    }
+
+    /**
+     * Obtiene el número de IDs de tipo asignados, incluidos los reservados.
+     *
+     * @return Número de IDs de tipo de la tabla
+     */
+    @Override
+    public int size() {
+        return store.size();
     }
 
     /**
      * Añade un nuevo tipo a la tabla con tamaño y padre especificados.
-     * Si el tipo ya existe, retorna su ID existente.
+     * Si el tipo ya existe, retorna su ID existente. Un tipo sin padre que
+     * no es primitivo queda como referencia adelantada hasta que se declare
+     * una estructura con su nombre.
      *
      * @param name Nombre del tipo a añadir
      * @param items Número de elementos para tipos array
@@ -136,11 +405,15 @@ public class TypeTableImpl implements TypeTable {
             return typeNameToId.get(name);
         }
 
-        int baseSize = getBaseSize(name);
-        TypeImpl type = new TypeImpl(name, (short)items, (short)(baseSize * items), parent, null);
-        types.add(type);
-        int id = types.size() - 1;
+        long size = parent >= 0
+                ? layout.arraySize(parent, items, name)
+                : (long) getBaseSize(name) * items;
+        int id = ids.allocateDerived();
+        setType(id, name, items, size, parent, null);
         typeNameToId.put(name, id);
+        if (parent < 0) {
+            forwardReferences.put(name, id);
+        }
         return id;
     }
 
@@ -154,9 +427,18 @@ public class TypeTableImpl implements TypeTable {
      */
     @Override
     public int addType(String name, SymbolTable parent) {
-        TypeImpl type = new TypeImpl(name, (short)1, (short)0, -1, parent);
-        types.add(type);
-        return types.size() - 1;
+        Collection<Symbol> members = parent.getSymbols().values();
+        int[] fieldTypes = new int[members.size()];
+        int i = 0;
+        for (Symbol member : members) {
+            fieldTypes[i++] = member.getType();
+        }
+        TypeLayout.StructLayout structLayout = layout.layoutFields(fieldTypes, fieldTypes.length, name);
+
+        int id = ids.allocateDerived();
+        setType(id, name, 1, structLayout.getSize(), -1, parent);
+        layout.record(id, structLayout);
+        return id;
     }
 
     /**
@@ -167,12 +449,14 @@ public class TypeTableImpl implements TypeTable {
      * @return Tamaño en bytes del tipo primitivo
      */
     private int getBaseSize(String name) {
-        if (Config.DefaultTypes.INT.equals(name)) {
-            return Config.TypeSizes.INT_SIZE;
-        } else if (Config.DefaultTypes.FLOAT.equals(name)) {
-            return Config.TypeSizes.FLOAT_SIZE;
+        switch (Keywords.classify(name, 0, name.length())) {
+            case INT:
+                return Config.TypeSizes.INT_SIZE;
+            case FLOAT:
+                return Config.TypeSizes.FLOAT_SIZE;
+            default:
+                return 0;
         }
-        return 0;
     }
 
     /**
@@ -186,26 +470,53 @@ public class TypeTableImpl implements TypeTable {
         int baseTypeId = findTypeByName(baseTypeName);
         if (baseTypeId < 0) return -1;
 
-        String arrayName = baseTypeName + "[" + size + "]";
-        if (typeNameToId.containsKey(arrayName)) {
-            return typeNameToId.get(arrayName);
+        return internArrayType(baseTypeId, new int[] { size }, 1);
+    }
+
+    /**
+     * Obtiene el tipo array con el tipo base y las dimensiones indicadas,
+     * creándolo solo si esa forma no se había declarado. Es la única ruta
+     * por la que se asignan IDs a los tipos array: las formas se identifican
+     * por su estructura en el índice de arrays, y el nombre como int[10][20]
+     * solo se construye cuando el tipo es nuevo.
+     *
+     * @param baseTypeId ID del tipo base
+     * @param dims Dimensiones del array
+     * @param count Número de dimensiones válidas en dims
+     * @return ID del tipo array
+     */
+    public int internArrayType(int baseTypeId, int[] dims, int count) {
+        int existing = arrayIndex.find(baseTypeId, dims, count);
+        if (existing >= 0) {
+            return existing;
         }
 
-        int id = Config.TypeIds.FIRST_ARRAY_TYPE;
-        while (id < Config.TypeIds.FIRST_STRUCT_TYPE && types.get(id) != null) {
-            id++;
+        StringBuilder arrayName = new StringBuilder(getName(baseTypeId));
+        for (int i = 0; i < count; i++) {
+            arrayName.append("[").append(dims[i]).append("]");
         }
+        String name = arrayName.toString();
 
-        int baseSize = getTam(baseTypeId);
-        TypeImpl type = new TypeImpl(arrayName, (short)size, 
-                                   (short)(baseSize * size), 
-                                   baseTypeId, null);
-        
-        while (types.size() <= id) {
-            types.add(null);
+        long totalItems = 1;
+        try {
+            for (int i = 0; i < count; i++) {
+                totalItems = Math.multiplyExact(totalItems, (long) dims[i]);
+            }
+        } catch (ArithmeticException e) {
+            throw new IllegalStateException("El número de elementos de " + name + " excede el rango de 64 bits");
         }
-        types.set(id, type);
-        typeNameToId.put(arrayName, id);
+
+        Integer namedId = typeNameToId.get(name);
+        int id;
+        if (namedId != null) {
+            id = namedId;
+        } else {
+            long size = layout.arraySize(baseTypeId, totalItems, name);
+            id = ids.allocateDerived();
+            setType(id, name, totalItems, size, baseTypeId, null);
+            typeNameToId.put(name, id);
+        }
+        arrayIndex.add(baseTypeId, dims, count, id);
         return id;
     }
 
@@ -235,8 +546,8 @@ public class TypeTableImpl implements TypeTable {
             return typeNameToId.get(name);
         }
         
-        for (int i = 0; i < types.size(); i++) {
-            if (types.get(i) != null && name.equals(types.get(i).getName())) {
+        for (int i = 0; i < store.size(); i++) {
+            if (store.contains(i) && name.equals(store.getName(i))) {
                 typeNameToId.put(name, i);
                 return i;
             }
@@ -252,19 +563,27 @@ public class TypeTableImpl implements TypeTable {
      * @return ID del tipo array creado
      */
     public int createMultiDimArrayType(String baseTypeName, List<Integer> dimensions) {
+        IntList dims = new IntList(dimensions.size());
+        for (Integer dim : dimensions) {
+            dims.add(dim);
+        }
+        return createMultiDimArrayType(baseTypeName, dims);
+    }
+
+    /**
+     * Crea un tipo de array multidimensional a partir de dimensiones
+     * primitivas. Si la forma ya existe no reserva memoria.
+     *
+     * @param baseTypeName Nombre del tipo base
+     * @param dimensions Dimensiones del array
+     * @return ID del tipo array
+     */
+    public int createMultiDimArrayType(String baseTypeName, IntList dimensions) {
         int baseTypeId = findTypeByName(baseTypeName);
         if (baseTypeId < 0) {
             baseTypeId = addType(baseTypeName, 1, -1);
         }
-        
-        int totalSize = 1;
-        StringBuilder arrayName = new StringBuilder(baseTypeName);
-        for (Integer dim : dimensions) {
-            totalSize *= dim;
-            arrayName.append("[").append(dim).append("]");
-        }
-        
-        return addType(arrayName.toString(), totalSize, baseTypeId);
+        return internArrayType(baseTypeId, dimensions.array(), dimensions.size());
     }
 
     /**
@@ -277,47 +596,191 @@ public class TypeTableImpl implements TypeTable {
     public int createStructType(String name, Map<String, Symbol> fields) {
         
         Integer existingId = typeNameToId.get(name);
-        if (existingId != null) {
+        if (existingId != null && !isForwardReference(existingId)) {
             return existingId;
         }
 
-        int id = Config.TypeIds.FIRST_STRUCT_TYPE;
-        while (id < types.size() && types.get(id) != null) {
-            id++;
+        int[] fieldTypes = new int[fields.size()];
+        int i = 0;
+        for (Symbol field : fields.values()) {
+            fieldTypes[i++] = field.getType();
+        }
+        if (existingId != null) {
+            List<String> cycle = dependencies.pathTo(existingId, fieldTypes, fieldTypes.length);
+            if (cycle != null) {
+                throw new IllegalStateException("La estructura " + name + " se contiene a sí misma: "
+                        + name + " -> " + String.join(" -> ", cycle));
+            }
+        }
+        TypeLayout.StructLayout structLayout = layout.layoutFields(fieldTypes, fieldTypes.length, name);
+        long[] offsets = structLayout.getOffsets();
+
+        i = 0;
+        for (String field : fields.keySet()) {
+            if (offsets[i++] > Integer.MAX_VALUE) {
+                throw new IllegalStateException("El desplazamiento del campo " + field
+                        + " de " + name + " excede el rango de una dirección");
+            }
         }
 
+        int id = ids.allocateStruct();
         SymbolTable structTable = new SymbolTableImpl(this);
-        int offset = 0;
+        i = 0;
+        for (Map.Entry<String, Symbol> field : fields.entrySet()) {
+            structTable.insert(field.getKey(), new MemberSymbol(id, i, (int) offsets[i], field.getValue().getType()));
+            i++;
+        }
 
-        Map<String, Symbol> orderedFields = new LinkedHashMap<>(fields);
-        
-        for (Map.Entry<String, Symbol> field : orderedFields.entrySet()) {
-            Symbol fieldSymbol = new SymbolImpl(offset, field.getValue().getType(), "Miembro");
-            structTable.insert(field.getKey(), fieldSymbol);
-            offset += getTam(field.getValue().getType());
+        setType(id, name, 1, structLayout.getSize(), -1, structTable);
+        typeNameToId.put(name, id);
+        if (existingId != null) {
+            invalidateLayouts();
         }
+        layout.record(id, structLayout);
 
-        TypeImpl type = new TypeImpl(name, (short)1, (short)offset, -1, structTable);
-        
-        while (types.size() <= id) {
-            types.add(null);
+        if (existingId != null) {
+            // Las estructuras que ya contenían la referencia adelantada
+            // crecen con esta definición; si alguna queda fuera de rango, la
+            // definición se retira y el nombre vuelve a la referencia.
+            String container = oversizedContainerOf(existingId);
+            if (container != null) {
+                releaseType(id);
+                throw new IllegalStateException("Definir " + name + " hace que los campos de "
+                        + container + " excedan el rango de una dirección");
+            }
         }
-        types.set(id, type);
-        typeNameToId.put(name, id);
         
         return id;
     }
 
+    /**
+     * Busca una estructura que contenga al tipo indicado y cuyos campos,
+     * con las distribuciones actuales, queden fuera del rango de una
+     * dirección.
+     *
+     * @param id ID del tipo contenido
+     * @return Nombre de la estructura, o null si todas caben
+     */
+    private String oversizedContainerOf(int id) {
+        BitSet containers = dependencies.containersOf(id);
+        for (int c = containers.nextSetBit(0); c >= 0; c = containers.nextSetBit(c + 1)) {
+            if (store.getMembers(c) == null) {
+                continue;
+            }
+            try {
+                for (long offset : layout.fieldOffsetsOf(c)) {
+                    if (offset > Integer.MAX_VALUE) {
+                        return store.getName(c);
+                    }
+                }
+            } catch (IllegalStateException e) {
+                // El tamaño de algún campo desborda 64 bits.
+                return store.getName(c);
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Verifica si un tipo es una referencia adelantada: un tipo con nombre
+     * que no es primitivo, ni array, ni estructura.
+     *
+     * @param id ID del tipo
+     * @return true si el tipo se creó al usar un nombre aún no declarado
+     */
+    public boolean isForwardReference(int id) {
+        return id >= ids.getFirstDerivedId() && id < store.size() && store.contains(id)
+                && store.getParentId(id) < 0 && store.getMembers(id) == null;
+    }
+
+    /**
+     * Obtiene el tipo que representa un ID en la salida: para una
+     * referencia adelantada cuyo nombre ya tiene definición, el ID de la
+     * definición; para cualquier otro tipo, el mismo ID.
+     *
+     * @param id ID del tipo
+     * @return ID de la definición, o el mismo ID
+     */
+    @Override
+    public int resolveForwardReference(int id) {
+        if (isForwardReference(id)) {
+            Integer definition = typeNameToId.get(store.getName(id));
+            if (definition != null) {
+                return definition;
+            }
+        }
+        return id;
+    }
+
     /**
      * Obtiene el tamaño total de un tipo.
      *
      * @param typeId ID del tipo
      * @return Tamaño total en bytes
      */
-    public int getTypeSize(int typeId) {
-        if (typeId < 0 || typeId >= types.size()) return 0;
-        Type type = types.get(typeId);
-        return type.getTam();
+    public long getTypeSize(int typeId) {
+        return getTam(typeId);
+    }
+
+    /**
+     * Libera el ID de un tipo para que lo reutilice una estructura
+     * posterior. El tipo deja de existir junto con su nombre, su forma de
+     * array y su distribución calculada; quien lo libera debe asegurarse de
+     * que ningún símbolo ni tipo lo siga usando. Las liberaciones no se
+     * deshacen con {@link #rollback(Mark)}.
+     *
+     * @param id ID del tipo
+     * @return true si el tipo existía y se liberó; los tipos primitivos no
+     *         se liberan
+     */
+    public boolean releaseType(int id) {
+        if (id == Config.TypeIds.INT || id == Config.TypeIds.FLOAT
+                || id < 0 || id >= store.size() || !store.contains(id)) {
+            return false;
+        }
+        forgetType(id);
+        paths.clear();
+        compatibility.clear();
+        arrayIndex.release(id);
+        store.remove(id);
+        ids.release(id);
+        return true;
+    }
+
+    /**
+     * Obtiene el motor de distribución de la tabla, que expone alineaciones
+     * y desplazamientos de campos además de los tamaños.
+     *
+     * @return Motor de distribución de los tipos de esta tabla
+     */
+    public TypeLayout getLayout() {
+        return layout;
+    }
+
+    /**
+     * Resuelve una ruta de miembros e índices, como tables[2].columns, a
+     * partir de un tipo raíz, sin registrar tipos nuevos. Las rutas ya
+     * resueltas se guardan hasta que la tabla elimina o libera algún tipo.
+     *
+     * @param rootTypeId ID del tipo raíz
+     * @param path       Ruta de miembros separados por puntos e índices
+     *                   entre corchetes
+     * @return Tipo final y desplazamiento en bytes desde el inicio de la raíz
+     * @throws IllegalArgumentException Si la ruta no existe en el tipo raíz
+     */
+    public MemberPathResolver.Resolved resolveMemberPath(int rootTypeId, String path) {
+        return paths.resolve(rootTypeId, path);
+    }
+
+    /**
+     * Obtiene el servicio de equivalencia y compatibilidad de los tipos de
+     * esta tabla, que guarda las comparaciones ya hechas hasta que la tabla
+     * elimina o libera algún tipo.
+     *
+     * @return Servicio de compatibilidad de esta tabla
+     */
+    public TypeCompatibility getCompatibility() {
+        return compatibility;
     }
 
     /**
@@ -325,8 +788,279 @@ public class TypeTableImpl implements TypeTable {
      * Mantiene solo los tipos básicos.
      */
     public void reset() {
-        this.types.clear();
+        this.store.clear();
+        this.ids.clear();
         this.typeNameToId.clear();
+        this.arrayIndex.clear();
+        this.layout.clear();
+        this.paths.clear();
+        this.compatibility.clear();
+        this.filledHoles.clear();
+        this.forwardReferences.clear();
         initializeBasicTypes();
     }
+
+    /**
+     * Marca el estado actual de la tabla. Como los IDs se asignan al final
+     * o en huecos reservados, basta con recordar el tamaño, los huecos
+     * ocupados y las formas de array registradas.
+     *
+     * @return Marca del estado actual
+     */
+    public Mark mark() {
+        return new Mark(store.size(), arrayIndex.size(), filledHoles.size());
+    }
+
+    /**
+     * Elimina los tipos y las formas de array creados después de una marca,
+     * junto con sus nombres y sus distribuciones calculadas.
+     *
+     * @param mark Marca obtenida de esta tabla
+     */
+    public void rollback(Mark mark) {
+        paths.clear();
+        compatibility.clear();
+        for (int id = store.size() - 1; id >= mark.size; id--) {
+            forgetType(id);
+        }
+        store.truncate(mark.size);
+        ids.truncate(mark.size);
+        for (int i = filledHoles.size() - 1; i >= mark.holes; i--) {
+            int id = filledHoles.get(i);
+            if (id < store.size()) {
+                forgetType(id);
+                store.remove(id);
+                ids.release(id);
+            }
+        }
+        filledHoles.truncate(mark.holes);
+        arrayIndex.truncate(mark.arrays);
+    }
+
+    /**
+     * Extrae los tipos y las formas de array creados entre dos marcas.
+     * Debe llamarse antes de deshacer ese tramo.
+     *
+     * @param from Marca inicial
+     * @param to   Marca final
+     * @return Tipos y formas del tramo
+     */
+    public Changes changesBetween(Mark from, Mark to) {
+        IntList holes = new IntList();
+        for (int i = from.holes; i < to.holes; i++) {
+            if (filledHoles.get(i) < from.size) {
+                holes.add(filledHoles.get(i));
+            }
+        }
+        int[] sortedHoles = holes.toArray();
+        Arrays.sort(sortedHoles);
+        IntList created = new IntList(sortedHoles.length + to.size - from.size);
+        for (int id : sortedHoles) {
+            created.add(id);
+        }
+        for (int id = from.size; id < to.size; id++) {
+            if (store.contains(id)) {
+                created.add(id);
+            }
+        }
+
+        Changes changes = new Changes(created.size(), to.arrays - from.arrays);
+        for (int i = 0; i < created.size(); i++) {
+            int id = created.get(i);
+            String name = store.getName(id);
+            changes.ids[i] = id;
+            changes.names[i] = name;
+            changes.items[i] = store.getItems(id);
+            changes.tams[i] = store.getTam(id);
+            changes.parents[i] = store.getParentId(id);
+            changes.members[i] = store.getMembers(id);
+            changes.named[i] = Integer.valueOf(id).equals(typeNameToId.get(name));
+        }
+        for (int i = 0; i < changes.arrayTypes.length; i++) {
+            int entry = from.arrays + i;
+            changes.arrayBases[i] = arrayIndex.baseAt(entry);
+            changes.arrayDims[i] = arrayIndex.dimsAt(entry);
+            changes.arrayTypes[i] = arrayIndex.typeIdAt(entry);
+        }
+        return changes;
+    }
+
+    /**
+     * Aplica tipos y formas de array extraídos con
+     * {@link #changesBetween(Mark, Mark)}, en los mismos IDs que tenían.
+     *
+     * @param changes Tipos y formas a aplicar
+     */
+    public void apply(Changes changes) {
+        boolean rebound = false;
+        for (int i = 0; i < changes.ids.length; i++) {
+            int id = changes.ids[i];
+            setType(id, changes.names[i], changes.items[i], changes.tams[i], changes.parents[i], changes.members[i]);
+            if (changes.named[i]) {
+                Integer previous = typeNameToId.put(changes.names[i], id);
+                rebound |= previous != null && previous != id;
+            } else if (isForwardReference(id)) {
+                typeNameToId.putIfAbsent(changes.names[i], id);
+            }
+            if (isForwardReference(id)) {
+                forwardReferences.put(changes.names[i], id);
+            }
+            layout.invalidate(id);
+        }
+        if (rebound) {
+            invalidateLayouts();
+        }
+        for (int i = 0; i < changes.arrayTypes.length; i++) {
+            int[] dims = changes.arrayDims[i];
+            arrayIndex.add(changes.arrayBases[i], dims, dims.length, changes.arrayTypes[i]);
+        }
+    }
+
+    /**
+     * Guarda un tipo en un ID concreto, registrando si ocupa un hueco
+     * reservado para poder liberarlo al deshacer.
+     */
+    private void setType(int id, String name, long items, long tam, int parentId, SymbolTable members) {
+        if (id < store.size() && !store.contains(id)) {
+            filledHoles.add(id);
+        }
+        ids.claim(id);
+        store.set(id, name, items, tam, parentId, members);
+    }
+
+    /**
+     * Olvida el nombre y la distribución calculada de un tipo que se va a
+     * eliminar. Si el tipo definía una referencia adelantada que sigue en
+     * la tabla, el nombre vuelve a la referencia.
+     */
+    private void forgetType(int id) {
+        if (store.contains(id)) {
+            String name = store.getName(id);
+            if (Integer.valueOf(id).equals(forwardReferences.get(name))) {
+                forwardReferences.remove(name);
+            }
+            if (Integer.valueOf(id).equals(typeNameToId.get(name))) {
+                typeNameToId.remove(name);
+                Integer reference = forwardReferences.get(name);
+                if (reference != null) {
+                    typeNameToId.put(name, reference);
+                    invalidateLayouts();
+                }
+            }
+        }
+        layout.invalidate(id);
+    }
+
+    /**
+     * Descarta las distribuciones, rutas y comparaciones guardadas cuando
+     * un nombre cambia de tipo, porque los tipos que contienen su
+     * referencia adelantada cambian de forma.
+     */
+    private void invalidateLayouts() {
+        layout.clear();
+        paths.clear();
+        compatibility.clear();
+    }
+
+    /**
+     * Campo de una estructura. Su desplazamiento se lee del motor de
+     * distribución, de modo que se corrige solo cuando se resuelve una
+     * referencia adelantada que la estructura contiene; si la estructura ya
+     * no está en la tabla, se usa el calculado al declararla.
+     */
+    private final class MemberSymbol extends SymbolImpl {
+
+        private final int structId;
+
+        private final int index;
+
+        MemberSymbol(int structId, int index, int dir, int type) {
+            super(dir, type, SymbolCategory.MEMBER);
+            this.structId = structId;
+            this.index = index;
+        }
+
+        @Override
+        public int getDir() {
+            long[] offsets = layout.fieldOffsetsOf(structId);
+            if (index >= offsets.length) {
+                return super.getDir();
+            }
+            if (offsets[index] > Integer.MAX_VALUE) {
+                throw new IllegalStateException("El desplazamiento de un campo de " + getName(structId)
+                        + " excede el rango de una dirección");
+            }
+            return (int) offsets[index];
+        }
+    }
+
+    /**
+     * Obtiene el índice estructural de arrays, para serializarlo.
+     *
+     * @return Índice de tipos array de la tabla
+     */
+    ArrayTypeIndex getArrayIndex() {
+        return arrayIndex;
+    }
+
+    /**
+     * Obtiene la asociación de nombres con IDs de tipo, para serializarla.
+     *
+     * @return Mapa de nombres de tipo a IDs, en orden de registro
+     */
+    Map<String, Integer> getTypeNames() {
+        return Collections.unmodifiableMap(typeNameToId);
+    }
+
+    /**
+     * Coloca un tipo en un ID concreto al cargar una instantánea. Los IDs
+     * intermedios que falten quedan reservados.
+     *
+     * @param id       ID que tenía el tipo al guardarse
+     * @param name     Nombre del tipo
+     * @param items    Número de elementos
+     * @param tam      Tamaño en bytes
+     * @param parentId ID del tipo padre, -1 si no tiene
+     * @param members  Tabla de miembros de una estructura, o null
+     */
+    void restoreType(int id, String name, long items, long tam, int parentId, SymbolTable members) {
+        setType(id, name, items, tam, parentId, members);
+        if (isForwardReference(id)) {
+            forwardReferences.put(name, id);
+        }
+    }
+
+    /**
+     * Reserva IDs vacíos hasta el tamaño indicado al cargar una instantánea,
+     * para conservar los IDs reservados del final.
+     *
+     * @param size Número de IDs que debe tener la tabla
+     */
+    void restoreSize(int size) {
+        ids.reserve(size);
+        store.reserve(size);
+    }
+
+    /**
+     * Restablece la asociación de un nombre con su ID al cargar una
+     * instantánea.
+     *
+     * @param name Nombre del tipo
+     * @param id   ID del tipo
+     */
+    void restoreName(String name, int id) {
+        typeNameToId.put(name, id);
+    }
+
+    /**
+     * Registra de nuevo una forma de array al cargar una instantánea, para
+     * que las declaraciones posteriores la reutilicen.
+     *
+     * @param baseTypeId ID del tipo base
+     * @param dims       Dimensiones del array
+     * @param typeId     ID del tipo array
+     */
+    void restoreArray(int baseTypeId, int[] dims, int typeId) {
+        arrayIndex.add(baseTypeId, dims, dims.length, typeId);
+    }
 }
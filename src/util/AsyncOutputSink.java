@@ -0,0 +1,161 @@
+package src.util;
+
+import java.io.*;
+import java.util.Arrays;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CountDownLatch;
+
+/**
+ * Destino de salida que entrega cada lote a un hilo escritor en segundo
+ * plano. El hilo que produce la salida solo copia el lote a una cola
+ * acotada y sigue trabajando; si la terminal es más lenta que el
+ * analizador, la cola llena frena al productor en lugar de crecer sin
+ * límite.
+ *
+ * flush() espera a que el hilo escritor haya entregado todo lo anterior,
+ * así que después de llamarlo la salida está completa.
+ *
+ * @author steve-quezada
+ */
+public class AsyncOutputSink extends OutputSink {
+
+    private static final int QUEUE_CAPACITY = 16;
+
+    /**
+     * Lote pendiente. Un lote sin caracteres con latch es una petición de
+     * flush; uno sin caracteres ni latch detiene al hilo escritor.
+     */
+    private static final class Batch {
+
+        final char[] chars;
+
+        final CountDownLatch done;
+
+        Batch(char[] chars, CountDownLatch done) {
+            this.chars = chars;
+            this.done = done;
+        }
+    }
+
+    private final BlockingQueue<Batch> queue;
+
+    private final Thread writer;
+
+    private volatile IOException failure;
+
+    private boolean closed;
+
+    /**
+     * Constructor que crea el destino e inicia el hilo escritor.
+     *
+     * @param target    Writer que recibe los lotes desde el hilo escritor
+     * @param stripAnsi true para eliminar las secuencias ANSI
+     * @param capacity  Capacidad del búfer en caracteres
+     */
+    public AsyncOutputSink(Writer target, boolean stripAnsi, int capacity) {
+        super(target, stripAnsi, capacity);
+        this.queue = new ArrayBlockingQueue<>(QUEUE_CAPACITY);
+        this.writer = new Thread(this::writeLoop, "output-writer");
+        this.writer.setDaemon(true);
+        this.writer.start();
+    }
+
+    @Override
+    protected void drain(char[] chars, int length) throws IOException {
+        if (closed) {
+            throw new IOException("La salida ya está cerrada");
+        }
+        checkFailure();
+        enqueue(new Batch(Arrays.copyOf(chars, length), null));
+    }
+
+    @Override
+    protected void flushTarget() throws IOException {
+        if (closed) {
+            return;
+        }
+        CountDownLatch done = new CountDownLatch(1);
+        enqueue(new Batch(null, done));
+        try {
+            done.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrumpido al esperar la salida");
+        }
+        checkFailure();
+    }
+
+    @Override
+    protected void closeTarget() throws IOException {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        enqueue(new Batch(null, null));
+        try {
+            writer.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrumpido al cerrar la salida");
+        }
+        super.closeTarget();
+        checkFailure();
+    }
+
+    /**
+     * Cuerpo del hilo escritor: entrega los lotes en orden hasta recibir la
+     * señal de cierre. Tras un error descarta los lotes pero sigue
+     * atendiendo las peticiones de flush para no bloquear al productor.
+     */
+    private void writeLoop() {
+        Writer target = getTarget();
+        while (true) {
+            Batch batch;
+            try {
+                batch = queue.take();
+            } catch (InterruptedException e) {
+                return;
+            }
+            if (batch.chars == null && batch.done == null) {
+                return;
+            }
+            try {
+                if (failure == null) {
+                    if (batch.chars != null) {
+                        target.write(batch.chars);
+                    } else {
+                        target.flush();
+                    }
+                }
+            } catch (IOException e) {
+                failure = e;
+            }
+            if (batch.done != null) {
+                batch.done.countDown();
+            }
+        }
+    }
+
+    /**
+     * Pone un lote en la cola, esperando si está llena.
+     */
+    private void enqueue(Batch batch) throws IOException {
+        try {
+            queue.put(batch);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrumpido al escribir la salida");
+        }
+    }
+
+    /**
+     * Relanza en el hilo productor el error ocurrido en el hilo escritor.
+     */
+    private void checkFailure() throws IOException {
+        IOException e = failure;
+        if (e != null) {
+            throw e;
+        }
+    }
+}
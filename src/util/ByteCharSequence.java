@@ -0,0 +1,120 @@
+package src.util;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Vista de solo lectura de un ByteBuffer como secuencia de caracteres de un
+ * byte. No copia los datos: cada carácter se lee directamente del buffer, lo
+ * que permite recorrer un archivo mapeado en memoria sin cargarlo al heap.
+ *
+ * Solo es fiel para contenido ASCII; InputReader recurre a la decodificación
+ * completa cuando el archivo contiene otros bytes.
+ *
+ * @author steve-quezada
+ */
+public final class ByteCharSequence implements CharSequence {
+
+    private final ByteBuffer buffer;
+
+    private final int offset;
+
+    private final int length;
+
+    /**
+     * Constructor que crea una vista sobre todo el contenido del buffer.
+     *
+     * @param buffer Buffer con los bytes del texto
+     */
+    public ByteCharSequence(ByteBuffer buffer) {
+        this(buffer, 0, buffer.limit());
+    }
+
+    /**
+     * Constructor que crea una vista sobre un rango del buffer.
+     *
+     * @param buffer Buffer con los bytes del texto
+     * @param offset Posición absoluta del primer byte
+     * @param length Número de bytes de la vista
+     */
+    private ByteCharSequence(ByteBuffer buffer, int offset, int length) {
+        this.buffer = buffer;
+        this.offset = offset;
+        this.length = length;
+    }
+
+    /**
+     * Obtiene el número de caracteres de la vista.
+     *
+     * @return Longitud de la vista
+     */
+    @Override
+    public int length() {
+        return length;
+    }
+
+    /**
+     * Obtiene el carácter en la posición indicada.
+     *
+     * @param index Posición del carácter
+     * @return Carácter en esa posición
+     */
+    @Override
+    public char charAt(int index) {
+        if (index < 0 || index >= length) {
+            throw new IndexOutOfBoundsException("index " + index + ", length " + length);
+        }
+        return (char) (buffer.get(offset + index) & 0xFF);
+    }
+
+    /**
+     * Obtiene una subvista sin copiar los bytes.
+     *
+     * @param start Posición inicial, inclusiva
+     * @param end   Posición final, exclusiva
+     * @return Subvista del rango indicado
+     */
+    @Override
+    public CharSequence subSequence(int start, int end) {
+        if (start < 0 || end > length || start > end) {
+            throw new IndexOutOfBoundsException("start " + start + ", end " + end + ", length " + length);
+        }
+        return new ByteCharSequence(buffer, offset + start, end - start);
+    }
+
+    /**
+     * Copia el contenido de la vista a una cadena.
+     *
+     * @return Cadena con el contenido de la vista
+     */
+    @Override
+    public String toString() {
+        byte[] bytes = new byte[length];
+        for (int i = 0; i < length; i++) {
+            bytes[i] = buffer.get(offset + i);
+        }
+        return new String(bytes, StandardCharsets.ISO_8859_1);
+    }
+
+    /**
+     * Verifica si todos los bytes del buffer son ASCII.
+     *
+     * @param buffer Buffer a revisar
+     * @return true si ningún byte tiene el bit alto encendido
+     */
+    static boolean isAscii(ByteBuffer buffer) {
+        int limit = buffer.limit();
+        int i = 0;
+        for (; i + 8 <= limit; i += 8) {
+            if ((buffer.getLong(i) & 0x8080808080808080L) != 0) {
+                return false;
+            }
+        }
+        for (; i < limit; i++) {
+            if (buffer.get(i) < 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
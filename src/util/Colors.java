@@ -1,9 +1,16 @@
 package src.util;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
+
 /**
  * Clase que se encarga de guardar <strong>las cadenas de 
  * formato</strong> para la terminal.
  *
+ * Toda la salida pasa por un {@link OutputSink}: se acumula en un búfer y
+ * se entrega en lotes, así que quien espere una entrada del usuario debe
+ * llamar antes a {@link #flush()}.
+ *
  * @author Mindahrelfen
  * @author steve-quezada
  */
@@ -319,6 +326,66 @@ public class Colors {
      */
     public static final String BGD_GRAY = "\033[0;100m";
 
+    private static final String NEW_LINE = System.lineSeparator();
+
+    private static volatile OutputSink sink = OutputSink.standardOutput(false, false);
+
+    static {
+        Runtime.getRuntime().addShutdownHook(new Thread(Colors::flushQuietly, "output-flush"));
+    }
+
+    /**
+     * Reemplaza el destino de la salida. Lo pendiente en el destino anterior
+     * se entrega antes del cambio.
+     *
+     * @param newSink Nuevo destino de la salida.
+     */
+    public static void setSink(OutputSink newSink) {
+        flush();
+        sink = newSink;
+    }
+
+    /**
+     * Obtiene el destino actual de la salida.
+     *
+     * @return Destino de la salida.
+     */
+    public static OutputSink getSink() {
+        return sink;
+    }
+
+    /**
+     * Indica si la salida conserva los colores ANSI.
+     *
+     * @return true si el destino actual no elimina las secuencias ANSI.
+     */
+    public static boolean isAnsiEnabled() {
+        return !sink.stripsAnsi();
+    }
+
+    /**
+     * Entrega a la terminal todo lo escrito hasta ahora. Debe llamarse antes
+     * de esperar una entrada del usuario.
+     */
+    public static void flush() {
+        try {
+            sink.flush();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Entrega lo pendiente al terminar el programa, ignorando errores.
+     */
+    private static void flushQuietly() {
+        try {
+            sink.flush();
+        } catch (IOException e) {
+            // La salida ya no está disponible
+        }
+    }
+
     /**
      * Imprime la cadena <code>s</code> con el formato dado. 
      * Imprime con retorno de carro.
@@ -327,7 +394,7 @@ public class Colors {
      * @param format Formato a aplicar a dicha cadena.
      */
     public static final void println(Object s, String format) {
-        System.out.println(format + s + RESTORE);
+        write(s, format, true);
     }
 
     /**
@@ -338,6 +405,37 @@ public class Colors {
      * @param format Formato a aplicar a dicha cadena.
      */
     public static final void print(Object s, String format) {
-        System.out.print(format + s + RESTORE);
+        write(s, format, false);
+    }
+
+    /**
+     * Imprime un salto de línea.
+     */
+    public static final void println() {
+        try {
+            sink.write(NEW_LINE);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Escribe el formato, la cadena y la restauración en el destino sin
+     * concatenarlos.
+     */
+    private static void write(Object s, String format, boolean newLine) {
+        OutputSink out = sink;
+        try {
+            synchronized (out) {
+                out.write(format);
+                out.write(String.valueOf(s));
+                out.write(RESTORE);
+                if (newLine) {
+                    out.write(NEW_LINE);
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
     }
-}
\ No newline at end of file
+}
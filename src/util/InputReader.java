@@ -1,11 +1,20 @@
 package src.util;
 
 import java.io.*;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
 
 /**
  * Clase que maneja la lectura de archivos de entrada para el procesamiento
  * del código fuente. Proporciona una interfaz simplificada para leer archivos
- * línea por línea.
+ * línea por línea o completos.
+ *
+ * En modo mapeado el archivo se proyecta en memoria con FileChannel.map y su
+ * contenido se expone como una secuencia de caracteres que lee directamente
+ * de la proyección, sin copiarlo al heap.
  *
  * @author steve-quezada
  */
@@ -13,6 +22,10 @@ public class InputReader {
 
     private BufferedReader fileReader;
 
+    private CharSequence mappedContent;
+
+    private int mappedPosition;
+
     /**
      * Constructor que inicializa el lector de archivos.
      * Crea un nuevo BufferedReader para el archivo especificado.
@@ -21,7 +34,45 @@ public class InputReader {
      * @throws IOException Si ocurre un error al abrir el archivo
      */
     public InputReader(String filename) throws IOException {
-        this.fileReader = new BufferedReader(new FileReader(filename));
+        this(filename, false);
+    }
+
+    /**
+     * Constructor que inicializa el lector en el modo indicado.
+     *
+     * @param filename     La ruta del archivo a leer
+     * @param memoryMapped true para proyectar el archivo en memoria en lugar
+     *                     de leerlo con un BufferedReader
+     * @throws IOException Si ocurre un error al abrir o proyectar el archivo
+     */
+    public InputReader(String filename, boolean memoryMapped) throws IOException {
+        if (memoryMapped) {
+            this.mappedContent = map(filename);
+        } else {
+            this.fileReader = new BufferedReader(new FileReader(filename));
+        }
+    }
+
+    /**
+     * Proyecta el archivo en memoria. Si todo su contenido es ASCII se
+     * devuelve una vista sin copia; en otro caso se decodifica como UTF-8.
+     *
+     * @param filename La ruta del archivo a proyectar
+     * @return Contenido del archivo como secuencia de caracteres
+     * @throws IOException Si ocurre un error al proyectar el archivo
+     */
+    private static CharSequence map(String filename) throws IOException {
+        try (FileChannel channel = FileChannel.open(Paths.get(filename), StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size > Integer.MAX_VALUE) {
+                throw new IOException("El archivo es demasiado grande para proyectarse: " + filename);
+            }
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+            if (ByteCharSequence.isAscii(buffer)) {
+                return new ByteCharSequence(buffer);
+            }
+            return StandardCharsets.UTF_8.decode(buffer);
+        }
     }
 
     /**
@@ -33,7 +84,74 @@ public class InputReader {
      * @throws IOException Si ocurre un error durante la lectura
      */
     public String readLine() throws IOException {
-        return fileReader.readLine();
+        if (fileReader != null) {
+            return fileReader.readLine();
+        }
+
+        int length = mappedContent.length();
+        if (mappedPosition >= length) {
+            return null;
+        }
+        int start = mappedPosition;
+        int end = start;
+        while (end < length && mappedContent.charAt(end) != '\n') {
+            end++;
+        }
+        mappedPosition = end + 1;
+        if (end > start && mappedContent.charAt(end - 1) == '\r') {
+            end--;
+        }
+        return mappedContent.subSequence(start, end).toString();
+    }
+
+    /**
+     * Obtiene el contenido restante del archivo. En modo mapeado no copia
+     * los datos; en modo normal los acumula línea por línea.
+     *
+     * @return Contenido restante del archivo
+     * @throws IOException Si ocurre un error durante la lectura
+     */
+    public CharSequence readAll() throws IOException {
+        if (fileReader == null) {
+            CharSequence rest = mappedContent.subSequence(
+                    Math.min(mappedPosition, mappedContent.length()), mappedContent.length());
+            mappedPosition = mappedContent.length();
+            return rest;
+        }
+
+        StringBuilder input = new StringBuilder();
+        String line;
+        while ((line = fileReader.readLine()) != null) {
+            input.append(line).append("\n");
+        }
+        return input;
+    }
+
+    /**
+     * Lee el siguiente tramo del archivo, tal como está, sin separarlo en
+     * líneas. Sirve para procesar el archivo por partes mientras se lee.
+     *
+     * @param buffer Arreglo donde se copian los caracteres
+     * @param offset Posición del arreglo desde la que se copia
+     * @param length Máximo de caracteres a leer
+     * @return Número de caracteres leídos, o -1 al final del archivo
+     * @throws IOException Si ocurre un error durante la lectura
+     */
+    public int read(char[] buffer, int offset, int length) throws IOException {
+        if (fileReader != null) {
+            return fileReader.read(buffer, offset, length);
+        }
+
+        int available = mappedContent.length() - mappedPosition;
+        if (available <= 0) {
+            return -1;
+        }
+        int count = Math.min(length, available);
+        for (int i = 0; i < count; i++) {
+            buffer[offset + i] = mappedContent.charAt(mappedPosition + i);
+        }
+        mappedPosition += count;
+        return count;
     }
 
     /**
@@ -42,6 +160,9 @@ public class InputReader {
      * @throws IOException Si ocurre un error al cerrar el archivo
      */
     public void close() throws IOException {
-        fileReader.close();
+        if (fileReader != null) {
+            fileReader.close();
+        }
+        mappedContent = null;
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,113 @@
+package src.util;
+
+import java.util.Arrays;
+
+/**
+ * Lista dinámica de enteros primitivos. Evita el boxing de List&lt;Integer&gt;
+ * en las rutas donde se reutiliza la misma lista muchas veces, como las
+ * dimensiones de un array durante el análisis.
+ *
+ * @author steve-quezada
+ */
+public final class IntList {
+
+    private int[] values;
+
+    private int size;
+
+    /**
+     * Constructor que crea una lista vacía con capacidad por defecto.
+     */
+    public IntList() {
+        this(8);
+    }
+
+    /**
+     * Constructor que crea una lista vacía con la capacidad indicada.
+     *
+     * @param capacity Capacidad inicial
+     */
+    public IntList(int capacity) {
+        this.values = new int[Math.max(capacity, 1)];
+    }
+
+    /**
+     * Agrega un valor al final de la lista.
+     *
+     * @param value Valor a agregar
+     */
+    public void add(int value) {
+        if (size == values.length) {
+            values = Arrays.copyOf(values, size << 1);
+        }
+        values[size++] = value;
+    }
+
+    /**
+     * Obtiene el valor en una posición.
+     *
+     * @param index Posición del valor
+     * @return Valor en esa posición
+     */
+    public int get(int index) {
+        if (index >= size) {
+            throw new IndexOutOfBoundsException("index " + index + ", size " + size);
+        }
+        return values[index];
+    }
+
+    /**
+     * Obtiene el número de valores de la lista.
+     *
+     * @return Número de valores
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Verifica si la lista está vacía.
+     *
+     * @return true si no tiene valores
+     */
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * Descarta los valores a partir de una posición.
+     *
+     * @param newSize Número de valores que se conservan
+     */
+    public void truncate(int newSize) {
+        if (newSize < size) {
+            size = Math.max(newSize, 0);
+        }
+    }
+
+    /**
+     * Vacía la lista conservando su capacidad.
+     */
+    public void clear() {
+        size = 0;
+    }
+
+    /**
+     * Obtiene el arreglo interno. Solo las primeras size() posiciones son
+     * válidas y el arreglo no debe modificarse.
+     *
+     * @return Arreglo interno de la lista
+     */
+    public int[] array() {
+        return values;
+    }
+
+    /**
+     * Copia los valores de la lista a un arreglo nuevo.
+     *
+     * @return Arreglo con los valores de la lista
+     */
+    public int[] toArray() {
+        return Arrays.copyOf(values, size);
+    }
+}
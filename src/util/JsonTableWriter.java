@@ -0,0 +1,208 @@
+package src.util;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+import src.symbol.Symbol;
+import src.symbol.SymbolCategory;
+import src.symbol.SymbolTable;
+import src.symbol.SymbolTableStack;
+import src.type.TypeTable;
+
+/**
+ * Escritura de las tablas de tipos y de símbolos como un objeto JSON en
+ * una sola línea, para que otros programas lean el resultado del análisis
+ * sin interpretar las tablas con formato de TablePrinter.
+ *
+ * El objeto tiene tres campos:
+ *
+ * - errors: mensajes de error del análisis.
+ * - types: cada tipo con id, name, size, items y base (ID del tipo base de
+ *   un array, o -1); las estructuras llevan además members con name, type
+ *   y offset de cada campo.
+ * - scopes: cada tabla de la pila, desde el ámbito global, con depth y sus
+ *   symbols (name, type, category y offset; las funciones llevan además
+ *   params con los IDs de sus parámetros).
+ *
+ * Las referencias adelantadas ya definidas no aparecen en types; los IDs
+ * que las usan se escriben como el ID de la definición.
+ *
+ * Los saltos de línea y demás caracteres de control se escapan, así que
+ * cada objeto ocupa exactamente una línea.
+ *
+ * @author steve-quezada
+ */
+public final class JsonTableWriter {
+
+    private static final char[] HEX = "0123456789abcdef".toCharArray();
+
+    private final Appendable out;
+
+    /**
+     * Constructor que escribe sobre un destino de texto.
+     *
+     * @param out Destino del JSON
+     */
+    public JsonTableWriter(Appendable out) {
+        this.out = out;
+    }
+
+    /**
+     * Escribe el resultado de un análisis, sin salto de línea final.
+     *
+     * @param typeTable   Tabla de tipos
+     * @param symbolStack Pila de tablas de símbolos
+     * @param errors      Mensajes de error del análisis
+     * @throws IOException Si ocurre un error al escribir
+     */
+    public void write(TypeTable typeTable, SymbolTableStack symbolStack, List<String> errors) throws IOException {
+        out.append("{\"errors\":[");
+        for (int i = 0; i < errors.size(); i++) {
+            if (i > 0) {
+                out.append(',');
+            }
+            string(errors.get(i));
+        }
+        out.append("],\"types\":[");
+        writeTypes(typeTable);
+        out.append("],\"scopes\":[");
+        List<SymbolTable> tables = symbolStack.getTables();
+        for (int depth = 0; depth < tables.size(); depth++) {
+            if (depth > 0) {
+                out.append(',');
+            }
+            out.append("{\"depth\":").append(String.valueOf(depth)).append(",\"symbols\":[");
+            writeSymbols(typeTable, tables.get(depth));
+            out.append("]}");
+        }
+        out.append("]}");
+    }
+
+    /**
+     * Escribe un mensaje de error sin tablas.
+     *
+     * @param message Mensaje de error
+     * @throws IOException Si ocurre un error al escribir
+     */
+    public void writeError(String message) throws IOException {
+        out.append("{\"error\":");
+        string(message);
+        out.append('}');
+    }
+
+    /**
+     * Escribe los tipos con nombre en orden de ID.
+     */
+    private void writeTypes(TypeTable typeTable) throws IOException {
+        boolean first = true;
+        int count = typeTable.size();
+        for (int id = 0; id < count; id++) {
+            String name = typeTable.getName(id);
+            if (name == null || name.isEmpty() || typeTable.resolveForwardReference(id) != id) {
+                continue;
+            }
+            if (!first) {
+                out.append(',');
+            }
+            first = false;
+            out.append("{\"id\":").append(String.valueOf(id)).append(",\"name\":");
+            string(name);
+            out.append(",\"size\":").append(String.valueOf(typeTable.getTam(id)))
+                    .append(",\"items\":").append(String.valueOf(typeTable.getItems(id)))
+                    .append(",\"base\":")
+                    .append(String.valueOf(typeTable.resolveForwardReference(typeTable.getParenId(id))));
+            SymbolTable members = typeTable.getParentStruct(id);
+            if (members != null) {
+                out.append(",\"members\":[");
+                boolean firstMember = true;
+                for (Map.Entry<String, Symbol> entry : members.getSymbols().entrySet()) {
+                    if (!firstMember) {
+                        out.append(',');
+                    }
+                    firstMember = false;
+                    out.append("{\"name\":");
+                    string(entry.getKey());
+                    out.append(",\"type\":")
+                            .append(String.valueOf(typeTable.resolveForwardReference(entry.getValue().getType())))
+                            .append(",\"offset\":").append(String.valueOf(entry.getValue().getDir()))
+                            .append('}');
+                }
+                out.append(']');
+            }
+            out.append('}');
+        }
+    }
+
+    /**
+     * Escribe los símbolos de una tabla en orden de inserción.
+     */
+    private void writeSymbols(TypeTable typeTable, SymbolTable table) throws IOException {
+        boolean first = true;
+        for (Map.Entry<String, Symbol> entry : table.getSymbols().entrySet()) {
+            Symbol symbol = entry.getValue();
+            if (!first) {
+                out.append(',');
+            }
+            first = false;
+            out.append("{\"name\":");
+            string(entry.getKey());
+            out.append(",\"type\":").append(String.valueOf(typeTable.resolveForwardReference(symbol.getType())))
+                    .append(",\"category\":\"")
+                    .append(symbol.getCategory().name().toLowerCase(Locale.ROOT))
+                    .append("\",\"offset\":").append(String.valueOf(symbol.getDir()));
+            if (symbol.getCategory() == SymbolCategory.FUNCTION) {
+                out.append(",\"params\":[");
+                int[] signature = symbol.getSignature();
+                for (int i = 0; i < signature.length; i++) {
+                    if (i > 0) {
+                        out.append(',');
+                    }
+                    out.append(String.valueOf(typeTable.resolveForwardReference(signature[i])));
+                }
+                out.append(']');
+            }
+            out.append('}');
+        }
+    }
+
+    /**
+     * Escribe una cadena JSON entre comillas, escapando comillas, barras y
+     * caracteres de control.
+     */
+    private void string(String value) throws IOException {
+        out.append('"');
+        int length = value.length();
+        int start = 0;
+        for (int i = 0; i < length; i++) {
+            char c = value.charAt(i);
+            if (c != '"' && c != '\\' && c >= 0x20) {
+                continue;
+            }
+            out.append(value, start, i);
+            switch (c) {
+                case '"':
+                    out.append("\\\"");
+                    break;
+                case '\\':
+                    out.append("\\\\");
+                    break;
+                case '\n':
+                    out.append("\\n");
+                    break;
+                case '\r':
+                    out.append("\\r");
+                    break;
+                case '\t':
+                    out.append("\\t");
+                    break;
+                default:
+                    out.append("\\u00").append(HEX[c >> 4]).append(HEX[c & 0xF]);
+            }
+            start = i + 1;
+        }
+        out.append(value, start, length);
+        out.append('"');
+    }
+}
@@ -0,0 +1,232 @@
+package src.util;
+
+import java.io.*;
+import java.nio.charset.Charset;
+
+/**
+ * Destino de la salida de texto del programa. Acumula lo escrito en un
+ * búfer propio y solo lo entrega al Writer subyacente cuando se llena o
+ * cuando se llama a flush(), de modo que cientos de llamadas pequeñas se
+ * convierten en unas pocas escrituras grandes.
+ *
+ * Opcionalmente elimina las secuencias de escape ANSI mientras copia al
+ * búfer, para que la salida redirigida a un archivo quede en texto plano.
+ * Las subclases pueden cambiar cómo se entrega cada lote, por ejemplo a un
+ * hilo escritor en segundo plano.
+ *
+ * @author steve-quezada
+ */
+public class OutputSink extends Writer {
+
+    /**
+     * Capacidad por defecto del búfer, en caracteres.
+     */
+    public static final int DEFAULT_CAPACITY = 1 << 16;
+
+    private static final char ESC = '\033';
+
+    private static final int TEXT = 0;
+
+    private static final int ESCAPE = 1;
+
+    private static final int SEQUENCE = 2;
+
+    private final Writer target;
+
+    private final boolean stripAnsi;
+
+    private final char[] buffer;
+
+    private int count;
+
+    private int state;
+
+    /**
+     * Constructor que crea un destino con búfer sobre un Writer.
+     *
+     * @param target    Writer que recibe los lotes
+     * @param stripAnsi true para eliminar las secuencias ANSI
+     * @param capacity  Capacidad del búfer en caracteres
+     */
+    public OutputSink(Writer target, boolean stripAnsi, int capacity) {
+        this.target = target;
+        this.stripAnsi = stripAnsi;
+        this.buffer = new char[Math.max(capacity, 16)];
+    }
+
+    /**
+     * Crea un destino sobre la salida estándar.
+     *
+     * @param async     true para escribir desde un hilo en segundo plano
+     * @param stripAnsi true para eliminar las secuencias ANSI
+     * @return Destino sobre System.out
+     */
+    public static OutputSink standardOutput(boolean async, boolean stripAnsi) {
+        Writer target = new OutputStreamWriter(System.out, Charset.defaultCharset());
+        return async
+                ? new AsyncOutputSink(target, stripAnsi, DEFAULT_CAPACITY)
+                : new OutputSink(target, stripAnsi, DEFAULT_CAPACITY);
+    }
+
+    /**
+     * Verifica si la salida estándar es una terminal interactiva.
+     *
+     * @return true si hay una consola asociada al proceso
+     */
+    public static boolean isTerminal() {
+        return System.console() != null;
+    }
+
+    /**
+     * Indica si este destino elimina las secuencias ANSI.
+     *
+     * @return true si las secuencias ANSI no llegan a la salida
+     */
+    public boolean stripsAnsi() {
+        return stripAnsi;
+    }
+
+    @Override
+    public synchronized void write(int c) throws IOException {
+        put((char) c);
+    }
+
+    @Override
+    public synchronized void write(char[] chars, int offset, int length) throws IOException {
+        if (stripAnsi) {
+            for (int i = offset, end = offset + length; i < end; i++) {
+                put(chars[i]);
+            }
+            return;
+        }
+        while (length > 0) {
+            int chunk = Math.min(length, buffer.length - count);
+            System.arraycopy(chars, offset, buffer, count, chunk);
+            count += chunk;
+            offset += chunk;
+            length -= chunk;
+            if (count == buffer.length) {
+                drainBuffer();
+            }
+        }
+    }
+
+    @Override
+    public synchronized void write(String text, int offset, int length) throws IOException {
+        if (stripAnsi) {
+            for (int i = offset, end = offset + length; i < end; i++) {
+                put(text.charAt(i));
+            }
+            return;
+        }
+        while (length > 0) {
+            int chunk = Math.min(length, buffer.length - count);
+            text.getChars(offset, offset + chunk, buffer, count);
+            count += chunk;
+            offset += chunk;
+            length -= chunk;
+            if (count == buffer.length) {
+                drainBuffer();
+            }
+        }
+    }
+
+    /**
+     * Entrega el contenido del búfer y vacía el Writer subyacente.
+     *
+     * @throws IOException Si ocurre un error al escribir
+     */
+    @Override
+    public synchronized void flush() throws IOException {
+        drainBuffer();
+        flushTarget();
+    }
+
+    /**
+     * Entrega lo pendiente y cierra el Writer subyacente.
+     *
+     * @throws IOException Si ocurre un error al escribir
+     */
+    @Override
+    public synchronized void close() throws IOException {
+        flush();
+        closeTarget();
+    }
+
+    /**
+     * Entrega un lote de caracteres. La implementación por defecto lo
+     * escribe directamente en el Writer subyacente.
+     *
+     * @param chars  Caracteres del lote; el arreglo se reutiliza al volver
+     * @param length Número de caracteres válidos
+     * @throws IOException Si ocurre un error al escribir
+     */
+    protected void drain(char[] chars, int length) throws IOException {
+        target.write(chars, 0, length);
+    }
+
+    /**
+     * Vacía el Writer subyacente después de entregar el búfer.
+     *
+     * @throws IOException Si ocurre un error al escribir
+     */
+    protected void flushTarget() throws IOException {
+        target.flush();
+    }
+
+    /**
+     * Cierra el Writer subyacente.
+     *
+     * @throws IOException Si ocurre un error al cerrar
+     */
+    protected void closeTarget() throws IOException {
+        target.close();
+    }
+
+    /**
+     * Obtiene el Writer subyacente.
+     *
+     * @return Writer que recibe los lotes
+     */
+    protected Writer getTarget() {
+        return target;
+    }
+
+    /**
+     * Copia un carácter al búfer, descartándolo si forma parte de una
+     * secuencia ANSI y el filtrado está activo.
+     */
+    private void put(char c) throws IOException {
+        if (stripAnsi) {
+            switch (state) {
+                case ESCAPE:
+                    state = c == '[' ? SEQUENCE : TEXT;
+                    return;
+                case SEQUENCE:
+                    if (c >= 0x40 && c <= 0x7E) {
+                        state = TEXT;
+                    }
+                    return;
+                default:
+                    if (c == ESC) {
+                        state = ESCAPE;
+                        return;
+                    }
+            }
+        }
+        buffer[count++] = c;
+        if (count == buffer.length) {
+            drainBuffer();
+        }
+    }
+
+    /**
+     * Entrega el contenido del búfer si no está vacío.
+     */
+    private void drainBuffer() throws IOException {
+        if (count > 0) {
+            drain(buffer, count);
+            count = 0;
+        }
+    }
+}
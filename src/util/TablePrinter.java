@@ -1,8 +1,10 @@
 package src.util;
 
+import java.io.*;
 import java.util.*;
 
 import src.symbol.Symbol;
+import src.symbol.SymbolCategory;
 import src.symbol.SymbolTable;
 import src.symbol.SymbolTableStack;
 import src.type.Type;
@@ -12,170 +14,63 @@ import src.type.TypeTable;
  * Clase que se encarga de la visualización formateada de las tablas de símbolos
  * y tipos en la terminal.
  *
+ * Las tablas se escriben directamente a un Writer con búfer en dos pasadas:
+ * la primera mide el ancho de cada columna y la segunda escribe las filas,
+ * sin guardarlas en memoria. El relleno se copia de un arreglo de espacios
+ * precalculado en lugar de usar cadenas de formato. En modo plano no se
+ * escribe ninguna secuencia ANSI.
+ *
  * @author steve-quezada
  */
 public class TablePrinter {
 
-    private static TypeTable currentTypeTable;
+    private static final String NEW_LINE = System.lineSeparator();
 
-    /**
-     * Clase interna que maneja el cálculo y formato de anchos de columnas para
-     * las tablas.
-     */
-    private static class ColumnWidths {
+    private static final char[] SPACES = new char[64];
 
-        int[] widths;
+    private static final char[] RULE = new char[64];
 
-        /**
-         * Constructor que inicializa el array de anchos.
-         *
-         * @param columns Número de columnas en la tabla
-         */
-        ColumnWidths(int columns) {
-            widths = new int[columns];
-        }
+    static {
+        Arrays.fill(SPACES, ' ');
+        Arrays.fill(RULE, '─');
+    }
 
-        /**
-         * Actualiza el ancho de una columna si el nuevo valor es más largo.
-         *
-         * @param column Índice de la columna a actualizar
-         * @param value  Valor cuya longitud se compara
-         */
-        void updateWidth(int column, String value) {
-            if (value != null) {
-                widths[column] = Math.max(widths[column], value.length());
-            }
-        }
+    private static final String[] TYPE_HEADERS = { "Tipo ID", "Tipo Base", "Descripción" };
 
-        /**
-         * Formatea una fila de valores con el color especificado.
-         *
-         * @param values       Valores a formatear
-         * @param contentColor Color a aplicar al contenido
-         * @return String formateado con los valores y colores
-         */
-        String format(String[] values, String contentColor) {
-            StringBuilder sb = new StringBuilder();
-            sb.append(Colors.GRAY_DARK).append("│").append(contentColor).append(" ");
-
-            for (int i = 0; i < values.length; i++) {
-                String value = values[i] != null ? values[i] : "";
-                sb.append(String.format("%-" + widths[i] + "s", value));
-                if (i < values.length - 1) {
-                    sb.append(Colors.GRAY_DARK).append(" │ ").append(contentColor);
-                }
-            }
+    private static final String[] GLOBAL_HEADERS = { "Nombre", "Tipo ID", "Tipo Retorno", "Categoría", "Ámbito" };
 
-            sb.append(Colors.GRAY_DARK).append(" │");
-            return sb.toString();
-        }
+    private static final String[] SCOPE_HEADERS = { "Nombre", "Tipo ID", "Categoría" };
 
-        /**
-         * Genera una línea separadora horizontal para la tabla.
-         *
-         * @return String con la línea separadora formateada
-         */
-        String separator() {
-            StringBuilder sb = new StringBuilder();
-            for (int i = 0; i < widths.length; i++) {
-                if (i == 0) {
-                    sb.append("├");
-                } else {
-                    sb.append("┼");
-                }
-                sb.append("─".repeat(widths[i] + 2));
-            }
-            sb.append("┤");
-            return sb.toString();
-        }
+    private final Writer out;
 
-        /**
-         * Genera el borde superior de la tabla.
-         *
-         * @return String con el borde superior formateado
-         */
-        String topBorder() {
-            StringBuilder sb = new StringBuilder();
-            for (int i = 0; i < widths.length; i++) {
-                if (i == 0) {
-                    sb.append("┌");
-                } else {
-                    sb.append("┬");
-                }
-                sb.append("─".repeat(widths[i] + 2));
-            }
-            sb.append("┐");
-            return sb.toString();
-        }
+    private final boolean ansi;
 
-        /**
-         * Genera el borde inferior de la tabla.
-         *
-         * @return String con el borde inferior formateado
-         */
-        String bottomBorder() {
-            StringBuilder sb = new StringBuilder();
-            for (int i = 0; i < widths.length; i++) {
-                if (i == 0) {
-                    sb.append("└");
-                } else {
-                    sb.append("┴");
-                }
-                sb.append("─".repeat(widths[i] + 2));
-            }
-            sb.append("┘");
-            return sb.toString();
-        }
+    private TypeTable typeTable;
 
-        /**
-         * Formatea los encabezados de la tabla con sus respectivos colores.
-         *
-         * @param values Array de Strings con los nombres de los encabezados
-         * @return String formateado con los encabezados y sus colores
-         */
-        String formatHeaders(String[] values) {
-            StringBuilder sb = new StringBuilder();
-            sb.append(Colors.GRAY_DARK).append("│ ");
-
-            for (int i = 0; i < values.length; i++) {
-                String value = values[i] != null ? values[i] : "";
-                String color = getHeaderColor(value);
-                sb.append(color).append(String.format("%-" + widths[i] + "s", value));
-                if (i < values.length - 1) {
-                    sb.append(Colors.GRAY_DARK).append(" │ ");
-                }
-            }
+    /**
+     * Produce las filas de una tabla. Cada fila se escribe en el arreglo de
+     * celdas compartido y se entrega llamando a RowSink.row().
+     */
+    private interface Rows {
+        void each(String[] cells, RowSink sink) throws IOException;
+    }
 
-            sb.append(Colors.GRAY_DARK).append(" │");
-            return sb.toString();
-        }
+    /**
+     * Recibe cada fila producida por Rows.
+     */
+    private interface RowSink {
+        void row() throws IOException;
+    }
 
-        /**
-         * Determina el color apropiado para cada tipo de encabezado.
-         *
-         * @param header Nombre del encabezado
-         * @return String con el código de color correspondiente
-         */
-        private String getHeaderColor(String header) {
-            switch (header) {
-                case "Nombre":
-                    return Colors.CYAN + Colors.HIGH_INTENSITY;
-                case "Tipo ID":
-                    return Colors.EMERALD + Colors.HIGH_INTENSITY;
-                case "Tipo Retorno":
-                    return Colors.GOLD + Colors.HIGH_INTENSITY;
-                case "Categoría":
-                    return Colors.MAGENTA + Colors.HIGH_INTENSITY;
-                case "Ámbito":
-                    return Colors.TEAL + Colors.HIGH_INTENSITY;
-                case "Tipo Base":
-                    return Colors.LIME + Colors.HIGH_INTENSITY;
-                case "Descripción":
-                    return Colors.LAVENDER + Colors.HIGH_INTENSITY;
-                default:
-                    return Colors.WHITE;
-            }
-        }
+    /**
+     * Constructor que prepara un renderizador sobre un Writer.
+     *
+     * @param out  Destino de las tablas; conviene que tenga búfer
+     * @param ansi true para escribir colores ANSI, false para texto plano
+     */
+    public TablePrinter(Writer out, boolean ansi) {
+        this.out = out;
+        this.ansi = ansi;
     }
 
     /**
@@ -185,36 +80,125 @@ public class TablePrinter {
      * @param typeTable Tabla de tipos a imprimir
      */
     public static void printTypeTable(TypeTable typeTable) {
-        currentTypeTable = typeTable;
-        System.out.println();
-        Colors.print("┌────────────────┐", Colors.GRAY_DARK);
-        Colors.println("\n" + "│ Tabla de Tipos │", Colors.MOSS_GREEN + Colors.HIGH_INTENSITY);
-        Colors.println("└────────────────┘", Colors.GRAY_DARK);
-
-        List<String[]> rows = new ArrayList<>();
-        ColumnWidths widths = new ColumnWidths(3);
-
-        String[] headers = { "Tipo ID", "Tipo Base", "Descripción" };
-        rows.add(headers);
-
-        TreeMap<Integer, Type> usedTypes = new TreeMap<>();
-        for (int i = 0; i < 20; i++) {
-            Optional<Type> type = typeTable.getType(i);
-            if (type.isPresent() && type.get().getName() != null && !type.get().getName().isEmpty()) {
-                usedTypes.put(i, type.get());
+        printTypeTable(typeTable, true);
+    }
+
+    /**
+     * Imprime la tabla de tipos en el destino de salida de {@link Colors}.
+     * Los colores se omiten también si el destino elimina las secuencias ANSI.
+     *
+     * @param typeTable Tabla de tipos a imprimir
+     * @param ansi      true para escribir colores ANSI, false para texto plano
+     */
+    public static void printTypeTable(TypeTable typeTable, boolean ansi) {
+        try {
+            new TablePrinter(Colors.getSink(), ansi && Colors.isAnsiEnabled()).writeTypeTable(typeTable);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Imprime las tablas de símbolos del programa.
+     * Muestra también las estructuras definidas con sus miembros.
+     *
+     * @param stack Pila de tablas de símbolos del programa
+     * @param typeTable Tabla de tipos actual
+     */
+    public static void printSymbolTables(SymbolTableStack stack, TypeTable typeTable) {
+        printSymbolTables(stack, typeTable, true);
+    }
+
+    /**
+     * Imprime las tablas de símbolos del programa en el destino de salida de
+     * {@link Colors}.
+     *
+     * @param stack     Pila de tablas de símbolos del programa
+     * @param typeTable Tabla de tipos actual
+     * @param ansi      true para escribir colores ANSI, false para texto plano
+     */
+    public static void printSymbolTables(SymbolTableStack stack, TypeTable typeTable, boolean ansi) {
+        try {
+            new TablePrinter(Colors.getSink(), ansi && Colors.isAnsiEnabled()).writeSymbolTables(stack, typeTable);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Escribe la tabla de tipos con todos los tipos definidos, en orden de ID.
+     * Las referencias adelantadas ya definidas se omiten; los símbolos que
+     * las usan muestran el ID de la definición.
+     *
+     * @param typeTable Tabla de tipos a escribir
+     * @throws IOException Si ocurre un error al escribir
+     */
+    public void writeTypeTable(TypeTable typeTable) throws IOException {
+        this.typeTable = typeTable;
+        newLine();
+        title("┌────────────────┐", "│ Tabla de Tipos │", "└────────────────┘",
+                Colors.MOSS_GREEN + Colors.HIGH_INTENSITY);
+
+        writeTable(TYPE_HEADERS, (cells, sink) -> {
+            int count = typeTable.size();
+            for (int id = 0; id < count; id++) {
+                Optional<Type> type = typeTable.getType(id);
+                if (type.isPresent() && type.get().getName() != null && !type.get().getName().isEmpty()
+                        && typeTable.resolveForwardReference(id) == id) {
+                    cells[0] = String.valueOf(id);
+                    cells[1] = type.get().getName();
+                    cells[2] = getTypeDescription(type.get());
+                    sink.row();
+                }
+            }
+        });
+        newLine();
+    }
+
+    /**
+     * Escribe las tablas de símbolos del programa: el ámbito global, los
+     * miembros de cada estructura y el ámbito de main.
+     *
+     * @param stack     Pila de tablas de símbolos del programa
+     * @param typeTable Tabla de tipos actual
+     * @throws IOException Si ocurre un error al escribir
+     */
+    public void writeSymbolTables(SymbolTableStack stack, TypeTable typeTable) throws IOException {
+        this.typeTable = typeTable;
+
+        Optional<SymbolTable> globalScope = stack.base();
+        if (globalScope.isPresent()) {
+            newLine();
+            title("┌───────────────┐", "│ Ámbito Global │", "└───────────────┘",
+                    Colors.BLUE + Colors.HIGH_INTENSITY);
+            writeGlobalScope(globalScope.get());
+
+            for (Map.Entry<String, Symbol> entry : globalScope.get().getSymbols().entrySet()) {
+                if (entry.getValue().getCategory() == SymbolCategory.STRUCT) {
+                    newLine();
+                    title("┌─────────────┐", "│ Estructura: │ " + entry.getKey(), "└─────────────┘",
+                            Colors.SLATE_GRAY + Colors.HIGH_INTENSITY);
+                    writeStructureMembers(typeTable.getParentStruct(entry.getValue().getType()));
+                }
             }
         }
 
-        for (Map.Entry<Integer, Type> entry : usedTypes.entrySet()) {
-            String[] row = new String[3];
-            row[0] = String.valueOf(entry.getKey());
-            row[1] = entry.getValue().getName();
-            row[2] = getTypeDescription(entry.getValue());
-            rows.add(row);
+        newLine();
+        title("┌──────────────────┐", "│  Ámbito de Main  │", "└──────────────────┘",
+                Colors.DARK_PURPLE + Colors.HIGH_INTENSITY);
+        Optional<SymbolTable> mainScope = stack.peek();
+        if (mainScope.isPresent() && !mainScope.equals(globalScope)) {
+            writeMainScope(mainScope.get());
         }
+    }
 
-        printFormattedTable(rows, widths);
-        System.out.println();
+    /**
+     * Vacía el búfer del Writer subyacente.
+     *
+     * @throws IOException Si ocurre un error al escribir
+     */
+    public void flush() throws IOException {
+        out.flush();
     }
 
     /**
@@ -223,7 +207,7 @@ public class TablePrinter {
      * @param type Tipo a describir
      * @return Descripción del tipo como String
      */
-    private static String getTypeDescription(Type type) {
+    private String getTypeDescription(Type type) {
         if (type.getParentStruct() != null) {
             String description = getDetailedStructDescription(type.getParentStruct());
             return description.isEmpty() ? "struct" : "struct { " + description + " }";
@@ -233,25 +217,24 @@ public class TablePrinter {
             return "Tipo primitivo";
         }
     }
-    
+
     /**
      * Genera una descripción detallada de los miembros de una estructura.
      *
      * @param structTable Tabla de símbolos que contiene los miembros de la estructura
      * @return String con la descripción formateada de los miembros
      */
-    private static String getDetailedStructDescription(SymbolTable structTable) {
+    private String getDetailedStructDescription(SymbolTable structTable) {
         if (structTable == null || structTable.getSymbols().isEmpty())
             return "";
 
         StringBuilder desc = new StringBuilder();
         boolean first = true;
 
-        Map<String, Symbol> fields = new LinkedHashMap<>(structTable.getSymbols());
-        for (Map.Entry<String, Symbol> entry : fields.entrySet()) {
+        for (Map.Entry<String, Symbol> entry : structTable.getSymbols().entrySet()) {
             if (!first)
                 desc.append("; ");
-            String typeName = currentTypeTable.getName(entry.getValue().getType());
+            String typeName = typeTable.getName(entry.getValue().getType());
             if (typeName == null || typeName.isEmpty()) {
                 typeName = String.valueOf(entry.getValue().getType());
             }
@@ -262,177 +245,255 @@ public class TablePrinter {
     }
 
     /**
-     * Imprime las tablas de símbolos del programa.
-     * Muestra también las estructuras definidas con sus miembros.
-     *
-     * @param stack Pila de tablas de símbolos del programa
-     * @param typeTable Tabla de tipos actual
-     */
-    public static void printSymbolTables(SymbolTableStack stack, TypeTable typeTable) {
-        currentTypeTable = typeTable;
-
-        Optional<SymbolTable> globalScope = stack.base();
-        if (globalScope.isPresent()) {
-            System.out.println();
-            Colors.print("┌───────────────┐", Colors.GRAY_DARK);
-            Colors.println("\n" + "│ Ámbito Global │", Colors.BLUE + Colors.HIGH_INTENSITY);
-            Colors.println("└───────────────┘", Colors.GRAY_DARK);
-            printGlobalScope(globalScope.get());
-
-            Map<String, Symbol> orderedSymbols = new LinkedHashMap<>(globalScope.get().getSymbols());
-
-            for (Map.Entry<String, Symbol> entry : orderedSymbols.entrySet()) {
-                if ("struct".equals(entry.getValue().getCat())) {
-                    System.out.println();
-                    Colors.print("┌─────────────┐", Colors.GRAY_DARK);
-                    Colors.println("\n" + "│ Estructura: │ " + entry.getKey(),
-                            Colors.SLATE_GRAY + Colors.HIGH_INTENSITY);
-                    Colors.println("└─────────────┘", Colors.GRAY_DARK);
-                    printStructureMembers(typeTable.getParentStruct(entry.getValue().getType()));
-                }
-            }
-        }
-
-        System.out.println();
-        Colors.print("┌──────────────────┐", Colors.GRAY_DARK);
-        Colors.println("\n" + "│  Ámbito de Main  │", Colors.DARK_PURPLE + Colors.HIGH_INTENSITY);
-        Colors.println("└──────────────────┘", Colors.GRAY_DARK);
-        Optional<SymbolTable> mainScope = stack.peek();
-        if (mainScope.isPresent() && !mainScope.equals(globalScope)) {
-            printMainScope(mainScope.get());
-        }
-    }
-
-    /**
-     * Imprime los símbolos del ámbito global.
+     * Escribe los símbolos del ámbito global.
      * Incluye nombres, tipos, retornos y categorías de los símbolos.
      *
      * @param table Tabla de símbolos del ámbito global
      */
-    private static void printGlobalScope(SymbolTable table) {
-        List<String[]> rows = new ArrayList<>();
-        ColumnWidths widths = new ColumnWidths(5);
-
-        String[] headers = { "Nombre", "Tipo ID", "Tipo Retorno", "Categoría", "Ámbito" };
-        rows.add(headers);
-
-        Map<String, Symbol> symbols = table.getSymbols();
-        for (Map.Entry<String, Symbol> entry : symbols.entrySet()) {
-            String[] row = new String[5];
-            Symbol sym = entry.getValue();
-            row[0] = entry.getKey();
-            row[1] = sym.getCat().equals("function") ? "-" : String.valueOf(sym.getType());
-            row[2] = sym.getCat().equals("function") ? "int" : "-";
-            row[3] = sym.getCat();
-            row[4] = "Global";
-            rows.add(row);
-        }
-
-        printFormattedTable(rows, widths);
+    private void writeGlobalScope(SymbolTable table) throws IOException {
+        writeTable(GLOBAL_HEADERS, (cells, sink) -> {
+            for (Map.Entry<String, Symbol> entry : table.getSymbols().entrySet()) {
+                Symbol sym = entry.getValue();
+                boolean function = sym.getCategory() == SymbolCategory.FUNCTION;
+                cells[0] = entry.getKey();
+                cells[1] = function ? "-" : typeId(sym);
+                cells[2] = function ? "int" : "-";
+                cells[3] = sym.getCat();
+                cells[4] = "Global";
+                sink.row();
+            }
+        });
     }
 
     /**
-     * Imprime los miembros de una estructura.
+     * Escribe los miembros de una estructura.
      * Muestra el nombre, tipo y categoría de cada miembro.
      *
      * @param table Tabla de símbolos que representa la estructura
      */
-    private static void printStructureMembers(SymbolTable table) {
+    private void writeStructureMembers(SymbolTable table) throws IOException {
         if (table == null)
             return;
 
-        List<String[]> rows = new ArrayList<>();
-        ColumnWidths widths = new ColumnWidths(3);
-
-        String[] headers = { "Nombre", "Tipo ID", "Categoría" };
-        rows.add(headers);
-
-        Map<String, Symbol> orderedSymbols = new LinkedHashMap<>(table.getSymbols());
-        for (Map.Entry<String, Symbol> entry : orderedSymbols.entrySet()) {
-            String[] row = new String[3];
-            row[0] = entry.getKey();
-            row[1] = String.valueOf(entry.getValue().getType());
-            row[2] = "Miembro";
-            rows.add(row);
-        }
-
-        printFormattedTable(rows, widths);
+        writeTable(SCOPE_HEADERS, (cells, sink) -> {
+            for (Map.Entry<String, Symbol> entry : table.getSymbols().entrySet()) {
+                cells[0] = entry.getKey();
+                cells[1] = typeId(entry.getValue());
+                cells[2] = "Miembro";
+                sink.row();
+            }
+        });
     }
 
     /**
-     * Imprime las variables locales del ámbito main.
+     * Escribe las variables locales del ámbito main.
      * Muestra el nombre, tipo y categoría de cada variable.
      *
      * @param table Tabla de símbolos del ámbito main
      */
-    private static void printMainScope(SymbolTable table) {
-        List<String[]> rows = new ArrayList<>();
-        ColumnWidths widths = new ColumnWidths(3);
-
-        String[] headers = { "Nombre", "Tipo ID", "Categoría" };
-        rows.add(headers);
-
-        Map<String, Symbol> symbols = table.getSymbols();
-        for (Map.Entry<String, Symbol> entry : symbols.entrySet()) {
-            if (!entry.getValue().getCat().equals("function")) {
-                String[] row = new String[3];
-                row[0] = entry.getKey();
-                row[1] = String.valueOf(entry.getValue().getType());
-                row[2] = "Variable";
-                rows.add(row);
+    private void writeMainScope(SymbolTable table) throws IOException {
+        writeTable(SCOPE_HEADERS, (cells, sink) -> {
+            for (Map.Entry<String, Symbol> entry : table.getSymbols().entrySet()) {
+                if (entry.getValue().getCategory() != SymbolCategory.FUNCTION) {
+                    cells[0] = entry.getKey();
+                    cells[1] = typeId(entry.getValue());
+                    cells[2] = "Variable";
+                    sink.row();
+                }
             }
-        }
+        });
+    }
 
-        printFormattedTable(rows, widths);
+    /**
+     * Obtiene el ID del tipo de un símbolo tal como aparece en la tabla de
+     * tipos.
+     */
+    private String typeId(Symbol symbol) {
+        return String.valueOf(typeTable.resolveForwardReference(symbol.getType()));
     }
-    
+
     /**
-     * Imprime una tabla formateada con bordes y colores.
-     * Se encarga del formato visual de todas las tablas del programa.
+     * Escribe una tabla formateada con bordes y colores. La primera pasada
+     * sobre las filas calcula los anchos y la segunda las escribe.
      *
-     * @param rows Lista de filas a imprimir, donde cada fila es un array de Strings
-     * @param widths Objeto que maneja los anchos de las columnas
+     * @param headers Encabezados de las columnas
+     * @param rows    Productor de las filas de la tabla
      */
-    private static void printFormattedTable(List<String[]> rows, ColumnWidths widths) {
+    private void writeTable(String[] headers, Rows rows) throws IOException {
+        int[] widths = new int[headers.length];
+        for (int i = 0; i < headers.length; i++) {
+            widths[i] = headers[i].length();
+        }
+
+        String[] cells = new String[headers.length];
+        rows.each(cells, () -> {
+            for (int i = 0; i < cells.length; i++) {
+                if (cells[i] != null) {
+                    widths[i] = Math.max(widths[i], cells[i].length());
+                }
+            }
+        });
 
-        for (String[] row : rows) {
-            for (int j = 0; j < row.length; j++) {
-                widths.updateWidth(j, row[j]);
+        border(widths, '┌', '┬', '┐');
+        writeHeaders(headers, widths);
+        border(widths, '├', '┼', '┤');
+        rows.each(cells, () -> writeRow(cells, widths, getRowColor(cells[cells.length - 2])));
+        border(widths, '└', '┴', '┘');
+    }
+
+    /**
+     * Escribe la fila de encabezados con el color de cada uno.
+     */
+    private void writeHeaders(String[] headers, int[] widths) throws IOException {
+        escape(Colors.GRAY_DARK);
+        out.write("│ ");
+        for (int i = 0; i < headers.length; i++) {
+            escape(getHeaderColor(headers[i]));
+            cell(headers[i], widths[i]);
+            if (i < headers.length - 1) {
+                escape(Colors.GRAY_DARK);
+                out.write(" │ ");
             }
         }
+        escape(Colors.GRAY_DARK);
+        out.write(" │");
+        escape(Colors.RESTORE);
+        out.write(NEW_LINE);
+    }
 
-        Colors.println(widths.topBorder(), Colors.GRAY_DARK);
-
-        Colors.println(widths.formatHeaders(rows.get(0)), "");
-
-        Colors.println(widths.separator(), Colors.GRAY_DARK);
-
-        for (int i = 1; i < rows.size(); i++) {
-            String[] row = rows.get(i);
-            String category = row[row.length - 2];
-
-            String color;
-            switch (category) {
-                case "function":
-                    color = Colors.DARK_PURPLE;
-                    break;
-                case "struct":
-                    color = Colors.SLATE_GRAY;
-                    break;
-                case "Variable":
-                    color = Colors.WHITE;
-                    break;
-                case "Miembro":
-                    color = Colors.GRAY_LIGHT;
-                    break;
-                default:
-                    color = Colors.WHITE;
-                    break;
+    /**
+     * Escribe una fila de datos con el color indicado.
+     */
+    private void writeRow(String[] cells, int[] widths, String color) throws IOException {
+        escape(Colors.GRAY_DARK);
+        out.write('│');
+        escape(color);
+        out.write(' ');
+        for (int i = 0; i < cells.length; i++) {
+            cell(cells[i] != null ? cells[i] : "", widths[i]);
+            if (i < cells.length - 1) {
+                escape(Colors.GRAY_DARK);
+                out.write(" │ ");
+                escape(color);
             }
+        }
+        escape(Colors.GRAY_DARK);
+        out.write(" │");
+        escape(Colors.RESTORE);
+        out.write(NEW_LINE);
+    }
 
-            Colors.println(widths.format(row, color), "");
+    /**
+     * Escribe un borde horizontal con los caracteres de esquina y de cruce
+     * indicados.
+     */
+    private void border(int[] widths, char left, char middle, char right) throws IOException {
+        escape(Colors.GRAY_DARK);
+        for (int i = 0; i < widths.length; i++) {
+            out.write(i == 0 ? left : middle);
+            repeat(RULE, widths[i] + 2);
         }
+        out.write(right);
+        escape(Colors.RESTORE);
+        out.write(NEW_LINE);
+    }
 
-        Colors.println(widths.bottomBorder(), Colors.GRAY_DARK);
+    /**
+     * Escribe el recuadro de título de una sección.
+     */
+    private void title(String top, String middle, String bottom, String color) throws IOException {
+        escape(Colors.GRAY_DARK);
+        out.write(top);
+        escape(Colors.RESTORE);
+        escape(color);
+        out.write('\n');
+        out.write(middle);
+        escape(Colors.RESTORE);
+        out.write(NEW_LINE);
+        escape(Colors.GRAY_DARK);
+        out.write(bottom);
+        escape(Colors.RESTORE);
+        out.write(NEW_LINE);
+    }
+
+    /**
+     * Escribe un valor alineado a la izquierda y rellenado hasta el ancho.
+     */
+    private void cell(String value, int width) throws IOException {
+        out.write(value);
+        repeat(SPACES, width - value.length());
+    }
+
+    /**
+     * Escribe count caracteres del patrón, en bloques del tamaño del arreglo.
+     */
+    private void repeat(char[] pattern, int count) throws IOException {
+        while (count > 0) {
+            int chunk = Math.min(count, pattern.length);
+            out.write(pattern, 0, chunk);
+            count -= chunk;
+        }
+    }
+
+    /**
+     * Escribe una secuencia ANSI solo si el modo de color está activo.
+     */
+    private void escape(String sequence) throws IOException {
+        if (ansi) {
+            out.write(sequence);
+        }
+    }
+
+    /**
+     * Escribe un salto de línea vacío.
+     */
+    private void newLine() throws IOException {
+        out.write(NEW_LINE);
+    }
+
+    /**
+     * Determina el color de una fila a partir de su penúltima columna.
+     *
+     * @param category Valor de la penúltima columna de la fila
+     * @return String con el código de color correspondiente
+     */
+    private static String getRowColor(String category) {
+        switch (category) {
+            case "function":
+                return Colors.DARK_PURPLE;
+            case "struct":
+                return Colors.SLATE_GRAY;
+            case "Miembro":
+                return Colors.GRAY_LIGHT;
+            default:
+                return Colors.WHITE;
+        }
+    }
+
+    /**
+     * Determina el color apropiado para cada tipo de encabezado.
+     *
+     * @param header Nombre del encabezado
+     * @return String con el código de color correspondiente
+     */
+    private static String getHeaderColor(String header) {
+        switch (header) {
+            case "Nombre":
+                return Colors.CYAN + Colors.HIGH_INTENSITY;
+            case "Tipo ID":
+                return Colors.EMERALD + Colors.HIGH_INTENSITY;
+            case "Tipo Retorno":
+                return Colors.GOLD + Colors.HIGH_INTENSITY;
+            case "Categoría":
+                return Colors.MAGENTA + Colors.HIGH_INTENSITY;
+            case "Ámbito":
+                return Colors.TEAL + Colors.HIGH_INTENSITY;
+            case "Tipo Base":
+                return Colors.LIME + Colors.HIGH_INTENSITY;
+            case "Descripción":
+                return Colors.LAVENDER + Colors.HIGH_INTENSITY;
+            default:
+                return Colors.WHITE;
+        }
     }
 }